@@ -0,0 +1,126 @@
+package personal.project.teamwork_management.bench;
+
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import org.jsoup.Jsoup;
+import org.jsoup.helper.W3CDom;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.DocumentType;
+import org.jsoup.nodes.Entities;
+import org.jsoup.parser.Parser;
+import org.openjdk.jmh.annotations.*;
+import personal.project.teamwork_management.service.HtmlToPdfService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * So sánh thời gian/allocation mỗi báo cáo PDF: cách cũ (builder + đọc font + pretty-print + ghi debug HTML mỗi lần)
+ * với HtmlToPdfService hiện tại (font/metrics cache, không ghi debug).
+ * Chạy: mvn -Pjmh test-compile exec:exec -Djmh.args="HtmlToPdfBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HtmlToPdfBenchmark {
+
+    @Param({"50", "500", "2000"})
+    public int rows;
+
+    private String html;
+    private Path dir;
+    private HtmlToPdfService engine;
+
+    @Setup
+    public void setup() throws IOException {
+        html = ReportFixtures.render(ReportFixtures.templateEngine(), "report/project-report",
+                ReportFixtures.projectReportModel(rows));
+        dir = Files.createTempDirectory("pdf-bench");
+        engine = new HtmlToPdfService();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Path legacy() throws Exception {
+        Path out = dir.resolve("legacy.pdf");
+        LegacyHtmlToPdf.writePdf(html, out);
+        return out;
+    }
+
+    @Benchmark
+    public Path engineToFile() throws Exception {
+        Path out = dir.resolve("engine.pdf");
+        engine.writePdf(html, out);
+        return out;
+    }
+
+    @Benchmark
+    public void engineToStream() throws Exception {
+        engine.writePdf(html, OutputStream.nullOutputStream());
+    }
+
+    /** Bản sao nguyên trạng HtmlToPdfService.writePdf trước khi tối ưu, làm baseline. */
+    static final class LegacyHtmlToPdf {
+
+        static void writePdf(String html, Path out) throws Exception {
+            Files.createDirectories(out.getParent());
+            html = html.strip();
+
+            Document doc = Jsoup.parse(html, "", Parser.xmlParser());
+            doc.outputSettings()
+                    .syntax(Document.OutputSettings.Syntax.xml)
+                    .escapeMode(Entities.EscapeMode.xhtml)
+                    .charset("UTF-8")
+                    .prettyPrint(true);
+            for (org.jsoup.nodes.Node n : new ArrayList<>(doc.childNodes())) {
+                if (n instanceof DocumentType) {
+                    n.remove();
+                }
+            }
+            doc.selectFirst("html").attr("xmlns", "http://www.w3.org/1999/xhtml");
+            if (doc.selectFirst("meta[charset]") == null) {
+                doc.head().prependElement("meta").attr("charset", "UTF-8");
+            }
+
+            Path debugHtml = out.getParent().resolve("_debug-latest.html");
+            Files.writeString(debugHtml, doc.outerHtml(),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+            org.w3c.dom.Document w3cDoc = new W3CDom().fromJsoup(doc);
+            try (OutputStream os = Files.newOutputStream(out,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                PdfRendererBuilder builder = new PdfRendererBuilder();
+                builder.useFastMode();
+                builder.withW3cDocument(w3cDoc, null);
+                registerFontIfPresent(builder, "/fonts/NotoSans-Regular.ttf", "NotoSans", 400);
+                registerFontIfPresent(builder, "/fonts/NotoSans-Bold.ttf", "NotoSans", 700);
+                builder.toStream(os);
+                builder.run();
+            }
+        }
+
+        private static void registerFontIfPresent(PdfRendererBuilder builder, String classpathTtf, String family, int weight) {
+            InputStream in = LegacyHtmlToPdf.class.getResourceAsStream(classpathTtf);
+            if (in != null) {
+                builder.useFont(() -> LegacyHtmlToPdf.class.getResourceAsStream(classpathTtf), family, weight,
+                        PdfRendererBuilder.FontStyle.NORMAL, true);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package personal.project.teamwork_management.bench;
+
+import org.openjdk.jmh.annotations.*;
+import personal.project.teamwork_management.util.JwtUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil.validateToken chạy trên mọi request có Bearer token (JwtFilter).
+ * Chạy: mvn -Pjmh test-compile exec:exec -Djmh.args="JwtBenchmark -prof gc"
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private String tampered;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        jwtUtil.init();
+        token = jwtUtil.generateToken("benchmark@mail.test");
+        // đổi 1 ký tự chữ ký -> đi nhánh lỗi (JwtException)
+        char last = token.charAt(token.length() - 2);
+        tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+    }
+
+    @Benchmark
+    public String validate() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public String validateInvalidSignature() {
+        return jwtUtil.validateToken(tampered);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken("benchmark@mail.test");
+    }
+}
@@ -0,0 +1,68 @@
+package personal.project.teamwork_management.bench;
+
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Dữ liệu giả + Thymeleaf engine (SpEL như app, không cần Spring context/DB) cho các benchmark báo cáo.
+ */
+final class ReportFixtures {
+
+    private ReportFixtures() {
+    }
+
+    static TemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        SpringTemplateEngine engine = new SpringTemplateEngine(); // SpEL như trong app
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    /** Model giống ProjectReportService.buildModel: rows cây task 3 cấp. */
+    static Map<String, Object> projectReportModel(int rows) {
+        List<Map<String, Object>> items = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            int level = i % 3 + 1;
+            Map<String, Object> row = new HashMap<>();
+            row.put("number", (i / 3 + 1) + (level > 1 ? ".1" : "") + (level > 2 ? ".1" : ""));
+            row.put("taskId", (long) i + 1);
+            row.put("title", "Công việc số " + i + " - kiểm thử hiệu năng báo cáo");
+            row.put("level", level);
+            row.put("priority", i % 5 + 1);
+            row.put("progress", (i * 7) % 101);
+            row.put("deadline", String.format("%02d/%02d/2025", i % 28 + 1, i % 12 + 1));
+            row.put("status", i % 4 == 0 ? "COMPLETED" : "IN_PROGRESS");
+            row.put("topAssignee", "Nguyễn Văn " + (char) ('A' + i % 26));
+            items.add(row);
+        }
+
+        Map<String, Object> model = new HashMap<>();
+        model.put("projectId", 1L);
+        model.put("projectName", "Dự án benchmark");
+        model.put("status", "IN_PROGRESS");
+        model.put("progress", 42L);
+        model.put("generatedAt", "2025-01-01T00:00:00");
+        model.put("items", items);
+        return model;
+    }
+
+    static String render(TemplateEngine engine, String template, Map<String, Object> model) {
+        Context ctx = new Context(Locale.forLanguageTag("vi"));
+        ctx.setVariables(model);
+        return engine.process(template, ctx);
+    }
+}
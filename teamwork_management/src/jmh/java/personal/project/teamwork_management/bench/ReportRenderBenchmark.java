@@ -0,0 +1,47 @@
+package personal.project.teamwork_management.bench;
+
+import org.openjdk.jmh.annotations.*;
+import personal.project.teamwork_management.service.HtmlReportRenderer;
+import personal.project.teamwork_management.service.HtmlToExcelService;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Các bước của báo cáo project trừ PDF (xem HtmlToPdfBenchmark): Thymeleaf render HTML và HTML table -> XLSX.
+ * Chạy: mvn -Pjmh test-compile exec:exec -Djmh.args="ReportRenderBenchmark -prof gc"
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportRenderBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int rows;
+
+    private HtmlReportRenderer renderer;
+    private HtmlToExcelService excel;
+    private Map<String, Object> model;
+    private String html;
+
+    @Setup
+    public void setup() {
+        renderer = new HtmlReportRenderer(ReportFixtures.templateEngine());
+        excel = new HtmlToExcelService();
+        model = ReportFixtures.projectReportModel(rows);
+        html = renderer.renderHtml("report/project-report", model);
+    }
+
+    @Benchmark
+    public String renderHtml() {
+        return renderer.renderHtml("report/project-report", model);
+    }
+
+    @Benchmark
+    public byte[] htmlTableToXlsx() throws Exception {
+        return excel.htmlTableToXlsx(html, "#report-table");
+    }
+}
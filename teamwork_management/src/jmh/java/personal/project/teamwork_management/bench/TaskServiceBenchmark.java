@@ -0,0 +1,192 @@
+package personal.project.teamwork_management.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import personal.project.teamwork_management.dto.TaskDto;
+import personal.project.teamwork_management.model.Project;
+import personal.project.teamwork_management.model.Status;
+import personal.project.teamwork_management.model.Task;
+import personal.project.teamwork_management.model.User;
+import personal.project.teamwork_management.repository.TaskRepository;
+import personal.project.teamwork_management.service.ProjectDataChangePublisher;
+import personal.project.teamwork_management.service.ProjectService;
+import personal.project.teamwork_management.service.TaskService;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskService: tính progress có trọng số trên cây task sinh sẵn và convertToDto.
+ * TaskRepository là bản in-memory (Proxy) nên số đo là chi phí CPU/allocation của service, không tính DB;
+ * số lần gọi repository mỗi op in ra ở TearDown để theo dõi N+1.
+ * Chạy: mvn -Pjmh test-compile exec:exec -Djmh.args="TaskServiceBenchmark -prof gc"
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskServiceBenchmark {
+
+    /** Số con mỗi task. */
+    @Param({"3", "8"})
+    public int branching;
+
+    /** Số cấp dưới root (root là level 1). */
+    @Param({"3", "4"})
+    public int depth;
+
+    private TaskService taskService;
+    private MethodHandle convertToDto;
+    private Task root;
+    private Task leafWithAssignees;
+    private InMemoryTasks tasks;
+
+    @Setup
+    public void setup() throws Exception {
+        User creator = user(1L);
+        Project project = new Project();
+        project.setId(1L);
+
+        tasks = new InMemoryTasks();
+        root = tasks.generate(project, creator, branching, depth);
+
+        leafWithAssignees = task(999_999L, project, creator, root, 2);
+        List<User> assignees = new ArrayList<>();
+        for (long i = 0; i < 5; i++) {
+            assignees.add(user(100 + i));
+        }
+        leafWithAssignees.setAssignedUsers(assignees);
+
+        TaskRepository repository = tasks.repository();
+        // ProjectService thật cho saveTaskProgress (UPDATE progress + event version), event bỏ qua
+        ProjectService projectService = new ProjectService();
+        ReflectionTestUtils.setField(projectService, "taskRepository", repository);
+        ReflectionTestUtils.setField(projectService, "changePublisher", new ProjectDataChangePublisher(event -> { }));
+
+        taskService = new TaskService();
+        ReflectionTestUtils.setField(taskService, "taskRepository", repository);
+        ReflectionTestUtils.setField(taskService, "projectService", projectService);
+
+        Method m = TaskService.class.getDeclaredMethod("convertToDto", Task.class);
+        m.setAccessible(true);
+        convertToDto = MethodHandles.lookup().unreflect(m);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (tasks.ops == 0) {
+            return; // fork chỉ chạy convertToDto
+        }
+        System.out.printf("%n[tasks=%d, repository calls/op=%.1f]%n", tasks.size(), tasks.callsPerOp());
+    }
+
+    @Benchmark
+    public Double calculateTaskProgress() {
+        tasks.ops++;
+        return taskService.calculateTaskProgress(root.getId());
+    }
+
+    @Benchmark
+    public TaskDto convertToDto() throws Throwable {
+        return (TaskDto) convertToDto.invoke(taskService, leafWithAssignees);
+    }
+
+    private static User user(Long id) {
+        User u = new User();
+        u.setId(id);
+        u.setFirstName("Nguyễn");
+        u.setLastName("Văn " + id);
+        u.setEmail("user" + id + "@mail.test");
+        u.setPhoneNumber("0900000" + id);
+        u.setDob(new Date(0));
+        return u;
+    }
+
+    private static Task task(Long id, Project project, User creator, Task parent, int level) {
+        Task t = new Task();
+        t.setId(id);
+        t.setTitle("Task " + id);
+        t.setDescription("Mô tả task " + id);
+        t.setPriority((int) (id % 5) + 1);
+        t.setLevel(level);
+        t.setProgress((int) (id * 37 % 101));
+        t.setStatus(Status.IN_PROGRESS);
+        t.setDeadline(new Date());
+        t.setCreatedBy(creator);
+        t.setProject(project);
+        t.setParent(parent);
+        t.setAssignedUsers(new ArrayList<>());
+        return t;
+    }
+
+    /** Chỉ các hàm calculateTaskProgress dùng: findById, findProgressRowsByProjectId, save, updateProgress. */
+    static final class InMemoryTasks {
+
+        private final Map<Long, Task> byId = new HashMap<>();
+        long calls;
+        long ops;
+
+        Task generate(Project project, User creator, int branching, int depth) {
+            Task root = add(task(1L, project, creator, null, 1));
+            List<Task> current = List.of(root);
+            for (int level = 2; level <= depth + 1; level++) {
+                List<Task> next = new ArrayList<>();
+                for (Task parent : current) {
+                    for (int i = 0; i < branching; i++) {
+                        next.add(add(task((long) byId.size() + 1, project, creator, parent, level)));
+                    }
+                }
+                current = next;
+            }
+            return root;
+        }
+
+        private Task add(Task t) {
+            byId.put(t.getId(), t);
+            return t;
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        double callsPerOp() {
+            return ops == 0 ? 0 : (double) calls / ops;
+        }
+
+        // id, parent_id, priority, level, progress như câu JPQL
+        private List<Object[]> progressRows(Long projectId) {
+            List<Object[]> rows = new ArrayList<>(byId.size());
+            for (Task t : byId.values()) {
+                if (projectId.equals(t.getProject().getId())) {
+                    rows.add(new Object[]{t.getId(), t.getParent() != null ? t.getParent().getId() : null,
+                            t.getPriority(), t.getLevel(), t.getProgress()});
+                }
+            }
+            return rows;
+        }
+
+        TaskRepository repository() {
+            return (TaskRepository) Proxy.newProxyInstance(TaskRepository.class.getClassLoader(),
+                    new Class<?>[]{TaskRepository.class}, (proxy, method, args) -> {
+                        calls++;
+                        return switch (method.getName()) {
+                            case "findById" -> Optional.ofNullable(byId.get((Long) args[0]));
+                            case "findProgressRowsByProjectId" -> progressRows((Long) args[0]);
+                            case "save" -> args[0];
+                            case "updateProgress" -> {
+                                byId.get((Long) args[0]).setProgress((Integer) args[1]);
+                                yield 1;
+                            }
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        };
+                    });
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package personal.project.teamwork_management.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import personal.project.teamwork_management.model.*;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Sinh dữ liệu lớn (user, project, thành viên, cây task nhiều cấp + assignee, approval log, notification, activity)
+ * bằng JDBC batch insert với id tự gán -> không cần đọc lại id, bộ nhớ không phụ thuộc số task.
+ * Bảng do Hibernate tạo (ddl-auto); SQL theo H2 chế độ MySQL. Cùng seed -> cùng dữ liệu.
+ * Tài khoản: user{i}@loadtest.local / {@link #PASSWORD}, i = 1..users; member đầu tiên của mỗi project là LEADER.
+ */
+@Slf4j
+public class DatasetGenerator {
+
+    public static final String PASSWORD = "loadtest";
+    static final String EMAIL_DOMAIN = "@loadtest.local";
+
+    /** Cấu hình quy mô (prefix "loadtest" trong application-loadtest.yml). */
+    public record Scale(long seed, int users, int projects, long tasks, int branching, int maxDepth,
+                        int membersPerProject, int assigneesPerTask, double approvalRatio,
+                        int notificationsPerUser, int activitiesPerUser, int batchSize) {
+    }
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final String[] TABLES = {"task_approval_logs", "task_user", "notification", "user_activity",
+            "task", "project_member", "project", "user"};
+
+    private final DataSource dataSource;
+    private final Scale scale;
+    private final Random random;
+    private final long now = System.currentTimeMillis();
+
+    public DatasetGenerator(DataSource dataSource, Scale scale) {
+        this.dataSource = dataSource;
+        this.scale = scale;
+        this.random = new Random(scale.seed());
+    }
+
+    public boolean isEmpty() throws SQLException {
+        try (Connection c = dataSource.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM task")) {
+            rs.next();
+            return rs.getLong(1) == 0;
+        }
+    }
+
+    public void generate() throws SQLException {
+        long started = System.currentTimeMillis();
+        try (Connection c = dataSource.getConnection()) {
+            c.setAutoCommit(false);
+            // các batch flush độc lập (task_user có thể tới trước task) -> tắt FK khi sinh
+            setReferentialIntegrity(c, false);
+            try {
+                truncate(c);
+                insertUsers(c);
+                int[][] members = insertProjects(c);
+                long taskCount = insertTasks(c, members);
+                insertNotificationsAndActivities(c, taskCount);
+                for (String table : TABLES) {
+                    restartIdentity(c, table);
+                }
+                c.commit();
+            } finally {
+                setReferentialIntegrity(c, true);
+            }
+        }
+        log.info("Dataset generated in {} s", (System.currentTimeMillis() - started) / 1000);
+    }
+
+    private void truncate(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            for (String table : TABLES) {
+                st.execute("TRUNCATE TABLE " + table);
+            }
+        }
+        c.commit();
+    }
+
+    private static void setReferentialIntegrity(Connection c, boolean enabled) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("SET REFERENTIAL_INTEGRITY " + enabled);
+        }
+        c.commit();
+    }
+
+    // ---------------- User ----------------
+    private void insertUsers(Connection c) throws SQLException {
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD); // 1 hash cho mọi user, BCrypt chậm
+        try (Batch b = new Batch(c, "INSERT INTO user (id, created_at, updated_at, first_name, last_name, password, "
+                + "email, dob, phone_number) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= scale.users(); id++) {
+                Timestamp created = ts(now - 400 * DAY + random.nextLong(30 * DAY));
+                b.add(id, created, created, "User", String.valueOf(id), hash, "user" + id + EMAIL_DOMAIN,
+                        new java.sql.Date(now - (20 + random.nextInt(30)) * 365 * DAY), "09" + (10_000_000 + id));
+            }
+        }
+        log.info("Inserted {} users", scale.users());
+    }
+
+    // ---------------- Project + thành viên ----------------
+    /** Trả về members[projectIndex] = userId, phần tử 0 là LEADER, 1 là VICE_LEADER. */
+    private int[][] insertProjects(Connection c) throws SQLException {
+        int perProject = Math.min(scale.membersPerProject(), scale.users());
+        int[][] members = new int[scale.projects()][];
+        Status[] statuses = {Status.NOT_STARTED, Status.IN_PROGRESS, Status.IN_PROGRESS, Status.COMPLETED};
+        try (Batch projects = new Batch(c, "INSERT INTO project (id, created_at, updated_at, name, description, status, "
+                + "progress, start_date, end_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch projectMembers = new Batch(c, "INSERT INTO project_member (id, created_at, updated_at, project_id, "
+                     + "user_id, role) VALUES (?, ?, ?, ?, ?, ?)")) {
+            long memberId = 1;
+            for (int p = 0; p < scale.projects(); p++) {
+                long projectId = p + 1;
+                long start = now - 365 * DAY + random.nextLong(300 * DAY);
+                Status status = statuses[random.nextInt(statuses.length)];
+                projects.add(projectId, ts(start), ts(start), "Project " + projectId, "Dự án load test số " + projectId,
+                        status.ordinal(), (long) random.nextInt(101), ts(start), ts(start + (60 + random.nextInt(300)) * DAY));
+
+                members[p] = distinct(perProject, scale.users());
+                for (int m = 0; m < members[p].length; m++) {
+                    Role role = m == 0 ? Role.LEADER : m == 1 ? Role.VICE_LEADER : Role.MEMBER;
+                    projectMembers.add(memberId++, ts(start), ts(start), projectId, members[p][m], role.name());
+                }
+            }
+        }
+        log.info("Inserted {} projects with {} members each", scale.projects(), perProject);
+        return members;
+    }
+
+    // ---------------- Task ----------------
+    /**
+     * Mỗi project ~tasks/projects task, cây sinh theo BFS: mỗi task có 1..branching con cho tới max-depth,
+     * hết chỗ thì mở root (level 1) mới. Assignee và approval log lấy trong thành viên project.
+     */
+    private long insertTasks(Connection c, int[][] members) throws SQLException {
+        long taskId = 0;
+        long approvalId = 0;
+        long assignments = 0;
+        try (Batch tasks = new Batch(c, "INSERT INTO task (id, created_at, updated_at, title, description, priority, "
+                + "level, progress, status, deadline, created_by_id, project_id, parent_task_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch assignees = new Batch(c, "INSERT INTO task_user (task_id, user_id) VALUES (?, ?)");
+             Batch approvals = new Batch(c, "INSERT INTO task_approval_logs (id, created_at, updated_at, task_id, "
+                     + "action, user_id, note) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int p = 0; p < scale.projects(); p++) {
+                long projectId = p + 1;
+                int[] projectMembers = members[p];
+                long quota = scale.tasks() / scale.projects() + (p < scale.tasks() % scale.projects() ? 1 : 0);
+                Deque<long[]> frontier = new ArrayDeque<>(); // {taskId, level}
+                long created = 0;
+                while (created < quota) {
+                    long parentId = 0;
+                    int level = 1;
+                    int children = 1;
+                    long[] parent = frontier.poll();
+                    if (parent != null) {
+                        if (parent[1] >= scale.maxDepth()) continue;
+                        parentId = parent[0];
+                        level = (int) parent[1] + 1;
+                        children = 1 + random.nextInt(scale.branching());
+                    }
+                    for (int i = 0; i < children && created < quota; i++, created++) {
+                        long id = ++taskId;
+                        int progress = random.nextInt(5) == 0 ? 100 : random.nextInt(100);
+                        long createdAt = now - random.nextLong(200 * DAY);
+                        long deadline = createdAt + (1 + random.nextInt(90)) * DAY;
+                        Status status = progress == 100 ? Status.COMPLETED
+                                : progress == 0 ? Status.NOT_STARTED
+                                : deadline < now ? Status.OVERDUE : Status.IN_PROGRESS;
+                        int creator = projectMembers[random.nextInt(Math.min(2, projectMembers.length))];
+                        tasks.add(id, ts(createdAt), ts(createdAt), "Task " + id, "Công việc " + id + " của project " + projectId,
+                                1 + random.nextInt(5), level, progress, status.ordinal(), ts(deadline), creator, projectId,
+                                parentId == 0 ? null : parentId);
+                        frontier.add(new long[]{id, level});
+
+                        int[] picked = pick(projectMembers, scale.assigneesPerTask());
+                        for (int userId : picked) {
+                            assignees.add(id, userId);
+                        }
+                        assignments += picked.length;
+
+                        if (picked.length > 0 && random.nextDouble() < scale.approvalRatio()) {
+                            long at = createdAt + random.nextLong(Math.max(1, deadline - createdAt));
+                            approvals.add(++approvalId, ts(at), ts(at), id, ApprovalAction.SUBMIT.name(), picked[0], "Nộp kết quả");
+                            ApprovalAction decision = random.nextInt(4) == 0 ? ApprovalAction.REJECT : ApprovalAction.APPROVE;
+                            approvals.add(++approvalId, ts(at + DAY), ts(at + DAY), id, decision.name(), projectMembers[0], null);
+                        }
+                    }
+                }
+                if ((p + 1) % 100 == 0) {
+                    log.info("Tasks: {} projects, {} tasks", p + 1, taskId);
+                }
+            }
+        }
+        log.info("Inserted {} tasks, {} assignments, {} approval logs", taskId, assignments, approvalId);
+        return taskId;
+    }
+
+    // ---------------- Notification + activity ----------------
+    private void insertNotificationsAndActivities(Connection c, long taskCount) throws SQLException {
+        NotificationType[] types = NotificationType.values();
+        ActivityType[] activityTypes = ActivityType.values();
+        long notificationId = 0;
+        long activityId = 0;
+        try (Batch notifications = new Batch(c, "INSERT INTO notification (id, created_at, updated_at, message, type, "
+                + "user_id, is_read, related_id, related_type) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch activities = new Batch(c, "INSERT INTO user_activity (id, created_at, updated_at, user_id, action, "
+                     + "target_type, target_id, activity_type, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (long userId = 1; userId <= scale.users(); userId++) {
+                for (int i = 0; i < scale.notificationsPerUser(); i++) {
+                    long at = now - random.nextLong(90 * DAY);
+                    long taskId = 1 + random.nextLong(Math.max(1, taskCount));
+                    notifications.add(++notificationId, ts(at), ts(at), "Thông báo về task " + taskId,
+                            types[random.nextInt(types.length)].name(), userId, random.nextInt(3) > 0, taskId, "Task");
+                }
+                for (int i = 0; i < scale.activitiesPerUser(); i++) {
+                    long at = now - random.nextLong(90 * DAY);
+                    ActivityType type = activityTypes[random.nextInt(activityTypes.length)];
+                    boolean onTask = type.name().endsWith("_TASK");
+                    activities.add(++activityId, ts(at), ts(at), userId, type.name().toLowerCase(),
+                            onTask ? "Task" : "Project",
+                            onTask ? 1 + random.nextLong(Math.max(1, taskCount)) : 1 + random.nextInt(scale.projects()),
+                            type.ordinal(), ts(at));
+                }
+            }
+        }
+        log.info("Inserted {} notifications, {} activities", notificationId, activityId);
+    }
+
+    // ---------------- Helper ----------------
+    private void restartIdentity(Connection c, String table) throws SQLException {
+        if (table.equals("task_user")) return; // bảng nối, không có id
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            long next = rs.getLong(1);
+            st.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    /** k user id khác nhau trong [1, users]. */
+    private int[] distinct(int k, int users) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        while (ids.size() < k) {
+            ids.add(1 + random.nextInt(users));
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** 0..max phần tử khác nhau của pool. */
+    private int[] pick(int[] pool, int max) {
+        int k = Math.min(pool.length, random.nextInt(max + 1));
+        int[] copy = pool.clone();
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(copy.length - i);
+            int tmp = copy[i];
+            copy[i] = copy[j];
+            copy[j] = tmp;
+        }
+        return Arrays.copyOf(copy, k);
+    }
+
+    private static Timestamp ts(long millis) {
+        return new Timestamp(millis);
+    }
+
+    /** PreparedStatement batch, executeBatch + commit mỗi batchSize dòng. */
+    private final class Batch implements AutoCloseable {
+
+        private final Connection connection;
+        private final PreparedStatement ps;
+        private int pending;
+
+        Batch(Connection connection, String sql) throws SQLException {
+            this.connection = connection;
+            this.ps = connection.prepareStatement(sql);
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                ps.setObject(i + 1, values[i]);
+            }
+            ps.addBatch();
+            if (++pending >= scale.batchSize()) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending == 0) return;
+            ps.executeBatch();
+            connection.commit();
+            pending = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                ps.close();
+            }
+        }
+    }
+}
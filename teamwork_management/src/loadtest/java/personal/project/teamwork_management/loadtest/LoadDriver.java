@@ -0,0 +1,264 @@
+package personal.project.teamwork_management.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Phát tải vào app đang chạy (LoadTestServer hoặc môi trường khác có dữ liệu DatasetGenerator) với tỉ lệ API
+ * giống người dùng thật, in p50/p95/p99 từng endpoint. Mô hình đóng: mỗi thread gửi request kế tiếp khi
+ * request trước xong (+ think time).
+ * Tham số key=value: base, threads, duration, warmup (giây), accounts (số user đăng nhập), users (tổng user
+ * đã sinh), think (ms), seed, mix (VD "project.list:30,report.pdf:0" ghi đè trọng số mặc định).
+ */
+public class LoadDriver {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /** 1 user đã đăng nhập + các project của user (managedIds: LEADER/VICE_LEADER, dùng cho báo cáo). */
+    record Session(String token, List<Long> projectIds, List<Long> managedIds) {
+    }
+
+    record Operation(String name, int weight, Function<Ctx, HttpRequest.Builder> request) {
+    }
+
+    record Ctx(Session session, Random random, String base) {
+        long projectId() {
+            return pick(session.projectIds());
+        }
+
+        /** User không quản lý project nào -> project thường (403, tính vào errors như thực tế). */
+        long managedProjectId() {
+            return session.managedIds().isEmpty() ? projectId() : pick(session.managedIds());
+        }
+
+        private long pick(List<Long> ids) {
+            return ids.get(random.nextInt(ids.size()));
+        }
+
+        HttpRequest.Builder get(String path) {
+            return HttpRequest.newBuilder(URI.create(base + path)).GET();
+        }
+    }
+
+    static List<Operation> defaultMix() {
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(30);
+        return List.of(
+                new Operation("project.list", 25, c -> c.get("/api/projects?page=" + c.random().nextInt(3) + "&size=12")),
+                new Operation("project.detail", 20, c -> c.get("/api/projects/" + c.projectId())),
+                new Operation("project.search", 10, c -> c.get("/api/projects/search?query="
+                        + URLEncoder.encode("Project " + (1 + c.random().nextInt(99)), StandardCharsets.UTF_8))),
+                new Operation("task.search", 15, c -> c.get("/api/tasks/my?search=Task&page=0&size=20")),
+                new Operation("task.byProject", 15, c -> c.get("/api/tasks?projectId=" + c.projectId())),
+                new Operation("report.members", 8, c -> c.get("/api/reports/projects/" + c.managedProjectId()
+                        + "/members/preview?from=" + from + "&to=" + to)),
+                new Operation("report.tasksCsv", 5, c -> c.get("/api/reports/projects/" + c.managedProjectId() + "/tasks/csv")),
+                new Operation("report.pdf", 2, c -> HttpRequest.newBuilder(
+                        URI.create(c.base() + "/api/reports/projects/" + c.managedProjectId() + "/pdf"))
+                        .POST(HttpRequest.BodyPublishers.noBody()))
+        );
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) opts.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        String base = opts.getOrDefault("base", "http://localhost:8080");
+        int threads = Integer.parseInt(opts.getOrDefault("threads", "16"));
+        int duration = Integer.parseInt(opts.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(opts.getOrDefault("warmup", "10"));
+        int accounts = Integer.parseInt(opts.getOrDefault("accounts", "100"));
+        int users = Integer.parseInt(opts.getOrDefault("users", "10000"));
+        long think = Long.parseLong(opts.getOrDefault("think", "0"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "1"));
+        List<Operation> mix = applyMix(defaultMix(), opts.get("mix"));
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<Session> sessions = login(http, base, accounts, users, new Random(seed));
+        System.out.printf("Logged in %d accounts, %d threads, warmup %ds, measure %ds%n",
+                sessions.size(), threads, warmup, duration);
+
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(duration);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Map<String, Stats>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(seed * 31 + t);
+            results.add(pool.submit(() -> runWorker(http, base, sessions, mix, random, think, measureFrom, end)));
+        }
+        Map<String, Stats> merged = new TreeMap<>();
+        for (Future<Map<String, Stats>> f : results) {
+            f.get().forEach((name, s) -> merged.computeIfAbsent(name, k -> new Stats()).addAll(s));
+        }
+        pool.shutdown();
+        report(merged, duration);
+    }
+
+    private static Map<String, Stats> runWorker(HttpClient http, String base, List<Session> sessions,
+                                                List<Operation> mix, Random random, long think,
+                                                long measureFrom, long end) throws InterruptedException {
+        int totalWeight = mix.stream().mapToInt(Operation::weight).sum();
+        Map<String, Stats> stats = new HashMap<>();
+        while (System.nanoTime() < end) {
+            Session session = sessions.get(random.nextInt(sessions.size()));
+            Operation op = choose(mix, random.nextInt(totalWeight));
+            HttpRequest request = op.request().apply(new Ctx(session, random, base))
+                    .header("Authorization", "Bearer " + session.token())
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 400;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (start >= measureFrom) {
+                stats.computeIfAbsent(op.name(), k -> new Stats()).record(elapsed, ok);
+            }
+            if (think > 0) Thread.sleep(think);
+        }
+        return stats;
+    }
+
+    private static Operation choose(List<Operation> mix, int ticket) {
+        for (Operation op : mix) {
+            ticket -= op.weight();
+            if (ticket < 0) return op;
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private static List<Operation> applyMix(List<Operation> mix, String spec) {
+        if (spec == null || spec.isBlank()) return mix;
+        Map<String, Integer> weights = new HashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.split(":");
+            weights.put(kv[0].trim(), Integer.parseInt(kv[1].trim()));
+        }
+        List<Operation> result = new ArrayList<>();
+        for (Operation op : mix) {
+            int weight = weights.getOrDefault(op.name(), op.weight());
+            if (weight > 0) result.add(new Operation(op.name(), weight, op.request()));
+        }
+        return result;
+    }
+
+    /** Đăng nhập accounts user ngẫu nhiên, giữ các user có ít nhất 1 project. */
+    private static List<Session> login(HttpClient http, String base, int accounts, int users, Random random)
+            throws Exception {
+        List<Session> sessions = new ArrayList<>();
+        Set<Integer> tried = new HashSet<>();
+        while (sessions.size() < accounts && tried.size() < users) {
+            int i = 1 + random.nextInt(users);
+            if (!tried.add(i)) continue;
+
+            String body = JSON.writeValueAsString(Map.of(
+                    "email", "user" + i + DatasetGenerator.EMAIL_DOMAIN, "password", DatasetGenerator.PASSWORD));
+            HttpResponse<String> login = http.send(HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (login.statusCode() != 200) {
+                throw new IllegalStateException("Login failed for user" + i + ": " + login.body());
+            }
+            String token = JSON.readTree(login.body()).path("accessToken").asText();
+
+            List<Long> ids = projectIds(http, base + "/api/projects/member?page=0&size=50", token);
+            if (!ids.isEmpty()) {
+                sessions.add(new Session(token, ids, projectIds(http, base + "/api/projects/managed?page=0&size=50", token)));
+            }
+        }
+        if (sessions.isEmpty()) {
+            throw new IllegalStateException("No account with projects - was the dataset generated?");
+        }
+        return sessions;
+    }
+
+    private static List<Long> projectIds(HttpClient http, String url, String token) throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode p : JSON.readTree(response.body()).path("content")) {
+            ids.add(p.path("id").asLong());
+        }
+        return ids;
+    }
+
+    private static void report(Map<String, Stats> stats, int duration) {
+        System.out.printf("%n%-16s %8s %7s %8s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)");
+        Stats all = new Stats();
+        stats.forEach((name, s) -> {
+            print(name, s, duration);
+            all.addAll(s);
+        });
+        print("ALL", all, duration);
+    }
+
+    private static void print(String name, Stats s, int duration) {
+        long[] sorted = s.sorted();
+        System.out.printf("%-16s %8d %7d %8.1f %9.1f %9.1f %9.1f %9.1f%n", name, sorted.length, s.errors,
+                (double) sorted.length / duration, ms(percentile(sorted, 50)), ms(percentile(sorted, 95)),
+                ms(percentile(sorted, 99)), ms(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+    }
+
+    /** Nearest-rank. */
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /** Latency (ns) của 1 endpoint, mỗi thread 1 bản nên không cần đồng bộ. */
+    static final class Stats {
+        private long[] values = new long[1024];
+        private int size;
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = nanos;
+            if (!ok) errors++;
+        }
+
+        void addAll(Stats other) {
+            for (int i = 0; i < other.size; i++) {
+                record(other.values[i], true);
+            }
+            errors += other.errors;
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
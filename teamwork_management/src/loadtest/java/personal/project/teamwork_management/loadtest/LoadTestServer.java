@@ -0,0 +1,38 @@
+package personal.project.teamwork_management.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import personal.project.teamwork_management.TeamworkManagementApplication;
+import personal.project.teamwork_management.service.MemberPerformanceSnapshotService;
+
+import javax.sql.DataSource;
+
+/**
+ * Chạy app thật với profile "loadtest" (H2 file, chế độ MySQL). DB rỗng hoặc loadtest.regenerate=true
+ * -> sinh dữ liệu theo application-loadtest.yml rồi build snapshot đánh giá thành viên như job đêm.
+ * Tham số dòng lệnh kiểu Spring: --loadtest.tasks=200000 --server.port=8081 ...
+ */
+@Slf4j
+public class LoadTestServer {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false"); // đo như bản đóng gói
+        ConfigurableApplicationContext ctx = new SpringApplicationBuilder(TeamworkManagementApplication.class)
+                .profiles("loadtest")
+                .run(args);
+
+        Binder binder = Binder.get(ctx.getEnvironment());
+        DatasetGenerator.Scale scale = binder.bind("loadtest", DatasetGenerator.Scale.class).get();
+        boolean regenerate = binder.bind("loadtest.regenerate", Boolean.class).orElse(false);
+
+        DatasetGenerator generator = new DatasetGenerator(ctx.getBean(DataSource.class), scale);
+        if (regenerate || generator.isEmpty()) {
+            log.info("Generating dataset: {}", scale);
+            generator.generate();
+            ctx.getBean(MemberPerformanceSnapshotService.class).rebuildAll();
+        }
+        log.info("Load test server ready on port {}", ctx.getEnvironment().getProperty("local.server.port"));
+    }
+}
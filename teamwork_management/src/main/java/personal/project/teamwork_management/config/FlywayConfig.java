@@ -0,0 +1,31 @@
+package personal.project.teamwork_management.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Chạy migration Flyway SAU khi Hibernate (ddl-auto) tạo/cập nhật bảng, thay vì trước như mặc định của Spring Boot:
+ * bảng vẫn sinh từ entity, migration chỉ thêm phần entity không mô tả (index cho truy vấn nóng, sửa dữ liệu).
+ * DB mới hay DB cũ đều đã có bảng lúc migrate => baseline (version 0) rồi chạy V1..Vn.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.flyway.enabled", matchIfMissing = true)
+public class FlywayConfig {
+
+    // FlywayMigrationInitializer của Spring Boot chạy trước EntityManagerFactory => không migrate ở đó
+    @Bean
+    public FlywayMigrationStrategy deferredFlywayMigrationStrategy() {
+        return flyway -> { };
+    }
+
+    // Nhận EntityManagerFactory => chỉ khởi tạo sau khi ddl-auto xong
+    @Bean
+    public InitializingBean flywayMigrationAfterJpa(Flyway flyway, EntityManagerFactory entityManagerFactory) {
+        return flyway::migrate;
+    }
+}
@@ -0,0 +1,132 @@
+package personal.project.teamwork_management.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import personal.project.teamwork_management.event.ProjectDataChangedEvent;
+import personal.project.teamwork_management.model.BaseEntity;
+import personal.project.teamwork_management.model.Project;
+import personal.project.teamwork_management.model.ProjectMember;
+import personal.project.teamwork_management.model.Task;
+import personal.project.teamwork_management.model.TaskApprovalLog;
+import personal.project.teamwork_management.service.ProjectDataChangePublisher;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Lắng nghe ghi dữ liệu của Hibernate lúc flush (kể cả thay đổi collection như task_user) và phát
+ * {@link ProjectDataChangedEvent} cho project tương ứng qua {@link ProjectDataChangePublisher}, tức là sau commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProjectDataChangeListener implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener, PostCollectionRecreateEventListener, PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ProjectDataChangePublisher publisher;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        List<Date> dates = affectedDates(entity);
+        // đổi deadline: ngày cũ cũng phải tính lại
+        if (entity instanceof Task && event.getOldState() != null) {
+            String[] names = event.getPersister().getPropertyNames();
+            for (int i = 0; i < names.length; i++) {
+                if ("deadline".equals(names[i]) && event.getOldState()[i] instanceof Date old) {
+                    dates = new ArrayList<>(dates);
+                    dates.add(old);
+                }
+            }
+        }
+        publish(entity, dates);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getEntity());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        publish(event.getAffectedOwnerOrNull());
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        publish(event.getAffectedOwnerOrNull());
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        publish(event.getAffectedOwnerOrNull());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false; // ProjectDataChangePublisher tự chờ commit của transaction Spring
+    }
+
+    private void publish(Object entity) {
+        publish(entity, affectedDates(entity));
+    }
+
+    private void publish(Object entity, List<Date> affectedDates) {
+        Long projectId = resolveProjectId(entity);
+        if (projectId != null) {
+            publisher.publish(new ProjectDataChangedEvent(projectId, entity.getClass(),
+                    ((BaseEntity) entity).getId(), affectedDates));
+        }
+    }
+
+    private static List<Date> affectedDates(Object entity) {
+        if (entity instanceof Task task && task.getDeadline() != null) {
+            return List.of(task.getDeadline());
+        }
+        if (entity instanceof TaskApprovalLog log && log.getCreatedAt() != null) {
+            return List.of(log.getCreatedAt());
+        }
+        return List.of();
+    }
+
+    private static Long resolveProjectId(Object entity) {
+        if (entity instanceof Task task) {
+            return task.getProject() != null ? task.getProject().getId() : null;
+        }
+        if (entity instanceof ProjectMember member) {
+            return member.getProject() != null ? member.getProject().getId() : null;
+        }
+        if (entity instanceof TaskApprovalLog log) {
+            return log.getTask() != null ? resolveProjectId(log.getTask()) : null;
+        }
+        if (entity instanceof Project project) {
+            return project.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+package personal.project.teamwork_management.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Thread pool riêng cho việc render báo cáo PDF/Excel (không chạy trên servlet thread).
+ */
+@Configuration
+@EnableScheduling
+public class ReportJobConfig {
+
+    @Bean(name = "reportJobExecutor")
+    public ThreadPoolTaskExecutor reportJobExecutor(
+            @Value("${spring.report.jobs.pool-size:2}") int poolSize,
+            @Value("${spring.report.jobs.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("report-job-");
+        // Hàng đợi đầy -> từ chối ngay thay vì chạy trên thread của request
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool load song song các cây task (mỗi task level 1) khi build model báo cáo project.
+     * Mỗi luồng giữ 1 connection trong lúc load -> parallelism x jobs.pool-size nên nhỏ hơn pool của Hikari.
+     */
+    @Bean(name = "reportLoadExecutor")
+    public ThreadPoolTaskExecutor reportLoadExecutor(
+            @Value("${spring.report.load.parallelism:4}") int parallelism,
+            @Value("${spring.report.load.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, parallelism));
+        executor.setMaxPoolSize(Math.max(1, parallelism));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("report-load-");
+        // Hàng đợi đầy -> thread gọi tự load, không mất root nào
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /** Pool sinh báo cáo cho export nhiều project (ZIP). */
+    @Bean(name = "reportBulkExecutor")
+    public ThreadPoolTaskExecutor reportBulkExecutor(
+            @Value("${spring.report.bulk.parallelism:3}") int parallelism,
+            @Value("${spring.report.bulk.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, parallelism));
+        executor.setMaxPoolSize(Math.max(1, parallelism));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("report-bulk-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /** Pool render song song các phần PDF (HtmlToPdfService.writePdfChunked). */
+    @Bean(name = "reportPdfExecutor")
+    public ThreadPoolTaskExecutor reportPdfExecutor(
+            @Value("${spring.report.pdf.chunk-parallelism:2}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, parallelism));
+        executor.setMaxPoolSize(Math.max(1, parallelism));
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("report-pdf-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,20 +1,34 @@
 package personal.project.teamwork_management.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.filter.CommonsRequestLoggingFilter;
+import org.springframework.core.Ordered;
+import personal.project.teamwork_management.filter.AccessLogFilter;
 
+import java.util.List;
+
+/**
+ * Access log có sample (AccessLogFilter) thay cho CommonsRequestLoggingFilter (log mọi request kèm body).
+ */
 @Configuration
 public class RequestLoggingConfig {
+
     @Bean
-    public CommonsRequestLoggingFilter logFilter() {
-        CommonsRequestLoggingFilter filter = new CommonsRequestLoggingFilter();
-        filter.setIncludeQueryString(true);
-        filter.setIncludePayload(true); // log cả body
-        filter.setMaxPayloadLength(10000); // độ dài tối đa log body
-        filter.setIncludeHeaders(false); // có thể bật nếu cần
-        filter.setAfterMessagePrefix("REQUEST DATA : ");
-        return filter;
+    public FilterRegistrationBean<AccessLogFilter> accessLogFilterRegistration(
+            ObjectMapper objectMapper,
+            @Value("${spring.access-log.enabled:true}") boolean enabled,
+            @Value("${spring.access-log.default-sample-rate:1.0}") double defaultSampleRate,
+            @Value("${spring.access-log.sample-rates:}") List<String> sampleRates,
+            @Value("${spring.access-log.slow-threshold-ms:1000}") long slowThresholdMs,
+            @Value("${spring.access-log.max-payload-length:2000}") int maxPayloadLength) {
+        FilterRegistrationBean<AccessLogFilter> registration = new FilterRegistrationBean<>(
+                new AccessLogFilter(objectMapper, defaultSampleRate, sampleRates, slowThresholdMs, maxPayloadLength));
+        registration.setEnabled(enabled);
+        // ngay trong SqlStatsFilter (HIGHEST_PRECEDENCE + 10): còn đọc được RequestSqlStats của request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 11);
+        return registration;
     }
 }
-
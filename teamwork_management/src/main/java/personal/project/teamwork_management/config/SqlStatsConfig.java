@@ -0,0 +1,94 @@
+package personal.project.teamwork_management.config;
+
+import org.hibernate.Interceptor;
+import org.hibernate.SessionEventListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import personal.project.teamwork_management.filter.SqlStatsFilter;
+import personal.project.teamwork_management.service.SqlStatsService;
+import personal.project.teamwork_management.util.RequestSqlStats;
+
+/**
+ * Đếm SQL theo request (phát hiện N+1): StatementInspector đếm câu + dạng câu, Interceptor đếm entity load,
+ * SessionEventListener đo thời gian JDBC. Tất cả ghi vào RequestSqlStats của thread hiện tại.
+ */
+@Configuration
+public class SqlStatsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatsHibernateCustomizer() {
+        return props -> {
+            props.put(AvailableSettings.STATEMENT_INSPECTOR, new CountingStatementInspector());
+            props.put(AvailableSettings.INTERCEPTOR, new EntityLoadInterceptor());
+            // Hibernate tự tạo 1 instance / session từ tên class
+            props.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimingListener.class.getName());
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatsFilter> sqlStatsFilterRegistration(SqlStatsFilter filter) {
+        FilterRegistrationBean<SqlStatsFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10); // bao cả security (JwtFilter load user)
+        return registration;
+    }
+
+    @Bean
+    public SqlStatsFilter sqlStatsFilter(SqlStatsService sqlStatsService) {
+        return new SqlStatsFilter(sqlStatsService);
+    }
+
+    static class CountingStatementInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            RequestSqlStats stats = RequestSqlStats.current();
+            if (stats != null) stats.onStatement(sql);
+            return sql;
+        }
+    }
+
+    static class EntityLoadInterceptor implements Interceptor {
+        @Override
+        public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+            RequestSqlStats stats = RequestSqlStats.current();
+            if (stats != null) stats.onEntityLoad();
+            return false;
+        }
+    }
+
+    public static class JdbcTimingListener implements SessionEventListener {
+
+        private long statementStart;
+        private long batchStart;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            statementStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            record(statementStart);
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            batchStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            record(batchStart);
+        }
+
+        private static void record(long start) {
+            RequestSqlStats stats = RequestSqlStats.current();
+            if (stats != null && start != 0) stats.onJdbcTime(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package personal.project.teamwork_management.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import personal.project.teamwork_management.service.SqlStatsService;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /actuator/sqlstats?limit=20: endpoint nhiều SQL nhất kể từ lúc khởi động (hoặc lần reset gần nhất).
+ * DELETE /actuator/sqlstats: reset.
+ */
+@Component
+@Endpoint(id = "sqlstats")
+public class SqlStatsEndpoint {
+
+    private final SqlStatsService sqlStatsService;
+
+    public SqlStatsEndpoint(SqlStatsService sqlStatsService) {
+        this.sqlStatsService = sqlStatsService;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> top(@Nullable Integer limit) {
+        return sqlStatsService.topOffenders(limit != null ? limit : 20);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlStatsService.reset();
+    }
+}
@@ -1,6 +1,7 @@
 package personal.project.teamwork_management.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -71,10 +72,10 @@ public class FileController {
     }
 
     @GetMapping("/download/{id}")
-    public ResponseEntity<?> downloadFile(@PathVariable Long id) {
+    public ResponseEntity<?> downloadFile(@PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
             File file = fileService.getFileById(id);
-            byte[] fileData = fileService.downloadFile(id);
 
             // Determine content type
             String contentType = file.getType();
@@ -82,12 +83,29 @@ public class FileController {
                 contentType = "application/octet-stream";
             }
 
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
                            "attachment; filename=\"" + file.getName() + "\"")
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .contentLength(fileData.length)
-                    .body(fileData);
+                    .contentType(MediaType.parseMediaType(contentType));
+
+            String encoding = file.getContentEncoding();
+            if (encoding == null) {
+                if (file.getSize() != null) {
+                    builder.contentLength(file.getSize());
+                }
+                return builder.body(new InputStreamResource(fileService.openDownloadStream(file, false)));
+            }
+
+            builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (fileService.clientAccepts(acceptEncoding, encoding)) {
+                // Gửi nguyên byte đã nén, client tự giải nén
+                return builder.header(HttpHeaders.CONTENT_ENCODING, encoding)
+                        .contentLength(file.getStoredSize())
+                        .body(new InputStreamResource(fileService.openDownloadStream(file, true)));
+            }
+            // Client không hỗ trợ: giải nén dạng stream
+            return builder.contentLength(file.getSize())
+                    .body(new InputStreamResource(fileService.openDownloadStream(file, false)));
 
         } catch (RuntimeException e) {
             Map<String, String> errorResponse = new HashMap<>();
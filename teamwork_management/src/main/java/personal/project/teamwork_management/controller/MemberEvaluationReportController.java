@@ -8,12 +8,16 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.FileCopyUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import personal.project.teamwork_management.service.CsvExportService;
 import personal.project.teamwork_management.service.MemberEvaluationReportService;
+import personal.project.teamwork_management.service.MemberPerformanceSnapshotService;
 
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,6 +26,8 @@ import java.util.Map;
 public class MemberEvaluationReportController {
 
     private final MemberEvaluationReportService memberReportService;
+    private final MemberPerformanceSnapshotService snapshotService;
+    private final CsvExportService csvExportService;
 
     /**
      * Xem trước (preview) dữ liệu báo cáo ở dạng JSON.
@@ -69,6 +75,66 @@ public class MemberEvaluationReportController {
         ));
     }
 
+    /**
+     * Stream Excel thẳng về client (model -> SXSSF), không tạo file trên server
+     */
+    @GetMapping("/excel/stream")
+    public ResponseEntity<StreamingResponseBody> streamExcel(
+            @PathVariable Long projectId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) throws Exception {
+        Map<String, Object> model = memberReportService.buildModel(projectId, from, to); // kiểm tra quyền trước khi stream
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(
+                MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("member-eval-" + projectId + "-" + from + "-" + to + ".xlsx")
+                .build());
+
+        StreamingResponseBody body = os -> memberReportService.writeExcel(model, os);
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+
+    /**
+     * Các dòng đánh giá thành viên dạng CSV
+     */
+    @GetMapping("/csv")
+    public ResponseEntity<StreamingResponseBody> csv(
+            @PathVariable Long projectId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) throws Exception {
+        Map<String, Object> model = memberReportService.buildModel(projectId, from, to); // kiểm tra quyền trước khi stream
+        @SuppressWarnings("unchecked")
+        List<MemberEvaluationReportService.MemberRow> rows =
+                (List<MemberEvaluationReportService.MemberRow>) model.getOrDefault("items", List.of());
+
+        StreamingResponseBody body = os -> csvExportService.writeMemberEvaluation(rows, os);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("member-eval-" + projectId + "-" + from + "-" + to + ".csv")
+                        .build().toString())
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .body(body);
+    }
+
+    /**
+     * Build lại snapshot số liệu theo ngày của project ngay (không chờ job đêm). Chỉ LEADER/VICE_LEADER.
+     */
+    @PostMapping("/snapshots/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSnapshots(@PathVariable Long projectId) {
+        memberReportService.checkRebuildAccess(projectId);
+        int rows = snapshotService.rebuildProject(projectId);
+        return ResponseEntity.ok(Map.of(
+                "message", "Snapshots rebuilt",
+                "rows", rows
+        ));
+    }
+
     /**
      * Tải file PDF đã tạo (stream về client)
      * Ví dụ: /api/reports/projects/1/members/download/pdf?path=/abs/path/to/file.pdf
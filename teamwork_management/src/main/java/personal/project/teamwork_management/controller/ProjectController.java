@@ -2,15 +2,24 @@ package personal.project.teamwork_management.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import personal.project.teamwork_management.dto.DtoView;
 import personal.project.teamwork_management.dto.MemberDto;
 import personal.project.teamwork_management.dto.ProjectDto;
 import personal.project.teamwork_management.dto.ProjectMemberDto;
 import personal.project.teamwork_management.model.Status;
+import personal.project.teamwork_management.service.JsonStreamService;
 import personal.project.teamwork_management.service.ProjectService;
+import personal.project.teamwork_management.service.ResourceETagService;
+import personal.project.teamwork_management.service.UserService;
 
 import java.util.*;
 
@@ -18,14 +27,42 @@ import java.util.*;
 @RequestMapping("/api/projects")
 public class ProjectController {
 
+    // trình duyệt được lưu nhưng phải hỏi lại (If-None-Match) mỗi lần dùng
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private ProjectService projectService;
+    @Autowired
+    private ResourceETagService etagService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JsonStreamService jsonStreamService;
 
+    /**
+     * stream=true: danh sách task ghi dần từ DB thay vì dựng cả List (project rất lớn); cùng cấu trúc JSON
+     */
     @GetMapping("/{id:[0-9]+}")
-    public ResponseEntity<?> getProjectById(@PathVariable Long id) {
+    public ResponseEntity<?> getProjectById(@PathVariable Long id,
+                                            @RequestParam(defaultValue = "false") boolean stream,
+                                            WebRequest request) {
         try {
+            // 304 trước khi ghép DTO: chỉ cần quyền (query cache) + version dữ liệu project
+            String etag = etagService.forProject(id);
+            if (projectService.getCurrentUserRole(id) != null && request.checkNotModified(etag)) {
+                return null;
+            }
+            if (stream) {
+                ProjectDto project = projectService.getProjectWithoutTasksForController(id);
+                jsonStreamService.acquireStream();
+                StreamingResponseBody body = os -> jsonStreamService.writeProject(project, os);
+                return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)
+                        .contentType(MediaType.APPLICATION_JSON).body(body);
+            }
             ProjectDto projectDto = projectService.getProjectByIdForController(id);
-            return ResponseEntity.ok(projectDto);
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(projectDto);
+        } catch (ResponseStatusException e) {
+            throw e; // 503 khi hết suất stream
         } catch (Exception e) {
             System.err.println("Error getting project by id " + id + ": " + e.getMessage());
             return ResponseEntity.status(403).body(Map.of(
@@ -137,18 +174,33 @@ public class ProjectController {
     }
 
     /**
-     * Get all projects with advanced filtering, sorting, and pagination
+     * Get all projects with advanced filtering, sorting, and pagination.
+     * view: card | row | detail (mặc định), xem DtoView
      */
     @GetMapping("")
-    public ResponseEntity<Page<ProjectDto>> getAllProjects(
+    public ResponseEntity<Page<?>> getAllProjects(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "name,asc") String sort,
-            @RequestParam(required = false) String role) {
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String view,
+            WebRequest request) {
+
+        DtoView dtoView;
+        try {
+            dtoView = DtoView.parse(view);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         
         try {
+            String etag = etagService.forUser(userService.getCurrentUser().getId());
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+
             // Parse sort parameter
             String sortBy = "name";
             String sortDirection = "asc";
@@ -163,20 +215,12 @@ public class ProjectController {
             if (page < 0) page = 0;
             if (size <= 0 || size > 100) size = 12;
 
-            Page<ProjectDto> projects;
-
-            // Handle role-based filtering
-            if (role != null && !role.trim().isEmpty()) {
-                projects = projectService.getProjectsByRole(
-                    page, size, role, search, status, sortBy, sortDirection
-                );
-            } else {
-                projects = projectService.getAllProjects(
-                    page, size, search, status, sortBy, sortDirection
-                );
-            }
+            // view=card|row: projection rút gọn, không kèm members / tasks; mặc định (detail) như cũ
+            Page<?> projects = projectService.getProjects(
+                dtoView, page, size, role, search, status, sortBy, sortDirection
+            );
 
-            return ResponseEntity.ok(projects);
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(projects);
 
         } catch (Exception e) {
             System.err.println("Error getting projects: " + e.getMessage());
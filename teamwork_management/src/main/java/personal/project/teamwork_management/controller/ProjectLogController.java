@@ -1,9 +1,12 @@
 package personal.project.teamwork_management.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import personal.project.teamwork_management.model.ProjectLog;
+import personal.project.teamwork_management.service.CsvExportService;
 import personal.project.teamwork_management.service.ProjectLogService;
 
 import java.util.Date;
@@ -15,6 +18,9 @@ public class ProjectLogController {
     @Autowired
     private ProjectLogService projectLogService;
 
+    @Autowired
+    private CsvExportService csvExportService;
+
     @GetMapping("/{projectId}")
     public ResponseEntity<?> getProjectLogs(@PathVariable Long projectId,
                                          @RequestParam(required = false) Date startDate,
@@ -25,4 +31,20 @@ public class ProjectLogController {
             return ResponseEntity.status(500).body("Error retrieving project logs: " + e.getMessage());
         }
     }
+
+    /**
+     * Export log của project dạng CSV, đọc DB theo lô và ghi thẳng ra response (không load cả danh sách)
+     */
+    @GetMapping("/{projectId}/csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv(@PathVariable Long projectId,
+                                                           @RequestParam(required = false) Date startDate,
+                                                           @RequestParam(required = false) Date endDate) {
+        csvExportService.checkProjectAccess(projectId);
+        Date[] range = csvExportService.resolveLogRange(projectId, startDate, endDate);
+        StreamingResponseBody body = os -> csvExportService.writeProjectLogs(projectId, range[0], range[1], os);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=\"project-" + projectId + "-logs.csv\"")
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .body(body);
+    }
 }
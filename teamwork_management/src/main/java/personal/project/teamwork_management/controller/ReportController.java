@@ -4,10 +4,18 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import personal.project.teamwork_management.service.BulkReportExportService;
+import personal.project.teamwork_management.service.CsvExportService;
 import personal.project.teamwork_management.service.ProjectReportService;
+import personal.project.teamwork_management.service.ReportFormat;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,6 +24,8 @@ import java.util.Map;
 public class ReportController {
 
     private final ProjectReportService projectReportService;
+    private final BulkReportExportService bulkReportExportService;
+    private final CsvExportService csvExportService;
 
     /**
      * Tạo báo cáo Excel (HTML -> XLSX)
@@ -41,6 +51,54 @@ public class ReportController {
         ));
     }
 
+    /**
+     * Stream Excel thẳng về client (model -> SXSSF), không tạo file trên server
+     */
+    @GetMapping("/projects/{projectId}/excel/stream")
+    public ResponseEntity<StreamingResponseBody> streamExcel(@PathVariable Long projectId) throws Exception {
+        Map<String, Object> model = projectReportService.buildModel(projectId); // kiểm tra quyền trước khi stream
+        String filename = "project-" + projectId + ".xlsx";
+        StreamingResponseBody body = os -> projectReportService.writeExcel(model, os);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(body);
+    }
+
+    /**
+     * Danh sách task của project dạng CSV (1 dòng / task, assignees ngăn bởi ";"), stream từ DB
+     */
+    @GetMapping("/projects/{projectId}/tasks/csv")
+    public ResponseEntity<StreamingResponseBody> tasksCsv(@PathVariable Long projectId) {
+        csvExportService.checkProjectAccess(projectId); // kiểm tra quyền trước khi stream
+        StreamingResponseBody body = os -> csvExportService.writeProjectTasks(projectId, os);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=\"project-" + projectId + "-tasks.csv\"")
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .body(body);
+    }
+
+    /**
+     * Export báo cáo nhiều project trong 1 file ZIP, stream thẳng về client.
+     * ids rỗng -> mọi project mà user là LEADER/VICE_LEADER. format: PDF (mặc định) hoặc XLSX.
+     * Ví dụ: /api/reports/projects/bulk?ids=1,2,3&format=PDF
+     */
+    @GetMapping("/projects/bulk")
+    public ResponseEntity<StreamingResponseBody> bulkExport(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(defaultValue = "PDF") ReportFormat format) {
+        List<Long> projectIds = bulkReportExportService.resolveProjectIds(ids); // kiểm tra quyền trước khi stream
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+
+        String filename = "project-reports-" + LocalDate.now() + ".zip";
+        StreamingResponseBody body = os -> bulkReportExportService.writeZip(projectIds, format, securityContext, os);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
     /* (Tuỳ chọn) Endpoint tải file về trực tiếp nếu bạn muốn trả file thay vì trả path */
 
     @GetMapping(value = "/download", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
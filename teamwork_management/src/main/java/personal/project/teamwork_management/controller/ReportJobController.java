@@ -0,0 +1,94 @@
+package personal.project.teamwork_management.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import personal.project.teamwork_management.dto.ReportJobDto;
+import personal.project.teamwork_management.service.ReportFormat;
+import personal.project.teamwork_management.service.ReportJobService;
+
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Xuất báo cáo bất đồng bộ: POST trả về job (202), client poll GET /{jobId}
+ * hoặc subscribe /topic/reports/{userId}, xong thì tải qua /{jobId}/download.
+ */
+@RestController
+@RequestMapping("/api/reports/jobs")
+@RequiredArgsConstructor
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    @PostMapping("/projects/{projectId}")
+    public ResponseEntity<ReportJobDto> submitProjectReport(
+            @PathVariable Long projectId,
+            @RequestParam(defaultValue = "PDF") ReportFormat format
+    ) {
+        return ResponseEntity.accepted().body(reportJobService.submitProjectReport(projectId, format));
+    }
+
+    @PostMapping("/projects/{projectId}/members")
+    public ResponseEntity<ReportJobDto> submitMemberEvaluationReport(
+            @PathVariable Long projectId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "PDF") ReportFormat format
+    ) {
+        return ResponseEntity.accepted().body(reportJobService.submitMemberEvaluationReport(projectId, from, to, format));
+    }
+
+    @PostMapping("/member/{projectId}")
+    public ResponseEntity<ReportJobDto> submitMemberReport(
+            @PathVariable Long projectId,
+            @RequestParam Long memberId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(defaultValue = "PDF") ReportFormat format
+    ) {
+        return ResponseEntity.accepted().body(reportJobService.submitMemberReport(projectId, memberId, fromDate, toDate, format));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReportJobDto>> myJobs() {
+        return ResponseEntity.ok(reportJobService.getMyJobs());
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ReportJobDto> status(@PathVariable String jobId) {
+        return ResponseEntity.ok(reportJobService.getJob(jobId));
+    }
+
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<?> download(@PathVariable String jobId) {
+        ReportJobDto job = reportJobService.getJob(jobId);
+        if (job.getStatus() != ReportJobDto.JobStatus.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Report job is " + job.getStatus()));
+        }
+        if (job.getPath() == null || !Files.exists(job.getPath())) {
+            return ResponseEntity.status(HttpStatus.GONE)
+                    .body(Map.of("error", "Report file expired"));
+        }
+
+        Resource res = new FileSystemResource(job.getPath());
+        MediaType type = job.getFormat() == ReportFormat.PDF
+                ? MediaType.APPLICATION_PDF
+                : MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(job.getFileName()).build().toString())
+                .contentType(type)
+                .body(res);
+    }
+}
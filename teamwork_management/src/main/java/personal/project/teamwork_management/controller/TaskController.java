@@ -2,10 +2,18 @@ package personal.project.teamwork_management.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import personal.project.teamwork_management.dto.DtoView;
 import personal.project.teamwork_management.dto.TaskDto;
 import personal.project.teamwork_management.dto.UserDto;
+import personal.project.teamwork_management.service.JsonStreamService;
+import personal.project.teamwork_management.service.ResourceETagService;
 import personal.project.teamwork_management.service.TaskService;
 import personal.project.teamwork_management.model.Status;
 
@@ -16,8 +24,15 @@ import java.util.Map;
 @RequestMapping("/api/tasks")
 public class TaskController {
 
+    // trình duyệt được lưu nhưng phải hỏi lại (If-None-Match) mỗi lần dùng
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private TaskService taskService;
+    @Autowired
+    private ResourceETagService etagService;
+    @Autowired
+    private JsonStreamService jsonStreamService;
 
     // Original endpoints (keeping for backward compatibility)
     @PostMapping("/create/{projectId}")
@@ -40,20 +55,34 @@ public class TaskController {
         }
     }
 
+    // view: card | row | detail (mặc định), xem DtoView
+    // stream=true (view detail): ghi dần từ DB (sắp theo id) thay vì dựng cả List, cho project / user có rất nhiều task
     @GetMapping("")
     public ResponseEntity<?> getAllTasksByProjectIdOrUserId(
             @RequestParam(required = false) Long projectId,
-            @RequestParam(required = false) Long userId) {
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String view,
+            @RequestParam(defaultValue = "false") boolean stream,
+            WebRequest request) {
         try {
-            if(projectId != null && userId != null){
-                return ResponseEntity.ok(taskService.getAllTasksByProjectIdAndUserId(projectId, userId));
+            DtoView dtoView = DtoView.parse(view);
+            // 304 trước khi đọc task: chỉ cần version dữ liệu project (hoặc toàn cục khi lấy theo user)
+            String etag = projectId != null ? etagService.forProject(projectId) : etagService.forUser(userId);
+            if (request.checkNotModified(etag)) {
+                return null;
             }
-            if (projectId != null) {
-                return ResponseEntity.ok(taskService.getAllTasksByProjectId(projectId));
+            if (stream && dtoView == DtoView.DETAIL) {
+                taskService.refreshOverdueTasks(projectId, userId);
+                jsonStreamService.acquireStream();
+                StreamingResponseBody body = os -> jsonStreamService.writeTasks(projectId, userId, os);
+                return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)
+                        .contentType(MediaType.APPLICATION_JSON).body(body);
             }
-            
-            return ResponseEntity.ok(taskService.getAllTasksByUserId(userId));
+            List<?> tasks = taskService.getTasks(dtoView, projectId, userId);
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(tasks);
    
+        } catch (ResponseStatusException e) {
+            throw e; // 503 khi hết suất stream
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -0,0 +1,27 @@
+package personal.project.teamwork_management.dto;
+
+import java.util.Locale;
+
+/**
+ * Hồ sơ dữ liệu của endpoint danh sách (?view=): mỗi view có projection JPQL riêng, chỉ SELECT và trả về
+ * các cột view đó hiển thị.
+ * <ul>
+ *     <li>CARD: thẻ trên dashboard / kanban (ProjectCardDto, TaskCardDto)</li>
+ *     <li>ROW: dòng bảng / cây task (ProjectRowDto, TaskRowDto)</li>
+ *     <li>DETAIL: DTO đầy đủ như trước (ProjectDto kèm members + tasks, TaskDto)</li>
+ * </ul>
+ */
+public enum DtoView {
+    CARD, ROW, DETAIL;
+
+    public static DtoView parse(String value) {
+        if (value == null || value.isBlank()) {
+            return DETAIL;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown view: " + value + " (card, row, detail)");
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package personal.project.teamwork_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Số liệu submit/duyệt trong kỳ của 1 user (GROUP BY trên task_approval_logs)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MemberApprovalStatsDto {
+    private Long userId;
+    private Long submissions; // tất cả log do user thực hiện (giống countSubmissions)
+    private Long approvals;
+    private Long rejects;
+}
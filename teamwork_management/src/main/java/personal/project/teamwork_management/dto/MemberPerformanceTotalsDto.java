@@ -0,0 +1,20 @@
+package personal.project.teamwork_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Tổng các bucket ngày của 1 user trong khoảng [from, to] (member_performance_snapshot)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MemberPerformanceTotalsDto {
+    private Long userId;
+    private Long assigned;
+    private Long completed;
+    private Long overdue;
+    private Long created;
+    private Long submissions;
+    private Long approvals;
+    private Long rejects;
+}
@@ -0,0 +1,16 @@
+package personal.project.teamwork_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Số liệu task trong kỳ của 1 user (GROUP BY trên task_user)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MemberTaskStatsDto {
+    private Long userId;
+    private Long assigned;
+    private Long completed;
+    private Long overdue;
+}
@@ -0,0 +1,23 @@
+package personal.project.teamwork_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import personal.project.teamwork_management.model.Status;
+
+import java.util.Date;
+
+// Thẻ project trên dashboard (?view=card): số thành viên / task thay vì cả danh sách
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProjectCardDto {
+    private Long id;
+    private String name;
+    private Status status;
+    private Long progress;
+    private Date startDate;
+    private Date endDate;
+    private Long memberCount;
+    private Long taskCount;
+}
@@ -0,0 +1,20 @@
+package personal.project.teamwork_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import personal.project.teamwork_management.model.Status;
+
+import java.util.Date;
+
+// Dòng project trong bảng / danh sách chọn (?view=row)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProjectRowDto {
+    private Long id;
+    private String name;
+    private Status status;
+    private Long progress;
+    private Date endDate;
+}
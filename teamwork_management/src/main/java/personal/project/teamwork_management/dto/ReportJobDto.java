@@ -0,0 +1,38 @@
+package personal.project.teamwork_management.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Value;
+import personal.project.teamwork_management.service.ReportFormat;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Snapshot bất biến của 1 job báo cáo: worker đổi trạng thái bằng cách thay cả bản ghi (toBuilder),
+ * thread đang poll luôn thấy trọn 1 trạng thái (VD DONE thì đã có fileName / finishedAt).
+ */
+@Value
+@Builder(toBuilder = true)
+public class ReportJobDto {
+
+    public enum JobType { PROJECT, MEMBER_EVALUATION, MEMBER }
+
+    public enum JobStatus { QUEUED, RUNNING, DONE, FAILED }
+
+    String id;
+    JobType type;
+    ReportFormat format;
+    Long projectId;
+    Long memberId;
+    Long userId;
+    JobStatus status;
+    String fileName;
+    String error;
+    Instant createdAt;
+    Instant startedAt;
+    Instant finishedAt;
+
+    @JsonIgnore
+    Path path; // đường dẫn file trên server, không trả về client
+}
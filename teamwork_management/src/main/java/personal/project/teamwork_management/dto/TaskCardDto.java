@@ -0,0 +1,23 @@
+package personal.project.teamwork_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import personal.project.teamwork_management.model.Status;
+
+import java.util.Date;
+
+// Thẻ task (?view=card): không có description / assignees, kèm tên project để hiển thị task của nhiều project
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskCardDto {
+    private Long id;
+    private String title;
+    private Status status;
+    private Integer priority;
+    private Integer progress;
+    private Date deadline;
+    private Long projectId;
+    private String projectName;
+}
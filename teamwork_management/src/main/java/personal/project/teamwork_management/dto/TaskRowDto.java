@@ -0,0 +1,23 @@
+package personal.project.teamwork_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import personal.project.teamwork_management.model.Status;
+
+import java.util.Date;
+
+// Dòng task trong bảng / cây task của project (?view=row): đủ để dựng cây theo parentId + level
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskRowDto {
+    private Long id;
+    private Long parentId;
+    private Integer level;
+    private String title;
+    private Status status;
+    private Integer priority;
+    private Integer progress;
+    private Date deadline;
+}
@@ -0,0 +1,20 @@
+package personal.project.teamwork_management.event;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Phát ra sau khi dữ liệu thuộc 1 project thay đổi (task, thành viên, duyệt task, project).
+ *
+ * @param projectId     project bị ảnh hưởng
+ * @param entityType    entity đã ghi (Task, ProjectMember, TaskApprovalLog, Project)
+ * @param entityId      id của entity đó
+ * @param affectedDates các mốc thời gian dùng để gom số liệu theo ngày: deadline (cũ + mới) của Task,
+ *                      createdAt của TaskApprovalLog; rỗng với các entity khác
+ */
+public record ProjectDataChangedEvent(Long projectId, Class<?> entityType, Long entityId, List<Date> affectedDates) {
+
+    public ProjectDataChangedEvent(Long projectId, Class<?> entityType, Long entityId) {
+        this(projectId, entityType, entityId, List.of());
+    }
+}
@@ -0,0 +1,29 @@
+package personal.project.teamwork_management.event.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Upload (tới lúc lưu xong) hoặc download (tới lúc body được đóng) 1 file đính kèm.
+ */
+@Name("teamwork.FileTransfer")
+@Label("File Transfer")
+@Category({"Teamwork", "Files"})
+@StackTrace(false)
+public class FileTransferEvent extends Event {
+
+    @Label("Direction")
+    public String direction;
+
+    @Label("Project Id")
+    public long projectId;
+
+    @Label("File Id")
+    public long fileId;
+
+    @Label("Encoding")
+    public String encoding;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
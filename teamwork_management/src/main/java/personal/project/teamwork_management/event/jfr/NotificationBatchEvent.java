@@ -0,0 +1,22 @@
+package personal.project.teamwork_management.event.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Gửi cùng 1 thông báo cho nhiều user (lưu DB + đẩy WebSocket từng người).
+ */
+@Name("teamwork.NotificationBatch")
+@Label("Notification Batch")
+@Category({"Teamwork", "Notifications"})
+@StackTrace(false)
+public class NotificationBatchEvent extends Event {
+
+    @Label("Project Id")
+    public long projectId;
+
+    @Label("Notification Type")
+    public String notificationType;
+
+    @Label("Recipients")
+    public int recipients;
+}
@@ -0,0 +1,33 @@
+package personal.project.teamwork_management.event.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Render HTML -> PDF của 1 báo cáo (gồm cả ghép các đoạn khi render theo chunk).
+ */
+@Name("teamwork.PdfRender")
+@Label("PDF Render")
+@Category({"Teamwork", "Reports"})
+@StackTrace(false)
+public class PdfRenderEvent extends Event {
+
+    @Label("Report")
+    public String report;
+
+    @Label("Project Id")
+    public long projectId;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Chunks")
+    public int chunks;
+
+    @Label("HTML Length")
+    @Description("Tổng số ký tự HTML đưa vào renderer")
+    public long htmlChars;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
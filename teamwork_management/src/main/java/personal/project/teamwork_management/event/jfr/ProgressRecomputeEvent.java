@@ -0,0 +1,26 @@
+package personal.project.teamwork_management.event.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Tính lại progress có trọng số: cả project (scope=project) hoặc cây con của 1 task (scope=task).
+ */
+@Name("teamwork.ProgressRecompute")
+@Label("Progress Recompute")
+@Category({"Teamwork", "Tasks"})
+@StackTrace(false)
+public class ProgressRecomputeEvent extends Event {
+
+    @Label("Project Id")
+    public long projectId;
+
+    @Label("Task Id")
+    @Description("Task gốc khi scope=task, 0 khi scope=project")
+    public long taskId;
+
+    @Label("Scope")
+    public String scope;
+
+    @Label("Nodes")
+    public int nodes;
+}
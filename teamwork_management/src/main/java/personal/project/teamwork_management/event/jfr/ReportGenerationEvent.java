@@ -0,0 +1,32 @@
+package personal.project.teamwork_management.event.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Lấy 1 file báo cáo qua ReportCacheService: trúng cache hoặc sinh mới.
+ */
+@Name("teamwork.ReportGeneration")
+@Label("Report Generation")
+@Category({"Teamwork", "Reports"})
+@StackTrace(false)
+public class ReportGenerationEvent extends Event {
+
+    @Label("Report")
+    public String report;
+
+    @Label("Format")
+    public String format;
+
+    @Label("Project Id")
+    public long projectId;
+
+    @Label("Member Id")
+    public long memberId;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
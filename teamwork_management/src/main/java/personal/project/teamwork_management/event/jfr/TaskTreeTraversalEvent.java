@@ -0,0 +1,22 @@
+package personal.project.teamwork_management.event.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Duyệt cây task của project (load các cây level 1 cho báo cáo).
+ */
+@Name("teamwork.TaskTreeTraversal")
+@Label("Task Tree Traversal")
+@Category({"Teamwork", "Tasks"})
+@StackTrace(false)
+public class TaskTreeTraversalEvent extends Event {
+
+    @Label("Project Id")
+    public long projectId;
+
+    @Label("Roots")
+    public int roots;
+
+    @Label("Nodes")
+    public int nodes;
+}
@@ -0,0 +1,167 @@
+package personal.project.teamwork_management.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import personal.project.teamwork_management.util.RequestSqlStats;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Access log dạng JSON 1 dòng / request vào logger "ACCESS" (AsyncAppender trong logback-spring.xml).
+ * Request lỗi (5xx / exception) và chậm luôn được ghi, kèm payload; còn lại ghi theo tỉ lệ sample của route.
+ * Payload của đăng nhập / đăng ký / đổi mật khẩu không bao giờ được ghi; các payload và query string khác
+ * bị che giá trị của field nhạy cảm (password, token, secret...).
+ * Chạy bên trong SqlStatsFilter nên đọc được số SQL của request.
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger ACCESS = LoggerFactory.getLogger("ACCESS");
+
+    // body chứa mật khẩu: chỉ ghi kích thước
+    private static final Pattern NO_PAYLOAD_PATH = Pattern.compile("^/api/(auth/.*|users/register|users/\\d+/password)$");
+
+    private static final String SENSITIVE_KEY = "[^\"=&]*(?:password|passwd|pwd|secret|token|otp|authorization|credential|api[-_]?key)[^\"=&]*";
+    // "key": "value" / "key": 123 (payload có thể bị cắt giữa chuỗi)
+    private static final Pattern SENSITIVE_JSON = Pattern.compile(
+            "(?i)(\"" + SENSITIVE_KEY + "\"\\s*:\\s*)(\"(?:\\\\.|[^\"\\\\])*\"?|[^,}\\]\\s]+)");
+    // key=value trong form / query string
+    private static final Pattern SENSITIVE_FORM = Pattern.compile("(?i)((?:^|&)" + SENSITIVE_KEY + "=)[^&]*");
+    private static final String MASK = "***";
+
+    private final ObjectMapper objectMapper;
+    private final double defaultSampleRate;
+    private final Map<String, Double> sampleRates = new HashMap<>();
+    private final long slowThresholdMs;
+    private final int maxPayloadLength;
+
+    /**
+     * @param sampleRates "route=tỉ lệ", route là "METHOD pattern" hoặc chỉ pattern của handler,
+     *                    VD "GET /api/notifications/unread/{userId}=0.05", "/actuator/health=0"
+     */
+    public AccessLogFilter(ObjectMapper objectMapper, double defaultSampleRate, List<String> sampleRates,
+                           long slowThresholdMs, int maxPayloadLength) {
+        this.objectMapper = objectMapper;
+        this.defaultSampleRate = defaultSampleRate;
+        this.slowThresholdMs = slowThresholdMs;
+        this.maxPayloadLength = maxPayloadLength;
+        for (String entry : sampleRates) {
+            int eq = entry.lastIndexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Invalid spring.access-log.sample-rates entry: " + entry);
+            }
+            this.sampleRates.put(entry.substring(0, eq).trim(), Double.parseDouble(entry.substring(eq + 1).trim()));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        ContentCachingRequestWrapper wrapped = new ContentCachingRequestWrapper(request, maxPayloadLength);
+        Throwable failure = null;
+        try {
+            filterChain.doFilter(wrapped, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            log(wrapped, response, start, failure);
+        }
+    }
+
+    private void log(ContentCachingRequestWrapper request, HttpServletResponse response, long start, Throwable failure) {
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int status = failure != null && response.getStatus() < 500 ? 500 : response.getStatus();
+        boolean error = status >= 500;
+        boolean slow = latencyMs >= slowThresholdMs;
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : "UNKNOWN";
+        String reason = error ? "error" : slow ? "slow" : null;
+        if (reason == null) {
+            double rate = sampleRate(request.getMethod(), route);
+            if (rate <= 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+                return;
+            }
+            reason = "sampled";
+        }
+        if (!ACCESS.isInfoEnabled()) {
+            return;
+        }
+
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("ts", Instant.now().toString());
+        line.put("method", request.getMethod());
+        line.put("route", route);
+        line.put("path", request.getRequestURI());
+        line.put("status", status);
+        line.put("latencyMs", latencyMs);
+        RequestSqlStats sql = RequestSqlStats.current();
+        if (sql != null) {
+            line.put("sqlStatements", sql.getStatements());
+            line.put("sqlMs", TimeUnit.NANOSECONDS.toMillis(sql.getJdbcNanos()));
+        }
+        line.put("reason", reason);
+        if (error || slow) {
+            line.put("query", redact(request.getQueryString()));
+            line.put("payload", payload(request));
+            if (failure != null) {
+                line.put("exception", failure.getClass().getName() + ": " + failure.getMessage());
+            }
+        }
+        try {
+            ACCESS.info(objectMapper.writeValueAsString(line));
+        } catch (JsonProcessingException e) {
+            ACCESS.info("{\"route\":\"{}\",\"status\":{},\"latencyMs\":{}}", route, status, latencyMs);
+        }
+    }
+
+    private double sampleRate(String method, String route) {
+        Double rate = sampleRates.get(method + " " + route);
+        if (rate == null) rate = sampleRates.get(route);
+        return rate != null ? rate : defaultSampleRate;
+    }
+
+    // chỉ body dạng text (JSON, form...), đã bị cắt ở maxPayloadLength byte, đã che field nhạy cảm
+    private static String payload(ContentCachingRequestWrapper request) {
+        byte[] body = request.getContentAsByteArray();
+        if (body.length == 0) {
+            return null;
+        }
+        String type = request.getContentType() != null ? request.getContentType().toLowerCase(Locale.ROOT) : "";
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (NO_PAYLOAD_PATH.matcher(path).matches()
+                || !(type.startsWith("text/") || type.contains("json") || type.contains("xml")
+                || type.startsWith("application/x-www-form-urlencoded"))) {
+            return "<" + body.length + " bytes " + type + ">";
+        }
+        return redact(new String(body, StandardCharsets.UTF_8));
+    }
+
+    static String redact(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        String masked = SENSITIVE_JSON.matcher(text).replaceAll("$1\"" + MASK + "\"");
+        return SENSITIVE_FORM.matcher(masked).replaceAll("$1" + MASK);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,6 +17,7 @@ import personal.project.teamwork_management.util.JwtUtil;
 
 import java.io.IOException;
 
+@Slf4j
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
@@ -29,24 +31,21 @@ public class JwtFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String path = request.getServletPath();
-        System.out.println("🔍 JwtFilter: Processing path: " + path);
-        
+
         // Bỏ qua xác thực với các đường dẫn công khai
         if (path.equals("/api/auth/login") || path.equals("/api/users/register") || 
                         path.equals("/api/hello") || path.equals("/api/actuator/health")) {
-            System.out.println("✅ JwtFilter: Skipping authentication for public path: " + path);
             filterChain.doFilter(request, response);
             return;
         }
 
         String authHeader = request.getHeader("Authorization");
-        System.out.println("🔑 JwtFilter: Auth header: " + authHeader);
-        
+
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             String username = jwtUtil.validateToken(token);
             if (username == null) {
-                System.out.println("❌ JwtFilter: Invalid token");
+                log.debug("JwtFilter: invalid token for {}", path);
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return;
             }
@@ -58,9 +57,6 @@ public class JwtFilter extends OncePerRequestFilter {
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
             SecurityContextHolder.getContext().setAuthentication(authToken);
-            System.out.println("✅ JwtFilter: Authentication successful for user: " + username);
-        } else {
-            System.out.println("⚠️ JwtFilter: No Bearer token found");
         }
 
         filterChain.doFilter(request, response);
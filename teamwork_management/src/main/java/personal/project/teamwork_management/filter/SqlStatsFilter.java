@@ -0,0 +1,45 @@
+package personal.project.teamwork_management.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import personal.project.teamwork_management.service.SqlStatsService;
+import personal.project.teamwork_management.util.RequestSqlStats;
+
+import java.io.IOException;
+
+/**
+ * Mở RequestSqlStats cho mỗi request, hết request thì ghi vào SqlStatsService theo "METHOD pattern"
+ * (VD "GET /api/projects/{id}"). Phần chạy sau trên thread khác (StreamingResponseBody, executor báo cáo)
+ * không được tính.
+ */
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    private final SqlStatsService sqlStatsService;
+
+    public SqlStatsFilter(SqlStatsService sqlStatsService) {
+        this.sqlStatsService = sqlStatsService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !sqlStatsService.isEnabled() || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = RequestSqlStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestSqlStats.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            // không map được handler (404, static) -> gom chung để không nổ số tag
+            sqlStatsService.record(request.getMethod(), pattern != null ? pattern.toString() : "UNKNOWN", stats);
+        }
+    }
+}
@@ -16,7 +16,11 @@ public class File extends BaseEntity {
     private String name;
     private String type;
     private String path;
-    private Long size; // File size in bytes
+    private Long size; // File size in bytes (kích thước gốc, trước khi nén)
+
+    // Encoding lưu trên đĩa: null = lưu nguyên bản, "gzip" hoặc "deflate"
+    private String contentEncoding;
+    private Long storedSize; // Số byte thực tế trên đĩa
 
     @ManyToOne
     @JoinColumn(name = "task_id")
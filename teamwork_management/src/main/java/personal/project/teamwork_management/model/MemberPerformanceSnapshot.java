@@ -0,0 +1,41 @@
+package personal.project.teamwork_management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Số liệu đánh giá thành viên đã gom sẵn theo (project, user, ngày).
+ * Task tính theo ngày deadline, duyệt task theo ngày tạo log (giờ Asia/Bangkok), giống cách lọc của báo cáo.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "member_performance_snapshot",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"project_id", "user_id", "snapshot_day"}),
+        indexes = @Index(name = "idx_mps_project_day", columnList = "project_id, snapshot_day"))
+public class MemberPerformanceSnapshot extends BaseEntity {
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "snapshot_day", nullable = false)
+    private LocalDate snapshotDay;
+
+    private long assigned;     // task được giao có deadline trong ngày
+    private long completed;    // trong đó COMPLETED
+    private long overdue;      // trong đó OVERDUE
+    private long created;      // task user tạo có deadline trong ngày
+    private long submissions;  // log duyệt task do user thực hiện
+    private long approvals;
+    private long rejects;
+}
@@ -0,0 +1,24 @@
+package personal.project.teamwork_management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Project đã build toàn bộ snapshot ít nhất 1 lần (updatedAt: lần build gần nhất).
+ * Chưa có dòng này thì báo cáo đọc bảng gốc và flush bỏ qua project.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "member_performance_snapshot_build",
+        indexes = @Index(name = "idx_mpsb_project", columnList = "project_id"))
+public class MemberPerformanceSnapshotBuild extends BaseEntity {
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+}
@@ -0,0 +1,30 @@
+package personal.project.teamwork_management.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Ngày có dữ liệu thay đổi sau lần build snapshot, chờ tính lại. Lưu trong DB để mọi instance cùng thấy:
+ * instance nào ghi task / log duyệt cũng đánh dấu, instance nào flush cũng tính lại được.
+ * Mỗi lần đánh dấu là 1 dòng mới (id tăng dần); tính lại xong chỉ xoá các dòng đã đọc lúc bắt đầu.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "member_performance_snapshot_dirty_day",
+        indexes = @Index(name = "idx_mpsd_project_day", columnList = "project_id, snapshot_day"))
+public class MemberPerformanceSnapshotDirtyDay extends BaseEntity {
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "snapshot_day", nullable = false)
+    private LocalDate snapshotDay;
+}
@@ -5,6 +5,8 @@ import jdk.jfr.Enabled;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Date;
 import java.util.List;
@@ -28,6 +30,7 @@ public class Task extends BaseEntity {
     private User createdBy;
 
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task.assignedUsers")
     @JoinTable(
             name = "task_user",
             joinColumns = @JoinColumn(name = "task_id"),
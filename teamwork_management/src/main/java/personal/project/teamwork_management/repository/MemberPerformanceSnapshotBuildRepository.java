@@ -0,0 +1,15 @@
+package personal.project.teamwork_management.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import personal.project.teamwork_management.model.MemberPerformanceSnapshotBuild;
+
+import java.util.Optional;
+
+@Repository
+public interface MemberPerformanceSnapshotBuildRepository extends JpaRepository<MemberPerformanceSnapshotBuild, Long> {
+
+    boolean existsByProjectId(Long projectId);
+
+    Optional<MemberPerformanceSnapshotBuild> findFirstByProjectId(Long projectId);
+}
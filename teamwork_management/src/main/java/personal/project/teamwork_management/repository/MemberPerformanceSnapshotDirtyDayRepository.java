@@ -0,0 +1,24 @@
+package personal.project.teamwork_management.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import personal.project.teamwork_management.model.MemberPerformanceSnapshotDirtyDay;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MemberPerformanceSnapshotDirtyDayRepository extends JpaRepository<MemberPerformanceSnapshotDirtyDay, Long> {
+
+    List<MemberPerformanceSnapshotDirtyDay> findByProjectId(Long projectId);
+
+    boolean existsByProjectIdAndSnapshotDayBetween(Long projectId, LocalDate from, LocalDate to);
+
+    // chỉ project đã build toàn bộ; project khác chờ job đêm / on-demand
+    @Query("""
+        SELECT d FROM MemberPerformanceSnapshotDirtyDay d
+        WHERE EXISTS (SELECT 1 FROM MemberPerformanceSnapshotBuild b WHERE b.projectId = d.projectId)
+    """)
+    List<MemberPerformanceSnapshotDirtyDay> findAllOfBuiltProjects();
+}
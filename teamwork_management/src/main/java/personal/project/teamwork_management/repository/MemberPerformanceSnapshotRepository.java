@@ -0,0 +1,38 @@
+package personal.project.teamwork_management.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import personal.project.teamwork_management.dto.MemberPerformanceTotalsDto;
+import personal.project.teamwork_management.model.MemberPerformanceSnapshot;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MemberPerformanceSnapshotRepository extends JpaRepository<MemberPerformanceSnapshot, Long> {
+
+    @Query("""
+        SELECT new personal.project.teamwork_management.dto.MemberPerformanceTotalsDto(
+            s.userId, SUM(s.assigned), SUM(s.completed), SUM(s.overdue), SUM(s.created),
+            SUM(s.submissions), SUM(s.approvals), SUM(s.rejects))
+        FROM MemberPerformanceSnapshot s
+        WHERE s.projectId = :projectId
+          AND s.snapshotDay BETWEEN :from AND :to
+        GROUP BY s.userId
+    """)
+    List<MemberPerformanceTotalsDto> sumByUser(@Param("projectId") Long projectId,
+                                               @Param("from") LocalDate from,
+                                               @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM MemberPerformanceSnapshot s WHERE s.projectId = :projectId AND s.snapshotDay IN :days")
+    int deleteDays(@Param("projectId") Long projectId, @Param("days") Collection<LocalDate> days);
+
+    @Modifying
+    @Query("DELETE FROM MemberPerformanceSnapshot s WHERE s.projectId = :projectId")
+    int deleteByProject(@Param("projectId") Long projectId);
+}
@@ -12,4 +12,8 @@ public interface ProjectInteractionRepository extends JpaRepository<ProjectInter
 
     @Query("SELECT pi FROM ProjectInteraction pi WHERE pi.user.id = :userId ORDER BY pi.lastViewedAt DESC")
     List<ProjectInteraction> findByUserIdOrderByLastViewedAtDesc(Long userId);
+
+    // Chỉ lấy id project (không load Project/User EAGER theo từng dòng)
+    @Query("SELECT pi.project.id FROM ProjectInteraction pi WHERE pi.user.id = :userId ORDER BY pi.lastViewedAt DESC")
+    List<Long> findProjectIdsByUserIdOrderByLastViewedAtDesc(Long userId);
 }
@@ -1,34 +1,62 @@
 package personal.project.teamwork_management.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import personal.project.teamwork_management.dto.MemberDto;
 import personal.project.teamwork_management.dto.ProjectMemberDto;
 import personal.project.teamwork_management.model.ProjectMember;
+import personal.project.teamwork_management.model.User;
 import personal.project.teamwork_management.model.Role;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProjectMemberRepository extends JpaRepository<ProjectMember, Long> {
 
+    // Query cache cho các câu membership đọc ở gần như mọi request (role hiện tại, danh sách thành viên).
+    // Kết quả tự bị loại khi bảng project_member / user thay đổi (update-timestamps), TTL trong ehcache.xml.
+    String MEMBERSHIP_REGION = "membership";
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = MEMBERSHIP_REGION)})
     @Query("SELECT pm.role FROM ProjectMember pm WHERE pm.project.id = :projectId AND pm.user.id = :userId")
     Role findRoleByProjectIdAndUserId(Long projectId, Long userId);
 
     @Query("SELECT pm FROM ProjectMember pm WHERE pm.project.id = :id")
     List<ProjectMember> findAllByProjectId(Long id);
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = MEMBERSHIP_REGION)})
     @Query("SELECT new personal.project.teamwork_management.dto.MemberDto(pm.id, u.firstName, u.lastName, u.email, pm.role) " +
            "FROM ProjectMember pm JOIN pm.user u WHERE pm.project.id = :projectId")
     List<MemberDto> findAllMembersByProjectId(Long projectId);
 
+    // Như findAllMembersByProjectId cho nhiều project: project_id, pm.id, firstName, lastName, email, role
+    @Query("SELECT pm.project.id, pm.id, u.firstName, u.lastName, u.email, pm.role " +
+           "FROM ProjectMember pm JOIN pm.user u WHERE pm.project.id IN :projectIds")
+    List<Object[]> findAllMemberRowsByProjectIds(Collection<Long> projectIds);
+
     @Query("SELECT pm FROM ProjectMember pm WHERE pm.project.id = :projectId AND pm.role = 'LEADER'")
     ProjectMember findLeaderByProjectId(Long projectId);
 
     List<ProjectMember> findByProjectId(Long projectId);
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = MEMBERSHIP_REGION)})
+    @Query("SELECT u FROM ProjectMember pm JOIN pm.user u WHERE pm.project.id = :projectId ORDER BY pm.id")
+    List<User> findUsersByProjectId(Long projectId);
+
+    @Query("SELECT pm.project.id FROM ProjectMember pm WHERE pm.user.id = :userId AND pm.role IN :roles ORDER BY pm.project.id")
+    List<Long> findProjectIdsByUserIdAndRoles(Long userId, Collection<Role> roles);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = MEMBERSHIP_REGION)})
     Optional<ProjectMember> findByProjectIdAndUserId(Long id, Long id1);
 
     Optional<ProjectMember> findByIdAndProjectId(Long id, Long id1);
@@ -6,11 +6,15 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import personal.project.teamwork_management.dto.ProjectCardDto;
 import personal.project.teamwork_management.dto.ProjectDto;
+import personal.project.teamwork_management.dto.ProjectRowDto;
 import personal.project.teamwork_management.model.Project;
+import personal.project.teamwork_management.model.Role;
 import personal.project.teamwork_management.model.Status;
 
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -21,6 +25,11 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
             "FROM Project p WHERE p.id = ?1")
     ProjectDto findProjectDtoById(Long id);
 
+    @Query ("SELECT new personal.project.teamwork_management.dto.ProjectDto(" +
+            "p.id, p.name, p.description, p.status, p.progress, p.startDate, p.endDate) " +
+            "FROM Project p WHERE p.id IN ?1")
+    List<ProjectDto> findProjectDtosByIds(Collection<Long> ids);
+
     @Query("SELECT new personal.project.teamwork_management.dto.ProjectDto(" +
             "p.id, p.name, p.description, p.status, p.progress, p.startDate, p.endDate) " +
             "FROM Project p JOIN p.members m WHERE m.user.id = ?1")
@@ -73,6 +82,32 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
                                                   @Param("status") Status status,
                                                   Pageable pageable);
 
+    // ===== View rút gọn (?view=card|row): project mà user có role thuộc roles, search / status null = không lọc =====
+    String VIEW_FILTER = "FROM Project p JOIN p.members m WHERE m.user.id = :userId AND m.role IN :roles " +
+            "AND (:search IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
+            "     OR LOWER(p.description) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+            "AND (:status IS NULL OR p.status = :status)";
+
+    @Query(value = "SELECT new personal.project.teamwork_management.dto.ProjectCardDto(" +
+            "p.id, p.name, p.status, p.progress, p.startDate, p.endDate, " +
+            "(SELECT COUNT(pm) FROM ProjectMember pm WHERE pm.project = p), " +
+            "(SELECT COUNT(t) FROM Task t WHERE t.project = p)) " + VIEW_FILTER,
+           countQuery = "SELECT COUNT(p) " + VIEW_FILTER)
+    Page<ProjectCardDto> findProjectCards(@Param("userId") Long userId,
+                                          @Param("roles") Collection<Role> roles,
+                                          @Param("search") String search,
+                                          @Param("status") Status status,
+                                          Pageable pageable);
+
+    @Query(value = "SELECT new personal.project.teamwork_management.dto.ProjectRowDto(" +
+            "p.id, p.name, p.status, p.progress, p.endDate) " + VIEW_FILTER,
+           countQuery = "SELECT COUNT(p) " + VIEW_FILTER)
+    Page<ProjectRowDto> findProjectRows(@Param("userId") Long userId,
+                                        @Param("roles") Collection<Role> roles,
+                                        @Param("search") String search,
+                                        @Param("status") Status status,
+                                        Pageable pageable);
+
     /**
      * Count projects by status for a user
      */
@@ -97,4 +132,10 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
            "AND m.role = 'MEMBER'")
     Long countMemberProjectsForUser(@Param("userId") Long userId);
 
+    /**
+     * All project ids (nightly snapshot job)
+     */
+    @Query("SELECT p.id FROM Project p ORDER BY p.id")
+    List<Long> findAllIds();
+
 }
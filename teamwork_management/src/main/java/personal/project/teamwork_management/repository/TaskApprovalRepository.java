@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import personal.project.teamwork_management.dto.MemberApprovalStatsDto;
 import personal.project.teamwork_management.dto.TaskApprovalLogDto;
 import personal.project.teamwork_management.model.ApprovalAction;
 import personal.project.teamwork_management.model.TaskApprovalLog;
@@ -48,4 +49,33 @@ public interface TaskApprovalRepository extends JpaRepository<TaskApprovalLog, L
                        @Param("status") ApprovalAction status,
                        @Param("from") Date from,
                        @Param("to") Date to);
+
+    @Query("""
+        SELECT new personal.project.teamwork_management.dto.MemberApprovalStatsDto(
+            l.performedBy.id,
+            COUNT(l),
+            COUNT(CASE WHEN l.action = :approve THEN l.id END),
+            COUNT(CASE WHEN l.action = :reject THEN l.id END))
+        FROM TaskApprovalLog l
+        WHERE l.task.project.id = :projectId
+          AND l.createdAt BETWEEN :from AND :to
+        GROUP BY l.performedBy.id
+    """)
+    List<MemberApprovalStatsDto> aggregateByUser(@Param("projectId") Long projectId,
+                                                 @Param("from") Date from,
+                                                 @Param("to") Date to,
+                                                 @Param("approve") ApprovalAction approve,
+                                                 @Param("reject") ApprovalAction reject);
+
+    // Snapshot theo ngày: user, thời điểm, action của từng log duyệt task
+    @Query("""
+        SELECT l.performedBy.id, l.createdAt, l.action
+        FROM TaskApprovalLog l
+        WHERE l.task.project.id = :projectId
+          AND l.createdAt >= :from AND l.createdAt < :toExclusive
+          AND l.performedBy IS NOT NULL
+    """)
+    List<Object[]> findUserActions(@Param("projectId") Long projectId,
+                                   @Param("from") Date from,
+                                   @Param("toExclusive") Date toExclusive);
 }
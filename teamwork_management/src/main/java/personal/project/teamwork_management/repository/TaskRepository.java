@@ -3,13 +3,19 @@ package personal.project.teamwork_management.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import personal.project.teamwork_management.dto.MemberTaskStatsDto;
+import personal.project.teamwork_management.dto.TaskCardDto;
 import personal.project.teamwork_management.dto.TaskDto;
+import personal.project.teamwork_management.dto.TaskRowDto;
 import personal.project.teamwork_management.model.Status;
 import personal.project.teamwork_management.model.Task;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -23,6 +29,12 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
             "FROM Task t JOIN t.project p WHERE p.id = :projectId")
     List<TaskDto> findAllTasksDtoByProjectId(Long projectId);
 
+    @Query("SELECT new personal.project.teamwork_management.dto.TaskDto(" +
+            "t.id, t.title, t.description, t.priority, t.level, t.createdBy.id, t.parent.id, " +
+            "t.progress, p.id, t.status, t.deadline) " +
+            "FROM Task t JOIN t.project p WHERE p.id IN :projectIds")
+    List<TaskDto> findAllTasksDtoByProjectIds(Collection<Long> projectIds);
+
     @Query("SELECT new personal.project.teamwork_management.dto.TaskDto(" +
             "t.id, t.title, t.description, t.priority, t.level, t.createdBy.id, t.parent.id, " +
             "t.progress, p.id, t.status, t.deadline) " +
@@ -35,6 +47,21 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
             "FROM Task t JOIN t.project p JOIN t.assignedUsers u WHERE p.id = :projectId AND u.id = :userId")
     List<TaskDto> findAllTasksDtoByProjectIdAndUserId(Long projectId, Long userId);
 
+    // ===== View rút gọn (?view=row|card) của GET /api/tasks: chỉ SELECT cột view hiển thị, null = không lọc =====
+    @Query("SELECT new personal.project.teamwork_management.dto.TaskRowDto(" +
+            "t.id, t.parent.id, t.level, t.title, t.status, t.priority, t.progress, t.deadline) " +
+            "FROM Task t WHERE (:projectId IS NULL OR t.project.id = :projectId) " +
+            "AND (:userId IS NULL OR EXISTS (SELECT 1 FROM t.assignedUsers u WHERE u.id = :userId)) " +
+            "ORDER BY t.id")
+    List<TaskRowDto> findTaskRows(@Param("projectId") Long projectId, @Param("userId") Long userId);
+
+    @Query("SELECT new personal.project.teamwork_management.dto.TaskCardDto(" +
+            "t.id, t.title, t.status, t.priority, t.progress, t.deadline, p.id, p.name) " +
+            "FROM Task t JOIN t.project p WHERE (:projectId IS NULL OR p.id = :projectId) " +
+            "AND (:userId IS NULL OR EXISTS (SELECT 1 FROM t.assignedUsers u WHERE u.id = :userId)) " +
+            "ORDER BY t.deadline, t.id")
+    List<TaskCardDto> findTaskCards(@Param("projectId") Long projectId, @Param("userId") Long userId);
+
     // Enhanced method for user-related tasks with filtering, searching, and sorting
     @Query("SELECT DISTINCT t FROM Task t " +
             "LEFT JOIN t.project p " +
@@ -114,6 +141,20 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
 
     List<Task> findByParentId(Long parentId);
     List<Task> findByProjectIdAndLevel(Long projectId, Integer level);
+    long countByProjectId(Long projectId);
+
+    // Cả cây task của project để tính progress trong bộ nhớ: id, parent_id, priority, level, progress
+    @Query("SELECT t.id, t.parent.id, t.priority, t.level, t.progress FROM Task t WHERE t.project.id = :projectId")
+    List<Object[]> findProgressRowsByProjectId(@Param("projectId") Long projectId);
+
+    // Cây task + assignee của project để gộp assignee cây con: task_id, parent_id, user_id (null nếu chưa giao)
+    @Query("SELECT t.id, t.parent.id, u.id FROM Task t LEFT JOIN t.assignedUsers u WHERE t.project.id = :projectId")
+    List<Object[]> findAssigneeRowsByProjectId(@Param("projectId") Long projectId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Task t SET t.progress = :progress WHERE t.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("progress") Integer progress);
 
     @Query("SELECT t FROM Task t " +
            "JOIN t.assignedUsers u " +
@@ -182,4 +223,109 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
                             @Param("from") Date from,
                             @Param("to") Date to);
 
+
+    // ===== Báo cáo đánh giá thành viên: gom số liệu 1 lần cho cả project =====
+    @Query("""
+        SELECT new personal.project.teamwork_management.dto.MemberTaskStatsDto(
+            u.id,
+            COUNT(DISTINCT t.id),
+            COUNT(DISTINCT CASE WHEN t.status = :completed THEN t.id END),
+            COUNT(DISTINCT CASE WHEN t.status = :overdue THEN t.id END))
+        FROM Task t JOIN t.assignedUsers u
+        WHERE t.project.id = :projectId
+          AND t.deadline BETWEEN :from AND :to
+        GROUP BY u.id
+    """)
+    List<MemberTaskStatsDto> aggregateAssigneeStats(@Param("projectId") Long projectId,
+                                                    @Param("from") Date from,
+                                                    @Param("to") Date to,
+                                                    @Param("completed") Status completed,
+                                                    @Param("overdue") Status overdue);
+
+    @Query("""
+        SELECT t.createdBy.id, COUNT(t) FROM Task t
+        WHERE t.project.id = :projectId
+          AND t.deadline BETWEEN :from AND :to
+          AND t.createdBy IS NOT NULL
+        GROUP BY t.createdBy.id
+    """)
+    List<Object[]> countCreatedByUser(@Param("projectId") Long projectId,
+                                      @Param("from") Date from,
+                                      @Param("to") Date to);
+
+    // ===== Snapshot số liệu theo ngày (member_performance_snapshot): dòng thô để gom theo ngày deadline =====
+    @Query("""
+        SELECT u.id, t.id, t.deadline, t.status
+        FROM Task t JOIN t.assignedUsers u
+        WHERE t.project.id = :projectId
+          AND t.deadline >= :from AND t.deadline < :toExclusive
+    """)
+    List<Object[]> findAssigneeDeadlines(@Param("projectId") Long projectId,
+                                         @Param("from") Date from,
+                                         @Param("toExclusive") Date toExclusive);
+
+    @Query("""
+        SELECT t.createdBy.id, t.deadline
+        FROM Task t
+        WHERE t.project.id = :projectId
+          AND t.deadline >= :from AND t.deadline < :toExclusive
+          AND t.createdBy IS NOT NULL
+    """)
+    List<Object[]> findCreatorDeadlines(@Param("projectId") Long projectId,
+                                        @Param("from") Date from,
+                                        @Param("toExclusive") Date toExclusive);
+
+    // Task đã quá hạn nhưng chưa chuyển OVERDUE (thay cho việc load từng task để updateOverdueTask)
+    @Query("""
+        SELECT t FROM Task t
+        WHERE t.project.id = :projectId
+          AND t.deadline < :now
+          AND t.status NOT IN :excluded
+    """)
+    List<Task> findOverdueCandidates(@Param("projectId") Long projectId,
+                                     @Param("now") Date now,
+                                     @Param("excluded") List<Status> excluded);
+
+    // Như findOverdueCandidates, theo người được giao (projectId null = mọi project)
+    @Query("""
+        SELECT DISTINCT t FROM Task t JOIN t.assignedUsers u
+        WHERE u.id = :userId
+          AND (:projectId IS NULL OR t.project.id = :projectId)
+          AND t.deadline < :now
+          AND t.status NOT IN :excluded
+    """)
+    List<Task> findOverdueCandidatesByAssignee(@Param("projectId") Long projectId,
+                                               @Param("userId") Long userId,
+                                               @Param("now") Date now,
+                                               @Param("excluded") List<Status> excluded);
+
+    /**
+     * Task được giao cho user trong project có deadline thuộc [from, toExclusive), kèm chuỗi tổ tiên.
+     * Bắt đầu từ task_user (index theo user) rồi đi NGƯỢC lên cha, nên chi phí theo số task của member
+     * chứ không theo kích thước project. Mỗi dòng: task_id, ancestor_id, depth (0 = chính task),
+     * ancestor_parent_id, ancestor_level, ancestor_title, title, deadline, status, priority.
+     */
+    @Query(value = """
+        WITH RECURSIVE up (task_id, ancestor_id, parent_id, depth) AS (
+            SELECT DISTINCT t.id, t.id, t.parent_task_id, 0
+            FROM task_user tu
+            JOIN task t ON t.id = tu.task_id
+            WHERE tu.user_id = :userId
+              AND t.project_id = :projectId
+              AND t.deadline >= :from AND t.deadline < :toExclusive
+            UNION ALL
+            SELECT up.task_id, p.id, p.parent_task_id, up.depth + 1
+            FROM up JOIN task p ON p.id = up.parent_id
+        )
+        SELECT up.task_id, up.ancestor_id, up.depth, a.parent_task_id, a.level, a.title,
+               t.title, t.deadline, t.status, t.priority
+        FROM up
+        JOIN task a ON a.id = up.ancestor_id
+        JOIN task t ON t.id = up.task_id
+        ORDER BY up.task_id, up.depth
+    """, nativeQuery = true)
+    List<Object[]> findMemberTasksWithAncestors(@Param("projectId") Long projectId,
+                                                @Param("userId") Long userId,
+                                                @Param("from") Date from,
+                                                @Param("toExclusive") Date toExclusive);
 }
@@ -7,6 +7,7 @@ import personal.project.teamwork_management.dto.UserAuthenDto;
 import personal.project.teamwork_management.dto.UserDto;
 import personal.project.teamwork_management.model.User;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -28,6 +29,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
            "FROM User u WHERE u.id = :id")
     UserDto findUserDtoById(Long id);
 
+    @Query("SELECT new personal.project.teamwork_management.dto.UserDto(" +
+            "u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.dob) " +
+           "FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<UserDto> findUserDtosByIds(Collection<Long> ids);
+
     @Query("SELECT new personal.project.teamwork_management.dto.UserDto(" +
             "u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.dob) " +
            "FROM User u WHERE u.email = :email")
@@ -0,0 +1,150 @@
+package personal.project.teamwork_management.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import personal.project.teamwork_management.model.Role;
+import personal.project.teamwork_management.repository.ProjectMemberRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Export báo cáo nhiều project vào 1 file ZIP ghi thẳng ra response.
+ * Mỗi project sinh trên reportBulkExecutor; tối đa "window" báo cáo nằm trong bộ nhớ cùng lúc
+ * (đang sinh hoặc chờ ghi), entry trong ZIP theo đúng thứ tự projectIds. Không ghi file vào uploads/report.
+ */
+@Slf4j
+@Service
+public class BulkReportExportService {
+
+    private static final List<Role> MANAGER_ROLES = List.of(Role.LEADER, Role.VICE_LEADER);
+
+    private final ProjectReportService projectReportService;
+    private final ProjectMemberRepository projectMemberRepository;
+    private final UserService userService;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate readOnlyTx;
+
+    @Value("${spring.report.bulk.parallelism:3}")
+    private int parallelism = 3;
+
+    @Value("${spring.report.bulk.max-projects:100}")
+    private int maxProjects = 100;
+
+    public BulkReportExportService(ProjectReportService projectReportService,
+                                   ProjectMemberRepository projectMemberRepository,
+                                   UserService userService,
+                                   @Qualifier("reportBulkExecutor") ThreadPoolTaskExecutor executor,
+                                   PlatformTransactionManager transactionManager) {
+        this.projectReportService = projectReportService;
+        this.projectMemberRepository = projectMemberRepository;
+        this.userService = userService;
+        this.executor = executor;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Danh sách project sẽ export (bỏ trùng, giữ thứ tự). Rỗng/null -> mọi project user hiện tại là LEADER/VICE_LEADER.
+     * Kiểm tra quyền từng project ngay tại đây để lỗi trả về trước khi bắt đầu stream.
+     */
+    public List<Long> resolveProjectIds(Collection<Long> requested) {
+        List<Long> ids;
+        if (requested == null || requested.isEmpty()) {
+            Long userId = userService.getCurrentUser().getId();
+            ids = projectMemberRepository.findProjectIdsByUserIdAndRoles(userId, MANAGER_ROLES);
+        } else {
+            ids = new ArrayList<>(new LinkedHashSet<>(requested));
+            ids.forEach(projectReportService::checkAccess);
+        }
+        if (ids.isEmpty()) {
+            throw new RuntimeException("No project to export.");
+        }
+        if (ids.size() > maxProjects) {
+            throw new RuntimeException("Too many projects in one export (max " + maxProjects + ").");
+        }
+        return ids;
+    }
+
+    /**
+     * Ghi ZIP vào os. securityContext: context của request (stream có thể chạy trên thread khác).
+     * Lỗi của 1 project không dừng cả file: ghi entry "<id>-ERROR.txt" thay cho báo cáo.
+     */
+    public void writeZip(List<Long> projectIds, ReportFormat format, SecurityContext securityContext,
+                         OutputStream os) throws IOException {
+        int window = Math.max(1, parallelism) * 2;
+        Deque<CompletableFuture<Entry>> inFlight = new ArrayDeque<>();
+        Iterator<Long> next = projectIds.iterator();
+
+        try (ZipOutputStream zip = new ZipOutputStream(os, StandardCharsets.UTF_8)) {
+            while (next.hasNext() || !inFlight.isEmpty()) {
+                while (next.hasNext() && inFlight.size() < window) {
+                    Long projectId = next.next();
+                    inFlight.add(CompletableFuture.supplyAsync(
+                            () -> generate(projectId, format, securityContext), executor));
+                }
+                Entry entry = inFlight.poll().join(); // generate() không ném lỗi
+                zip.putNextEntry(new ZipEntry(entry.name()));
+                zip.write(entry.bytes());
+                zip.closeEntry();
+            }
+            zip.finish();
+        } catch (IOException | RuntimeException e) {
+            // client ngắt kết nối, ... -> không sinh tiếp phần còn lại
+            inFlight.forEach(f -> f.cancel(true));
+            throw e;
+        }
+    }
+
+    private record Entry(String name, byte[] bytes) {
+    }
+
+    private Entry generate(Long projectId, ReportFormat format, SecurityContext securityContext) {
+        SecurityContext previous = SecurityContextHolder.getContext();
+        SecurityContextHolder.setContext(securityContext);
+        try {
+            return readOnlyTx.execute(status -> {
+                try {
+                    Map<String, Object> model = projectReportService.buildModel(projectId);
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    if (format == ReportFormat.PDF) {
+                        projectReportService.writePdf(model, out);
+                    } else {
+                        projectReportService.writeExcel(model, out);
+                    }
+                    String ext = format == ReportFormat.PDF ? ".pdf" : ".xlsx";
+                    return new Entry(projectId + "-" + toSafe(String.valueOf(model.get("projectName"))) + ext,
+                            out.toByteArray());
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.warn("Bulk report for project {} failed: {}", projectId, cause.getMessage());
+            return new Entry(projectId + "-ERROR.txt",
+                    ("Cannot generate report for project " + projectId + ": " + cause.getMessage())
+                            .getBytes(StandardCharsets.UTF_8));
+        } finally {
+            SecurityContextHolder.setContext(previous);
+        }
+    }
+
+    private static String toSafe(String name) {
+        return name.replaceAll("[^a-zA-Z0-9-_]", "_");
+    }
+}
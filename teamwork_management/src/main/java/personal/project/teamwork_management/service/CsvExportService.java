@@ -0,0 +1,167 @@
+package personal.project.teamwork_management.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import personal.project.teamwork_management.service.MemberEvaluationReportService.MemberRow;
+import personal.project.teamwork_management.util.CsvWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Export CSV cho pipeline dữ liệu: đọc DB bằng Stream forward-only với fetch size riêng cho từng câu export,
+ * ghi từng dòng ra OutputStream của response. Bộ nhớ không tăng theo số dòng.
+ * Gọi kiểm tra quyền (checkProjectAccess, ...) trên thread của request trước khi bắt đầu stream.
+ */
+@Service
+public class CsvExportService {
+
+    // Mỗi task 1 dòng cho mỗi assignee (LEFT JOIN), sắp theo id để gom lại khi ghi; giá trị vô hướng nên không giữ entity
+    private static final String TASK_ROWS = """
+        SELECT t.id, t.parent.id, t.level, t.title, t.status, t.priority, t.progress, t.deadline,
+               t.createdBy.id, u.email
+        FROM Task t LEFT JOIN t.assignedUsers u
+        WHERE t.project.id = :projectId
+        ORDER BY t.id
+    """;
+
+    // Cùng điều kiện với ProjectLogRepository.findByProjectIdAndCreatedAtBetween
+    private static final String LOG_ROWS = """
+        SELECT l.id, l.timestamp, l.action, l.description, l.progress, l.newStatus, l.performedBy, l.createdAt
+        FROM ProjectLog l
+        WHERE l.projectId = :projectId AND l.createdAt BETWEEN :startDate AND :endDate
+        ORDER BY l.id
+    """;
+
+    private final ProjectService projectService;
+    private final ProjectLogService projectLogService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTx;
+
+    // Chỉ áp cho câu export, không cho cả datasource. MySQL: Integer.MIN_VALUE = Connector/J đọc từng dòng
+    // (streaming result set, không bật cursor cho mọi truy vấn); DB khác: số dòng mỗi lần fetch
+    @Value("${spring.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    public CsvExportService(ProjectService projectService,
+                            ProjectLogService projectLogService,
+                            EntityManager entityManager,
+                            PlatformTransactionManager transactionManager) {
+        this.projectService = projectService;
+        this.projectLogService = projectLogService;
+        this.entityManager = entityManager;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    // Quyền: chỉ cần là thành viên dự án
+    public void checkProjectAccess(Long projectId) {
+        if (projectService.getCurrentUserRole(projectId) == null) {
+            throw new RuntimeException("Access denied");
+        }
+    }
+
+    // ---------------- Task của project ----------------
+    public void writeProjectTasks(Long projectId, OutputStream os) throws IOException {
+        CsvWriter csv = new CsvWriter(os);
+        csv.writeRow("id", "parent_id", "level", "title", "status", "priority", "progress", "deadline",
+                "created_by_id", "assignees");
+        csv.flush(); // byte đầu tiên tới client ngay
+
+        inReadOnlyTx(() -> {
+            try (Stream<Object[]> rows = stream(TASK_ROWS, Map.of("projectId", projectId))) {
+                // các dòng cùng task (mỗi assignee 1 dòng) nằm liền nhau -> gom rồi ghi
+                Object[] current = null;
+                List<String> assignees = new ArrayList<>();
+                for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                    Object[] r = it.next();
+                    if (current != null && !Objects.equals(current[0], r[0])) {
+                        writeTask(csv, current, assignees);
+                        assignees.clear();
+                    }
+                    current = r;
+                    if (r[9] != null) assignees.add((String) r[9]);
+                }
+                if (current != null) writeTask(csv, current, assignees);
+            }
+        });
+        csv.flush();
+    }
+
+    private static void writeTask(CsvWriter csv, Object[] r, List<String> assignees) throws IOException {
+        csv.writeRow(r[0], r[1], r[2], r[3], r[4], r[5], r[6], r[7], r[8], String.join(";", assignees));
+    }
+
+    // ---------------- Đánh giá thành viên ----------------
+    /** rows: items của MemberEvaluationReportService.buildModel (1 dòng / thành viên, đã xếp hạng). */
+    public void writeMemberEvaluation(List<MemberRow> rows, OutputStream os) throws IOException {
+        CsvWriter csv = new CsvWriter(os);
+        csv.writeRow("rank", "user_id", "member", "assigned", "completed", "overdue", "created",
+                "submissions", "approvals", "rejects", "deadline_rate", "approval_rate", "score");
+        for (MemberRow r : rows) {
+            csv.writeRow(r.getRank(), r.getUserId(), r.getMemberName(), r.getAssigned(), r.getOnTime(), r.getLate(),
+                    r.getSelfCreated(), r.getSubmissions(), r.getApprovals(), r.getRejects(),
+                    r.getDeadlineRate(), r.getApprovalRate(), r.getScore());
+        }
+        csv.flush();
+    }
+
+    // ---------------- Project log ----------------
+    /** Khoảng mặc định như ProjectLogService.getLogs; trả về [start, end] đã chuẩn hoá. */
+    public Date[] resolveLogRange(Long projectId, Date startDate, Date endDate) {
+        return projectLogService.resolveRange(projectId, startDate, endDate);
+    }
+
+    public void writeProjectLogs(Long projectId, Date startDate, Date endDate, OutputStream os) throws IOException {
+        CsvWriter csv = new CsvWriter(os);
+        csv.writeRow("id", "timestamp", "action", "description", "progress", "new_status", "performed_by",
+                "created_at");
+        csv.flush();
+
+        inReadOnlyTx(() -> {
+            try (Stream<Object[]> rows = stream(LOG_ROWS,
+                    Map.of("projectId", projectId, "startDate", startDate, "endDate", endDate))) {
+                for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                    csv.writeRow(it.next());
+                }
+            }
+        });
+        csv.flush();
+    }
+
+    // forward-only, read-only (Hibernate scroll) với fetch size của export
+    private Stream<Object[]> stream(String jpql, Map<String, Object> params) {
+        var query = entityManager.createQuery(jpql, Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        params.forEach(query::setParameter);
+        return query.getResultStream();
+    }
+
+    @FunctionalInterface
+    private interface IoWork {
+        void run() throws IOException;
+    }
+
+    // Stream của Spring Data cần transaction mở trong suốt lúc đọc (StreamingResponseBody chạy ngoài request)
+    private void inReadOnlyTx(IoWork work) throws IOException {
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try {
+                    work.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // VD: client ngắt kết nối
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.Event;
+import org.springframework.stereotype.Service;
+import personal.project.teamwork_management.event.jfr.FileTransferEvent;
+import personal.project.teamwork_management.event.jfr.PdfRenderEvent;
+import personal.project.teamwork_management.event.jfr.ProgressRecomputeEvent;
+import personal.project.teamwork_management.model.File;
+import personal.project.teamwork_management.repository.TaskRepository;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Metric nghiệp vụ (progress, notification, báo cáo, file, invite, duyệt task).
+ * Mọi metric gắn tag "projectSize" = nhóm kích thước project theo số task (small/medium/large/xlarge,
+ * "none" nếu không thuộc project) để so latency với quy mô tenant trên dashboard.
+ * Các thao tác chính còn được ghi thành event JFR (event/jfr) qua {@link #measure}.
+ */
+@Service
+public class DomainMetrics {
+
+    public static final String TAG_PROJECT_SIZE = "projectSize";
+    public static final String SIZE_NONE = "none";
+
+    // số task: < 50 small, < 500 medium, < 5000 large, còn lại xlarge
+    private static final long[] SIZE_BOUNDS = {50, 500, 5_000};
+    private static final String[] SIZE_NAMES = {"small", "medium", "large", "xlarge"};
+
+    private record CachedSize(long version, String bucket) {
+    }
+
+    /** Thao tác được đo, ném exception như code gốc. */
+    @FunctionalInterface
+    public interface Operation<T, X extends Exception> {
+        T run() throws X;
+    }
+
+    /** Điền field của event JFR từ kết quả thao tác (chỉ gọi khi event thực sự được ghi). */
+    @FunctionalInterface
+    public interface EventFiller<E extends Event, T, X extends Exception> {
+        void fill(E event, T result) throws X;
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final TaskRepository taskRepository;
+    private final ProjectDataVersionService versionService;
+
+    // chỉ đếm lại task khi version dữ liệu project đổi
+    private final Map<Long, CachedSize> sizes = new ConcurrentHashMap<>();
+
+    public DomainMetrics(MeterRegistry meterRegistry, TaskRepository taskRepository,
+                         ProjectDataVersionService versionService) {
+        this.meterRegistry = meterRegistry;
+        this.taskRepository = taskRepository;
+        this.versionService = versionService;
+    }
+
+    public static String sizeBucket(long taskCount) {
+        for (int i = 0; i < SIZE_BOUNDS.length; i++) {
+            if (taskCount < SIZE_BOUNDS[i]) return SIZE_NAMES[i];
+        }
+        return SIZE_NAMES[SIZE_NAMES.length - 1];
+    }
+
+    public String projectSize(Long projectId) {
+        if (projectId == null) {
+            return SIZE_NONE;
+        }
+        long version = versionService.getVersion(projectId);
+        CachedSize cached = sizes.get(projectId);
+        if (cached != null && cached.version() == version) {
+            return cached.bucket();
+        }
+        String bucket = sizeBucket(taskRepository.countByProjectId(projectId));
+        sizes.put(projectId, new CachedSize(version, bucket));
+        return bucket;
+    }
+
+    /** Như projectSize(projectId) nhưng số task đã có sẵn (không query). */
+    public String projectSize(Long projectId, long taskCount) {
+        String bucket = sizeBucket(taskCount);
+        if (projectId != null) {
+            sizes.put(projectId, new CachedSize(versionService.getVersion(projectId), bucket));
+        }
+        return bucket;
+    }
+
+    public Timer timer(String name, String projectSize, String... tags) {
+        return meterRegistry.timer(name, Tags.of(tags).and(TAG_PROJECT_SIZE, projectSize));
+    }
+
+    public DistributionSummary summary(String name, String baseUnit, String projectSize, String... tags) {
+        return DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tags(Tags.of(tags).and(TAG_PROJECT_SIZE, projectSize))
+                .register(meterRegistry);
+    }
+
+    public void count(String name, String projectSize, String... tags) {
+        meterRegistry.counter(name, Tags.of(tags).and(TAG_PROJECT_SIZE, projectSize)).increment();
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Chạy operation trong event JFR (begin/end) và ghi Timer do timer(kết quả) trả về (null = không ghi Timer).
+     * Field của event chỉ được điền khi event được ghi (JFR bật, vượt threshold). Operation lỗi => không ghi gì.
+     */
+    public <E extends Event, T, X extends Exception> T measure(E event, Operation<T, X> operation,
+                                                               Function<T, Timer> timer,
+                                                               EventFiller<E, T, X> filler) throws X {
+        Timer.Sample sample = start();
+        event.begin();
+        T result = operation.run();
+        if (timer != null) {
+            sample.stop(timer.apply(result));
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            filler.fill(event, result);
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * progress.recompute{scope} + progress.recompute.nodes + ProgressRecomputeEvent quanh 1 lần tính progress.
+     * taskId null: scope=project, số node = số task của project (dùng luôn làm projectSize, không query);
+     * ngược lại scope=task (cây con của taskId). computation ghi số task đã duyệt vào nodes[0].
+     */
+    public Double progressRecompute(Long projectId, Long taskId, Function<int[], Double> computation) {
+        String scope = taskId == null ? "project" : "task";
+        int[] nodes = new int[1];
+        return measure(new ProgressRecomputeEvent(), () -> computation.apply(nodes), progress -> {
+            String size = taskId == null ? projectSize(projectId, nodes[0]) : projectSize(projectId);
+            summary("progress.recompute.nodes", "tasks", size, "scope", scope).record(nodes[0]);
+            return timer("progress.recompute", size, "scope", scope);
+        }, (jfr, progress) -> {
+            jfr.projectId = projectId;
+            jfr.taskId = taskId != null ? taskId : 0;
+            jfr.scope = scope;
+            jfr.nodes = nodes[0];
+        });
+    }
+
+    /**
+     * Bước HTML -> PDF của báo cáo: report.phase{phase=convert} + PdfRenderEvent. writer trả về số byte PDF đã ghi.
+     */
+    public <X extends Exception> void pdfRender(String report, Long projectId, int rows, int chunks, long htmlChars,
+                                                Operation<Long, X> writer) throws X {
+        measure(new PdfRenderEvent(), writer, bytes -> reportPhase(report, "convert", projectId), (jfr, bytes) -> {
+            jfr.report = report;
+            jfr.projectId = projectId != null ? projectId : 0;
+            jfr.rows = rows;
+            jfr.chunks = chunks;
+            jfr.htmlChars = htmlChars;
+            jfr.bytes = bytes;
+        });
+    }
+
+    // report.phase{report, phase=model|render|convert, projectSize}
+    public Timer reportPhase(String report, String phase, Long projectId) {
+        return timer("report.phase", projectSize(projectId), "report", report, "phase", phase);
+    }
+
+    /**
+     * Bọc stream tải file: khi đóng ghi files.transfer.bytes / .duration / .throughput (byte/s)
+     * với direction=download và commit FileTransferEvent. Body trả dạng stream nên chỉ đo được lúc client đọc xong.
+     */
+    public InputStream meterDownload(InputStream in, Long fileId, Long projectId, String encoding) {
+        String size = projectSize(projectId);
+        String enc = encoding != null ? encoding : "identity";
+        long startNanos = System.nanoTime();
+        FileTransferEvent jfr = new FileTransferEvent();
+        jfr.begin();
+        return new FilterInputStream(in) {
+            private long bytes;
+            private boolean closed;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) bytes++;
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buf, int off, int len) throws IOException {
+                int n = super.read(buf, off, len);
+                if (n > 0) bytes += n;
+                return n;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (!closed) {
+                        closed = true;
+                        recordTransfer("download", size, enc, bytes, System.nanoTime() - startNanos);
+                        commit(jfr, e -> fillTransfer(e, "download", projectId, fileId, enc, bytes));
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Upload 1 file: files.transfer.* với direction=upload (tới lúc lưu xong) + FileTransferEvent.
+     * bytes: kích thước gốc của file.
+     */
+    public <X extends Exception> File meterUpload(Long projectId, long bytes, Operation<File, X> upload) throws X {
+        long startNanos = System.nanoTime();
+        FileTransferEvent jfr = new FileTransferEvent();
+        jfr.begin();
+        File saved = upload.run();
+        String enc = saved.getContentEncoding() != null ? saved.getContentEncoding() : "identity";
+        recordTransfer("upload", projectSize(projectId), enc, bytes, System.nanoTime() - startNanos);
+        commit(jfr, e -> fillTransfer(e, "upload", projectId, saved.getId(), enc, bytes));
+        return saved;
+    }
+
+    public void recordTransfer(String direction, String projectSize, String encoding, long bytes, long nanos) {
+        summary("files.transfer.bytes", "bytes", projectSize, "direction", direction, "encoding", encoding)
+                .record(bytes);
+        timer("files.transfer.duration", projectSize, "direction", direction, "encoding", encoding)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (nanos > 0) {
+            summary("files.transfer.throughput", "bytes/s", projectSize, "direction", direction, "encoding", encoding)
+                    .record(bytes * 1e9 / nanos);
+        }
+    }
+
+    private static <E extends Event> void commit(E event, Consumer<E> filler) {
+        event.end();
+        if (event.shouldCommit()) {
+            filler.accept(event);
+            event.commit();
+        }
+    }
+
+    private static void fillTransfer(FileTransferEvent jfr, String direction, Long projectId, Long fileId,
+                                     String encoding, long bytes) {
+        jfr.direction = direction;
+        jfr.projectId = projectId != null ? projectId : 0;
+        jfr.fileId = fileId != null ? fileId : 0;
+        jfr.encoding = encoding;
+        jfr.bytes = bytes;
+    }
+}
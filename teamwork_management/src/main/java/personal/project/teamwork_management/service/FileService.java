@@ -14,6 +14,8 @@ import personal.project.teamwork_management.model.TaskApprovalLog;
 import personal.project.teamwork_management.repository.FileRepository;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -21,22 +23,50 @@ import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 @Service
 public class FileService {
 
+    public static final String ENCODING_GZIP = "gzip";
+    public static final String ENCODING_DEFLATE = "deflate";
+
     @Value("${spring.file.upload-dir:/app/uploads}")
     private String uploadDir;
 
+    // Nén trong suốt các file dạng text khi lưu xuống đĩa
+    @Value("${spring.file.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${spring.file.compression.encoding:gzip}")
+    private String compressionEncoding;
+
+    @Value("${spring.file.compression.min-size:1024}")
+    private long compressionMinSize;
+
+    @Value("${spring.file.compression.types:text/*,application/json,application/xml,application/xhtml+xml,application/javascript,application/rtf,image/svg+xml,application/vnd.openxmlformats-officedocument.*}")
+    private List<String> compressibleTypes;
+
     @Autowired
     public FileRepository fileRepository;
 
+    @Autowired
+    private DomainMetrics domainMetrics;
+
     public File uploadFile(MultipartFile file, Long taskId, Long projectId, Long taskSubId) throws IOException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
         }
+        return domainMetrics.meterUpload(projectId, file.getSize(),
+                () -> storeFile(file, taskId, projectId, taskSubId));
+    }
 
+    private File storeFile(MultipartFile file, Long taskId, Long projectId, Long taskSubId) throws IOException {
         // Sanitize filename
         String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
         if (originalFilename.contains("..")) {
@@ -60,9 +90,23 @@ public class FileService {
             Files.createDirectories(uploadPath);
         }
 
-        // Save file
-        Path filePath = uploadPath.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        // Save file (nén nếu content type phù hợp, fallback lưu nguyên bản nếu nén không có lợi)
+        String encoding = shouldCompress(file) ? normalizeEncoding(compressionEncoding) : null;
+        Path filePath = uploadPath.resolve(encoding == null ? uniqueFilename : uniqueFilename + suffixOf(encoding));
+        if (encoding != null) {
+            try (InputStream in = file.getInputStream();
+                 OutputStream out = encode(Files.newOutputStream(filePath), encoding)) {
+                in.transferTo(out);
+            }
+            if (Files.size(filePath) >= file.getSize()) {
+                Files.delete(filePath);
+                encoding = null;
+                filePath = uploadPath.resolve(uniqueFilename);
+            }
+        }
+        if (encoding == null) {
+            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        }
 
         // Create File entity
         File uploadedFile = new File();
@@ -70,6 +114,8 @@ public class FileService {
         uploadedFile.setType(file.getContentType());
         uploadedFile.setPath(filePath.toString());
         uploadedFile.setSize(file.getSize());
+        uploadedFile.setContentEncoding(encoding);
+        uploadedFile.setStoredSize(Files.size(filePath));
         
         // Set relationships
         if (taskId != null) {
@@ -94,13 +140,133 @@ public class FileService {
     public byte[] downloadFile(Long fileId) throws IOException {
         File file = fileRepository.findById(fileId)
                 .orElseThrow(() -> new RuntimeException("File not found with id: " + fileId));
-        
+
+        try (InputStream in = openDecodedStream(file)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Mở stream đúng byte đang lưu trên đĩa (có thể đã nén theo file.getContentEncoding()).
+     */
+    public InputStream openStoredStream(File file) throws IOException {
         Path filePath = Paths.get(file.getPath());
         if (!Files.exists(filePath)) {
             throw new RuntimeException("Physical file not found: " + file.getPath());
         }
-        
-        return Files.readAllBytes(filePath);
+        return Files.newInputStream(filePath);
+    }
+
+    /**
+     * Stream trả cho client: byte đang lưu (sendEncoded hoặc file không nén) hoặc nội dung đã giải nén.
+     * Đo số byte/throughput (files.transfer.*, direction=download) khi stream được đóng.
+     */
+    public InputStream openDownloadStream(File file, boolean sendEncoded) throws IOException {
+        boolean stored = sendEncoded || file.getContentEncoding() == null;
+        InputStream in = stored ? openStoredStream(file) : openDecodedStream(file);
+        return domainMetrics.meterDownload(in, file.getId(), projectIdOf(file), stored ? file.getContentEncoding() : null);
+    }
+
+    /**
+     * Mở stream nội dung gốc, giải nén dần khi đọc nếu file được lưu dạng nén.
+     */
+    public InputStream openDecodedStream(File file) throws IOException {
+        InputStream raw = openStoredStream(file);
+        String encoding = file.getContentEncoding();
+        if (encoding == null) {
+            return raw;
+        }
+        return switch (encoding) {
+            case ENCODING_GZIP -> new GZIPInputStream(raw);
+            case ENCODING_DEFLATE -> new InflaterInputStream(raw);
+            default -> {
+                raw.close();
+                throw new IOException("Unsupported content encoding: " + encoding);
+            }
+        };
+    }
+
+    /**
+     * Kiểm tra header Accept-Encoding của client có chấp nhận encoding đã lưu hay không (q=0 là từ chối).
+     * q của encoding ghi rõ được ưu tiên hơn "*": "gzip;q=0, *" không nhận gzip.
+     */
+    public boolean clientAccepts(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null || encoding == null) {
+            return false;
+        }
+        Double explicitQ = null;
+        Double wildcardQ = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            boolean explicit = coding.equals(encoding);
+            if (!explicit && !coding.equals("*")) {
+                continue;
+            }
+            double q = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException ignored) {
+                        q = 0;
+                    }
+                }
+            }
+            if (explicit) {
+                explicitQ = q;
+            } else {
+                wildcardQ = q;
+            }
+        }
+        Double q = explicitQ != null ? explicitQ : wildcardQ;
+        return q != null && q > 0;
+    }
+
+    private boolean shouldCompress(MultipartFile file) {
+        if (!compressionEnabled || file.getSize() < compressionMinSize) {
+            return false;
+        }
+        String contentType = file.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        for (String pattern : compressibleTypes) {
+            String p = pattern.trim().toLowerCase(Locale.ROOT);
+            // "text/*", "application/vnd.openxmlformats-officedocument.*": so khớp tiền tố
+            if (p.endsWith("*") ? type.startsWith(p.substring(0, p.length() - 1)) : type.equals(p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalizeEncoding(String encoding) {
+        String e = encoding == null ? ENCODING_GZIP : encoding.trim().toLowerCase(Locale.ROOT);
+        if (!ENCODING_GZIP.equals(e) && !ENCODING_DEFLATE.equals(e)) {
+            throw new IllegalStateException("Unsupported spring.file.compression.encoding: " + encoding);
+        }
+        return e;
+    }
+
+    private static String suffixOf(String encoding) {
+        return ENCODING_GZIP.equals(encoding) ? ".gz" : ".zz";
+    }
+
+    private static OutputStream encode(OutputStream out, String encoding) throws IOException {
+        return ENCODING_GZIP.equals(encoding) ? new GZIPOutputStream(out, 8192) : new DeflaterOutputStream(out);
+    }
+
+    private static Long projectIdOf(File file) {
+        if (file.getProject() != null) {
+            return file.getProject().getId();
+        }
+        if (file.getTask() != null && file.getTask().getProject() != null) {
+            return file.getTask().getProject().getId();
+        }
+        return null;
     }
 
     public File getFileById(Long fileId) {
@@ -1,41 +1,205 @@
 package personal.project.teamwork_management.service;
 
+import com.openhtmltopdf.extend.FSCacheEx;
+import com.openhtmltopdf.extend.FSCacheValue;
+import com.openhtmltopdf.extend.impl.FSDefaultCacheStore;
 import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
 import org.jsoup.helper.W3CDom;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.DocumentType;
 import org.jsoup.nodes.Entities;
 import org.jsoup.parser.Parser;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+@Slf4j
 @Service
 public class HtmlToPdfService {
 
+    private static final String XHTML_NS = "http://www.w3.org/1999/xhtml";
+
+    // Font Unicode (nếu có trong resources/fonts): đọc 1 lần, giữ bytes trong bộ nhớ
+    private static final List<FontSpec> FONTS = List.of(
+            new FontSpec("/fonts/NotoSans-Regular.ttf", "NotoSans", 400),
+            new FontSpec("/fonts/NotoSans-Bold.ttf", "NotoSans", 700)
+    );
+
+    private final List<LoadedFont> fonts = loadFonts();
+
+    // Font metrics dùng chung giữa các lần render (FSDefaultCacheStore thread-safe)
+    private final FSCacheEx<String, FSCacheValue> fontMetricsCache = new FSDefaultCacheStore();
+
+    // Chỉ bật khi cần chẩn đoán lỗi HTML: ghi _debug-latest.html cạnh file PDF
+    @Value("${spring.report.pdf.debug-html:false}")
+    private boolean debugHtml;
+
+    // Pool render các phần của writePdfChunked; không có bean (VD: benchmark) thì render tuần tự
+    private Executor chunkExecutor = Runnable::run;
+
+    @Autowired(required = false)
+    void setChunkExecutor(@Qualifier("reportPdfExecutor") Executor chunkExecutor) {
+        this.chunkExecutor = chunkExecutor;
+    }
+
     public void writePdf(String html, Path out) throws Exception {
         if (html == null || html.isBlank()) {
             throw new IllegalArgumentException("HTML is empty.");
         }
-
         Files.createDirectories(out.getParent());
 
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(out,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))) {
+            writePdf(html, os, debugHtml ? out.getParent().resolve("_debug-latest.html") : null);
+        }
+    }
+
+    /**
+     * Render HTML (output của Thymeleaf) thẳng vào stream đích, không ghi file trung gian.
+     */
+    public void writePdf(String html, OutputStream os) throws Exception {
+        writePdf(html, os, null);
+    }
+
+    /**
+     * Render nhiều phần HTML (VD: bảng task chia đoạn) song song, mỗi phần ra 1 file PDF tạm,
+     * ghép bằng PDFBox rồi đánh số trang liên tục "n / tổng" ở chân trang.
+     * openhtmltopdf chỉ phải dàn trang từng phần nhỏ; PDFBox ghép/đánh số qua file tạm nên heap không tăng theo số trang.
+     * Các phần không được tự in số trang (counter(page) sẽ bắt đầu lại từ 1 mỗi phần).
+     */
+    public void writePdfChunked(List<String> htmlParts, OutputStream os) throws Exception {
+        if (htmlParts == null || htmlParts.isEmpty()) {
+            throw new IllegalArgumentException("HTML is empty.");
+        }
+        Path dir = Files.createTempDirectory("pdf-chunks");
+        try {
+            List<CompletableFuture<Path>> futures = new ArrayList<>(htmlParts.size());
+            for (int i = 0; i < htmlParts.size(); i++) {
+                String html = htmlParts.get(i);
+                Path part = dir.resolve("part-" + i + ".pdf");
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+                        writePdf(html, out, null);
+                        return part;
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, chunkExecutor));
+            }
+
+            PDFMergerUtility merger = new PDFMergerUtility();
+            try {
+                for (CompletableFuture<Path> f : futures) {
+                    merger.addSource(f.join().toFile()); // giữ đúng thứ tự các phần
+                }
+            } catch (CompletionException e) {
+                futures.forEach(f -> f.cancel(true));
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+            Path merged = dir.resolve("merged.pdf");
+            merger.setDestinationFileName(merged.toString());
+            merger.mergeDocuments(MemoryUsageSetting.setupTempFileOnly());
+
+            try (PDDocument doc = PDDocument.load(merged.toFile(), MemoryUsageSetting.setupTempFileOnly())) {
+                stampPageNumbers(doc);
+                doc.save(os);
+            }
+        } finally {
+            try (var files = Files.list(dir)) {
+                files.forEach(p -> p.toFile().delete());
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    // "n / tổng" giữa chân trang, cùng vị trí với @bottom-center trong template
+    private static void stampPageNumbers(PDDocument doc) throws IOException {
+        int total = doc.getNumberOfPages();
+        float fontSize = 9f;
+        int n = 0;
+        for (PDPage page : doc.getPages()) {
+            String text = ++n + " / " + total;
+            PDRectangle box = page.getMediaBox();
+            float width = PDType1Font.HELVETICA.getStringWidth(text) / 1000 * fontSize;
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page,
+                    PDPageContentStream.AppendMode.APPEND, true, true)) {
+                cs.beginText();
+                cs.setFont(PDType1Font.HELVETICA, fontSize);
+                cs.newLineAtOffset(box.getLowerLeftX() + (box.getWidth() - width) / 2, box.getLowerLeftY() + 24);
+                cs.showText(text);
+                cs.endText();
+            }
+        }
+    }
+
+    private void writePdf(String html, OutputStream os, Path debugFile) throws Exception {
+        if (html == null || html.isBlank()) {
+            throw new IllegalArgumentException("HTML is empty.");
+        }
+
+        Document doc = toXhtml(html);
+
+        // Ghi file debug (hữu ích khi lỗi HTML) - chỉ khi bật spring.report.pdf.debug-html
+        if (debugFile != null) {
+            Files.writeString(debugFile, doc.outerHtml(),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        // Render PDF
+        org.w3c.dom.Document w3cDoc = new W3CDom().fromJsoup(doc);
+
+        PdfRendererBuilder builder = new PdfRendererBuilder();
+        builder.useFastMode();
+        builder.useCacheStore(PdfRendererBuilder.CacheStore.PDF_FONT_METRICS, fontMetricsCache);
+
+        // Nếu có ảnh/CSS tương đối, truyền baseUri (ví dụ: "file:/absolute/path/to/assets/")
+        String baseUri = null;
+        builder.withW3cDocument(w3cDoc, baseUri);
+
+        for (LoadedFont f : fonts) {
+            builder.useFont(() -> new ByteArrayInputStream(f.data()), f.spec().family(), f.spec().weight(),
+                    PdfRendererBuilder.FontStyle.NORMAL, true);
+        }
+
+        builder.toStream(os);
+        builder.run();
+    }
+
+    private static Document toXhtml(String html) {
         // 1) Loại BOM + trim
         html = stripBom(html).strip();
 
-        // 2) Parse bằng XML parser (ép well-formed)
+        // 2) Parse bằng XML parser (ép well-formed), không pretty-print
         Document doc = Jsoup.parse(html, "", Parser.xmlParser());
         doc.outputSettings()
                 .syntax(Document.OutputSettings.Syntax.xml)
                 .escapeMode(Entities.EscapeMode.xhtml)
                 .charset("UTF-8")
-                .prettyPrint(true);
+                .prettyPrint(false);
 
         // 3) Bỏ DOCTYPE an toàn (không dùng removeIf vì list có thể unmodifiable)
         for (org.jsoup.nodes.Node n : new ArrayList<>(doc.childNodes())) {
@@ -48,52 +212,40 @@ public class HtmlToPdfService {
         if (doc.selectFirst("html") == null) {
             String body = doc.body() != null ? doc.body().html() : doc.html();
             doc = Jsoup.parse(
-                    "<html xmlns=\"http://www.w3.org/1999/xhtml\">" +
+                    "<html xmlns=\"" + XHTML_NS + "\">" +
                             "<head><meta charset=\"UTF-8\"/></head><body>" +
                             body +
                             "</body></html>", "", Parser.xmlParser());
         } else {
-            doc.selectFirst("html").attr("xmlns", "http://www.w3.org/1999/xhtml");
+            doc.selectFirst("html").attr("xmlns", XHTML_NS);
         }
 
         // 5) Meta charset
         if (doc.selectFirst("meta[charset]") == null) {
             doc.head().prependElement("meta").attr("charset", "UTF-8");
         }
+        return doc;
+    }
 
-        // 6) Ghi file debug (hữu ích khi lỗi HTML)
-        Path debugHtml = out.getParent().resolve("_debug-latest.html");
-        Files.writeString(debugHtml, doc.outerHtml(),
-                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-
-        // 7) Render PDF
-        org.w3c.dom.Document w3cDoc = new W3CDom().fromJsoup(doc);
-
-        try (OutputStream os = Files.newOutputStream(out,
-                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
-
-            PdfRendererBuilder builder = new PdfRendererBuilder();
-            builder.useFastMode();
-
-            // Nếu có ảnh/CSS tương đối, truyền baseUri (ví dụ: "file:/absolute/path/to/assets/")
-            String baseUri = null;
-            builder.withW3cDocument(w3cDoc, baseUri);
-
-            // Đăng ký font Unicode (nếu có trong resources/fonts)
-            registerFontIfPresent(builder, "/fonts/NotoSans-Regular.ttf", "NotoSans", 400);
-            registerFontIfPresent(builder, "/fonts/NotoSans-Bold.ttf", "NotoSans", 700);
-
-            builder.toStream(os);
-            builder.run();
+    private static List<LoadedFont> loadFonts() {
+        List<LoadedFont> loaded = new ArrayList<>();
+        for (FontSpec spec : FONTS) {
+            try (InputStream in = HtmlToPdfService.class.getResourceAsStream(spec.classpath())) {
+                if (in != null) {
+                    loaded.add(new LoadedFont(spec, in.readAllBytes()));
+                }
+                // nếu null thì bỏ qua, tránh NPE
+            } catch (IOException e) {
+                log.warn("Cannot load font {}: {}", spec.classpath(), e.getMessage());
+            }
         }
+        return List.copyOf(loaded);
     }
 
-    private void registerFontIfPresent(PdfRendererBuilder builder, String classpathTtf, String family, int weight) {
-        InputStream in = getClass().getResourceAsStream(classpathTtf);
-        if (in != null) {
-            builder.useFont(() -> getClass().getResourceAsStream(classpathTtf), family, weight, PdfRendererBuilder.FontStyle.NORMAL, true);
-        }
-        // nếu null thì bỏ qua, tránh NPE
+    private record FontSpec(String classpath, String family, int weight) {
+    }
+
+    private record LoadedFont(FontSpec spec, byte[] data) {
     }
 
     private static String stripBom(String s) {
@@ -20,6 +20,8 @@ public class InviteService {
     @Autowired private ProjectMemberRepository projectMemberRepo;
     @Autowired
     private UserService userService;
+    @Autowired
+    private DomainMetrics domainMetrics;
 
     public InviteCodeDTO createInviteCode(Long projectId) {
         Project project = projectRepo.findById(projectId)
@@ -61,6 +63,8 @@ public class InviteService {
 
         // Only check if expired, remove the used check
         if (invite.getExpiresAt().before(new Date())) {
+            domainMetrics.count("invites.redemptions", domainMetrics.projectSize(invite.getProject().getId()),
+                    "outcome", "expired");
             throw new RuntimeException("Mã mời đã hết hạn");
         }
 
@@ -75,10 +79,14 @@ public class InviteService {
 
         projectMemberRepo.findByProjectIdAndUserId(project.getId(), user.getId())
                 .ifPresent(existingMember -> {
+                    domainMetrics.count("invites.redemptions", domainMetrics.projectSize(project.getId()),
+                            "outcome", "already_member");
                     throw new RuntimeException("Bạn đã là thành viên của dự án này");
                 });
 
         projectMemberRepo.save(member);
+        // invites.redemptions{outcome=joined|expired|already_member, projectSize}
+        domainMetrics.count("invites.redemptions", domainMetrics.projectSize(project.getId()), "outcome", "joined");
 
         ProjectDto projectDto = new ProjectDto();
         try {
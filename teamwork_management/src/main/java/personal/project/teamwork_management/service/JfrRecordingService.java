@@ -0,0 +1,110 @@
+package personal.project.teamwork_management.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Recording JFR chạy liên tục (ring buffer trên đĩa, giữ spring.jfr.max-age-minutes) gồm các event
+ * teamwork.* (event/jfr) và cấu hình JDK spring.jfr.settings. dump(N) ghi ra file .jfr chỉ gồm N phút gần nhất.
+ */
+@Slf4j
+@Service
+public class JfrRecordingService {
+
+    static final String RECORDING_NAME = "teamwork-continuous";
+
+    // Biến môi trường / system property / tham số JVM / command line tiến trình chứa secret (DB, JWT, OAuth, mail):
+    // không ghi vào recording (file dump được tải qua /actuator/jfr)
+    static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.JVMInformation",
+            "jdk.SystemProcess");
+
+    @Value("${spring.jfr.enabled:true}")
+    private boolean enabled = true;
+
+    // "default" (~1% overhead) hoặc "profile"
+    @Value("${spring.jfr.settings:default}")
+    private String settings = "default";
+
+    @Value("${spring.jfr.max-age-minutes:30}")
+    private int maxAgeMinutes = 30;
+
+    private Recording recording;
+
+    @PostConstruct
+    public synchronized void start() {
+        if (!enabled || recording != null) {
+            return;
+        }
+        try {
+            Recording r = new Recording(Configuration.getConfiguration(settings));
+            r.setName(RECORDING_NAME);
+            SENSITIVE_EVENTS.forEach(r::disable);
+            r.setToDisk(true);
+            r.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+            r.start();
+            recording = r;
+            log.info("JFR recording '{}' started (settings={}, max age {} min)", RECORDING_NAME, settings, maxAgeMinutes);
+        } catch (Exception e) {
+            // JVM không hỗ trợ JFR hoặc settings sai: app vẫn chạy, chỉ không dump được
+            log.warn("Cannot start JFR recording: {}", e.getMessage());
+        }
+    }
+
+    public synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    public int getMaxAgeMinutes() {
+        return maxAgeMinutes;
+    }
+
+    /**
+     * Ghi N phút gần nhất (1..max-age) của recording ra file tạm. Người gọi chịu trách nhiệm xoá file.
+     */
+    public synchronized Path dump(int minutes) throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("JFR recording is not running (spring.jfr.enabled=false or unsupported JVM)");
+        }
+        int window = Math.max(1, Math.min(minutes, maxAgeMinutes));
+        Path out = Files.createTempFile("teamwork-", ".jfr");
+        try {
+            // JFR.dump của jcmd hỗ trợ begin tương đối (JDK 17+); Recording API không cắt theo thời gian
+            ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                    "jfrDump",
+                    new Object[]{new String[]{
+                            "name=" + RECORDING_NAME,
+                            "filename=" + out.toAbsolutePath(),
+                            "begin=-" + window + "m"}},
+                    new String[]{String[].class.getName()});
+        } catch (Exception e) {
+            log.warn("JFR.dump with time window failed ({}), dumping whole recording", e.getMessage());
+            recording.dump(out);
+        }
+        return out;
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
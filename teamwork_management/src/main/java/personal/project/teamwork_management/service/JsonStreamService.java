@@ -0,0 +1,202 @@
+package personal.project.teamwork_management.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import personal.project.teamwork_management.dto.ProjectDto;
+import personal.project.teamwork_management.dto.TaskDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * JSON cho danh sách task lớn (?stream=true): đọc DB bằng Stream forward-only với fetch size của export
+ * (spring.export.fetch-size, như CsvExportService),
+ * ghi từng TaskDto qua JsonGenerator ra OutputStream của response. Bộ nhớ không tăng theo số task,
+ * byte đầu tiên tới client trước khi đọc xong DB. Cùng ObjectMapper với response thường nên cùng định dạng.
+ * Kiểm tra quyền / cập nhật OVERDUE trên thread của request trước khi bắt đầu stream.
+ * Mỗi stream giữ transaction read-only và kết nối DB tới khi client nhận hết (open-in-view cũng gắn kết nối
+ * của request vào thread stream), nên số stream đồng thời bị giới hạn ({@link #acquireStream}) và stream quá
+ * max-duration-seconds (client đọc chậm) bị cắt để trả kết nối về pool.
+ */
+@Service
+public class JsonStreamService {
+
+    // flush định kỳ để client nhận dần (buffer của JsonGenerator ~8KB vẫn tự ghi khi đầy)
+    private static final int FLUSH_EVERY = 500;
+
+    // Như TaskRepository.findAllTasksDtoBy... nhưng sắp theo id; DTO (không phải entity) nên persistence context
+    // không lớn dần theo số task
+    private static final String TASK_ROWS = "SELECT new personal.project.teamwork_management.dto.TaskDto(" +
+            "t.id, t.title, t.description, t.priority, t.level, t.createdBy.id, t.parent.id, " +
+            "t.progress, p.id, t.status, t.deadline) FROM Task t JOIN t.project p ";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter taskWriter;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTx;
+    private final AtomicInteger activeStreams = new AtomicInteger();
+
+    // nhỏ hơn hẳn pool kết nối để request thường vẫn có kết nối
+    @Value("${spring.json-stream.max-concurrent:4}")
+    private int maxConcurrent = 4;
+
+    @Value("${spring.json-stream.max-duration-seconds:120}")
+    private long maxDurationSeconds = 120;
+
+    // MySQL: Integer.MIN_VALUE = Connector/J đọc từng dòng (không có useCursorFetch thì fetch size dương bị bỏ qua
+    // và driver nạp hết kết quả vào bộ nhớ); DB khác: số dòng mỗi lần fetch
+    @Value("${spring.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    public JsonStreamService(ObjectMapper objectMapper,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        // mặc định ObjectWriter flush sau mỗi writeValue => mỗi task 1 lần ghi socket
+        this.taskWriter = objectMapper.writerFor(TaskDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.entityManager = entityManager;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Giữ 1 suất stream, gọi trên thread của request trước khi trả StreamingResponseBody; hết suất => 503.
+     * writeTasks / writeProject trả lại suất khi ghi xong (kể cả lỗi).
+     */
+    public void acquireStream() {
+        if (activeStreams.incrementAndGet() > maxConcurrent) {
+            activeStreams.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many streams in progress, try again later");
+        }
+    }
+
+    /** Mảng task như GET /api/tasks?projectId=&userId= (ít nhất 1 tham số khác null). */
+    public void writeTasks(Long projectId, Long userId, OutputStream os) throws IOException {
+        try (JsonGenerator gen = createGenerator(os)) {
+            writeTaskArray(gen, () -> taskStream(projectId, userId));
+        } finally {
+            activeStreams.decrementAndGet();
+        }
+    }
+
+    /**
+     * ProjectDto như GET /api/projects/{id}: các field của project (tasks == null, ghi bằng ObjectMapper),
+     * rồi "tasks" stream từ DB.
+     */
+    public void writeProject(ProjectDto project, OutputStream os) throws IOException {
+        ObjectNode head = objectMapper.valueToTree(project);
+        head.remove("tasks");
+        try (JsonGenerator gen = createGenerator(os)) {
+            gen.writeStartObject();
+            for (Iterator<Map.Entry<String, JsonNode>> it = head.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                gen.writeFieldName(field.getKey());
+                gen.writeTree(field.getValue());
+            }
+            gen.writeFieldName("tasks");
+            writeTaskArray(gen, () -> taskQuery(project.getId(), null).getResultStream());
+            gen.writeEndObject();
+        } finally {
+            activeStreams.decrementAndGet();
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream os) throws IOException {
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(os);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET); // output stream của response do Spring đóng
+        return gen;
+    }
+
+    private Stream<TaskDto> taskStream(Long projectId, Long userId) {
+        return taskQuery(projectId, userId).getResultStream();
+    }
+
+    // forward-only, read-only (Hibernate scroll) với fetch size của export; projectId / userId null thì bỏ điều kiện đó
+    TypedQuery<TaskDto> taskQuery(Long projectId, Long userId) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder jpql = new StringBuilder(TASK_ROWS);
+        if (userId != null) {
+            jpql.append("JOIN t.assignedUsers u ");
+        }
+        jpql.append("WHERE ");
+        if (projectId != null) {
+            jpql.append("p.id = :projectId");
+            params.put("projectId", projectId);
+        }
+        if (userId != null) {
+            jpql.append(projectId != null ? " AND " : "").append("u.id = :userId");
+            params.put("userId", userId);
+        }
+        jpql.append(" ORDER BY t.id");
+
+        TypedQuery<TaskDto> query = entityManager.createQuery(jpql.toString(), TaskDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    private void writeTaskArray(JsonGenerator gen, Supplier<Stream<TaskDto>> tasks) throws IOException {
+        gen.writeStartArray();
+        gen.flush(); // byte đầu tiên tới client ngay
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxDurationSeconds);
+        inReadOnlyTx(() -> {
+            try (Stream<TaskDto> rows = tasks.get()) {
+                int n = 0;
+                for (Iterator<TaskDto> it = rows.iterator(); it.hasNext(); ) {
+                    taskWriter.writeValue(gen, it.next());
+                    if (++n % FLUSH_EVERY == 0) {
+                        gen.flush();
+                        // 1 lần ghi bị client treo hẳn thì do timeout ghi socket của server cắt
+                        if (System.nanoTime() > deadline) {
+                            throw new IOException("JSON stream exceeded " + maxDurationSeconds + "s after " + n + " tasks");
+                        }
+                    }
+                }
+            }
+        });
+        gen.writeEndArray();
+        gen.flush();
+    }
+
+    @FunctionalInterface
+    private interface IoWork {
+        void run() throws IOException;
+    }
+
+    // Stream của Spring Data cần transaction mở trong suốt lúc đọc (StreamingResponseBody chạy ngoài request)
+    private void inReadOnlyTx(IoWork work) throws IOException {
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try {
+                    work.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // VD: client ngắt kết nối
+        }
+    }
+}
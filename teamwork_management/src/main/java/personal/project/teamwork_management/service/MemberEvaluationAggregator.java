@@ -0,0 +1,152 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import personal.project.teamwork_management.dto.MemberApprovalStatsDto;
+import personal.project.teamwork_management.dto.MemberPerformanceTotalsDto;
+import personal.project.teamwork_management.dto.MemberTaskStatsDto;
+import personal.project.teamwork_management.model.ApprovalAction;
+import personal.project.teamwork_management.model.Status;
+import personal.project.teamwork_management.model.User;
+import personal.project.teamwork_management.repository.ProjectMemberRepository;
+import personal.project.teamwork_management.repository.TaskApprovalRepository;
+import personal.project.teamwork_management.repository.TaskRepository;
+import personal.project.teamwork_management.service.MemberEvaluationReportService.MemberRow;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Tính chỉ số đánh giá thành viên bằng vài query GROUP BY cho cả project
+ * (thay cho vòng lặp members × tasks + 3 query count mỗi member).
+ * Trả về các dòng chưa xếp hạng, theo thứ tự thành viên trong project.
+ * Với khoảng ngày đã có trong member_performance_snapshot thì cộng các bucket ngày thay vì quét bảng gốc.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberEvaluationAggregator {
+
+    private final TaskRepository taskRepository;
+    private final TaskApprovalRepository taskApprovalRepository;
+    private final ProjectMemberRepository projectMemberRepository;
+    private final MemberPerformanceSnapshotService snapshotService;
+    private final MeterRegistry meterRegistry;
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
+
+    /**
+     * Số liệu các task có deadline / log duyệt trong [from 00:00, to 23:59:59.999].
+     * allowSnapshots = false khi vừa có dữ liệu ghi chưa commit (VD: vừa chuyển OVERDUE) -> đọc bảng gốc.
+     */
+    @Transactional(readOnly = true)
+    public List<MemberRow> aggregate(Long projectId, LocalDate from, LocalDate to, boolean allowSnapshots) {
+        if (allowSnapshots && snapshotService.isFresh(projectId, from, to)) {
+            meterRegistry.counter("report.snapshots.reads", "result", "hit").increment();
+            return buildRows(projectId, snapshotService.sumByUser(projectId, from, to));
+        }
+        meterRegistry.counter("report.snapshots.reads", "result", "miss").increment();
+        Date fromDate = Date.from(from.atStartOfDay(ZONE).toInstant());
+        Date toDate = Date.from(to.plusDays(1).atStartOfDay(ZONE).minusNanos(1).toInstant());
+        return aggregate(projectId, fromDate, toDate);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MemberRow> aggregate(Long projectId, Date from, Date to) {
+        // 1) assigned / completed / overdue theo task_user
+        Map<Long, MemberTaskStatsDto> taskStats = new HashMap<>();
+        for (MemberTaskStatsDto s : taskRepository.aggregateAssigneeStats(projectId, from, to,
+                Status.COMPLETED, Status.OVERDUE)) {
+            taskStats.put(s.getUserId(), s);
+        }
+
+        // 2) task tự tạo trong kỳ
+        Map<Long, Long> created = new HashMap<>();
+        for (Object[] r : taskRepository.countCreatedByUser(projectId, from, to)) {
+            created.put((Long) r[0], (Long) r[1]);
+        }
+
+        // 3) submissions / approvals / rejects theo task_approval_logs
+        Map<Long, MemberApprovalStatsDto> approvalStats = new HashMap<>();
+        for (MemberApprovalStatsDto s : taskApprovalRepository.aggregateByUser(projectId, from, to,
+                ApprovalAction.APPROVE, ApprovalAction.REJECT)) {
+            approvalStats.put(s.getUserId(), s);
+        }
+
+        Set<Long> userIds = new HashSet<>(taskStats.keySet());
+        userIds.addAll(created.keySet());
+        userIds.addAll(approvalStats.keySet());
+        Map<Long, MemberPerformanceTotalsDto> totals = new HashMap<>();
+        for (Long userId : userIds) {
+            MemberTaskStatsDto ts = taskStats.get(userId);
+            MemberApprovalStatsDto as = approvalStats.get(userId);
+            totals.put(userId, new MemberPerformanceTotalsDto(userId,
+                    ts != null ? ts.getAssigned() : 0L,
+                    ts != null ? ts.getCompleted() : 0L,   // COMPLETED
+                    ts != null ? ts.getOverdue() : 0L,     // OVERDUE
+                    created.getOrDefault(userId, 0L),
+                    as != null ? as.getSubmissions() : 0L,
+                    as != null ? as.getApprovals() : 0L,
+                    as != null ? as.getRejects() : 0L));
+        }
+        return buildRows(projectId, totals);
+    }
+
+    private List<MemberRow> buildRows(Long projectId, Map<Long, MemberPerformanceTotalsDto> totals) {
+        // Thành viên project (bỏ trùng, giữ thứ tự)
+        Map<Long, User> members = new LinkedHashMap<>();
+        for (User u : projectMemberRepository.findUsersByProjectId(projectId)) {
+            members.putIfAbsent(u.getId(), u);
+        }
+
+        List<MemberRow> rows = new ArrayList<>(members.size());
+        for (User u : members.values()) {
+            MemberPerformanceTotalsDto t = totals.get(u.getId());
+
+            long assigned = t != null ? t.getAssigned() : 0;
+            long onTime = t != null ? t.getCompleted() : 0;
+            long late = t != null ? t.getOverdue() : 0;
+            long selfCreated = t != null ? t.getCreated() : 0;
+            long submissions = t != null ? t.getSubmissions() : 0;
+            long approvals = t != null ? t.getApprovals() : 0;
+            long rejects = t != null ? t.getRejects() : 0;
+
+            double deadlineRate = assigned > 0 ? (double) onTime / assigned : 0.0;
+            double approvalRate = submissions > 0 ? (double) approvals / submissions : 0.0;
+
+            rows.add(MemberRow.builder()
+                    .userId(u.getId())
+                    .memberName(fullNameOrEmail(u))
+                    .assigned(assigned)
+                    .onTime(onTime)
+                    .late(late)
+                    .selfCreated(selfCreated)
+                    .submissions(submissions)
+                    .approvals(approvals)
+                    .rejects(rejects)
+                    .deadlineRate(Math.round(deadlineRate * 100))
+                    .approvalRate(Math.round(approvalRate * 100))
+                    .score(Math.round(score(deadlineRate, approvalRate, selfCreated)))
+                    .build());
+        }
+        return rows;
+    }
+
+    // Tính điểm (có thể điều chỉnh trọng số theo ý bạn)
+    static double score(double deadlineRate, double approvalRate, long selfCreated) {
+        // 50% deadline, 40% approval, 10% bonus theo số task tự tạo (log để tránh lệch)
+        double base = 0.5 * deadlineRate + 0.4 * approvalRate; // cả hai là [0..1]
+        double bonus = Math.log1p(selfCreated) / Math.log(2) * 0.1; // 0.. ~
+        double s = (base + bonus) * 100.0;
+        return Math.min(100.0, s);
+    }
+
+    static String fullNameOrEmail(User u) {
+        String fn = u.getFirstName() == null ? "" : u.getFirstName();
+        String ln = u.getLastName() == null ? "" : u.getLastName();
+        String name = (fn + " " + ln).trim();
+        return !name.isBlank() ? name : (u.getEmail() == null ? "" : u.getEmail());
+    }
+}
@@ -1,143 +1,72 @@
 package personal.project.teamwork_management.service;
 
+import io.micrometer.core.instrument.Timer;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import personal.project.teamwork_management.dto.TaskDto;
-import personal.project.teamwork_management.model.ProjectMember;
-import personal.project.teamwork_management.model.Status;
-import personal.project.teamwork_management.model.Task;
-import personal.project.teamwork_management.model.User;
+import org.springframework.web.server.ResponseStatusException;
 import personal.project.teamwork_management.dto.ProjectDto;
-import personal.project.teamwork_management.repository.ProjectMemberRepository;
-import personal.project.teamwork_management.repository.TaskRepository;
+import personal.project.teamwork_management.model.Role;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.*;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MemberEvaluationReportService {
 
     private final ProjectService projectService;
-    private final UserService userService;
-    private final TaskService taskService;                // nếu cần tái sử dụng
-    private final TaskApprovalService taskApprovalService;
+    private final TaskService taskService;                // cập nhật OVERDUE + notification
+    private final MemberEvaluationAggregator aggregator;  // GROUP BY số liệu per user
 
     private final HtmlReportRenderer htmlRenderer;        // đã có
     private final HtmlToPdfService htmlToPdfService;      // đã có
     private final HtmlToExcelService htmlToExcelService;  // đã có
+    private final ReportCacheService reportCache;
+    private final XlsxReportWriter xlsxWriter;
+    private final ReportModelLoader modelLoader;          // model trong transaction ngắn, render sau commit
+    private final DomainMetrics domainMetrics;
 
-    private final ProjectMemberRepository projectMemberRepository;
-    private final TaskRepository taskRepository;          // nếu cần tái sử dụng
-
+    private static final String REPORT = "member-eval"; // tag report của report.phase
     private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
     private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
 
-    /**
-     * Repository NOTE:
-     * Nên tạo thêm 1 method trong TaskRepository để tránh Lazy (fetch assignedUsers):
-     *
-     * @EntityGraph(attributePaths = {"assignedUsers","createdBy","project"})
-     * List<Task> findByProjectIdAndDeadlineBetween(Long projectId, Date from, Date to);
-     *
-     * hoặc JPQL với JOIN FETCH assignedUsers.
-     */
-
+    private static final List<XlsxReportWriter.Column<MemberRow>> EXCEL_COLUMNS = List.of(
+            new XlsxReportWriter.Column<>("Rank", MemberRow::getRank),
+            new XlsxReportWriter.Column<>("Member", MemberRow::getMemberName),
+            new XlsxReportWriter.Column<>("Assigned Tasks count", MemberRow::getAssignedTasks),
+            new XlsxReportWriter.Column<>("Completed Tasks count", MemberRow::getOnTimeTasks),
+            new XlsxReportWriter.Column<>("Overdue Tasks count", MemberRow::getLateTasks),
+            new XlsxReportWriter.Column<>("Created Tasks count", MemberRow::getSelfCreatedTasks),
+            new XlsxReportWriter.Column<>("Submissions count", MemberRow::getSubmissions),
+            new XlsxReportWriter.Column<>("Approved", MemberRow::getApprovals),
+            new XlsxReportWriter.Column<>("Rejected", MemberRow::getRejects),
+            new XlsxReportWriter.Column<>("Total point", MemberRow::getTotalScore)
+    );
+
+    // true: model -> SXSSF trực tiếp; false: đi đường HTML -> Excel cũ
+    @Value("${spring.report.excel.streaming:true}")
+    private boolean streamingExcel;
 
     public Map<String, Object> buildModel(Long projectId, LocalDate from, LocalDate to) throws Exception {
-        // Quyền: chỉ cần xem dự án? Tuỳ bạn, mình tái sử dụng như báo cáo trước.
-        var role = projectService.getCurrentUserRole(projectId);
-        if (role == null) {
-            throw new RuntimeException("Access denied");
-        }
+        checkAccess(projectId);
 
         ProjectDto project = projectService.getProjectById(projectId);
 
-        // Chuẩn hoá mốc thời gian (theo deadline trong kỳ)
-        ZonedDateTime zFrom = from.atStartOfDay(ZONE);
-        ZonedDateTime zTo   = to.plusDays(1).atStartOfDay(ZONE).minusNanos(1);
-        Date fromDate = Date.from(zFrom.toInstant());
-        Date toDate   = Date.from(zTo.toInstant());
-
-        // Lấy tasks trong kỳ (deadline trong [from, to])
-        // >>>> QUAN TRỌNG: query này cần fetch assignedUsers để khỏi Lazy
-        List<Task> periodTasks = fetchTasksWithAssignees(projectId, fromDate, toDate);
-
-        // Tập thành viên trong dự án: ưu tiên lấy từ Project membership,
-        // nếu không sẵn có thì gom từ task.assignedUsers trong kỳ
-        Set<User> members = new LinkedHashSet<>();
-        try {
-            List<ProjectMember> projectMembers = projectMemberRepository.findByProjectId(projectId);
-            List<User> users = new ArrayList<>();
-            for(ProjectMember member : projectMembers){
-                users.add(member.getUser());
-            }
-
-            members.addAll(users); // nếu có
-        } catch (Exception ignore) {
-            // fallback từ task
-            for (Task t : periodTasks) {
-                if (t.getAssignedUsers() != null) members.addAll(t.getAssignedUsers());
-            }
-        }
-
-        // Gom số liệu per user
-        List<MemberRow> rows = new ArrayList<>();
-        for (User u : members) {
-            long assigned = 0;
-            long onTime = 0;     // COMPLETED
-            long late = 0;       // OVERDUE
-            long selfCreated = 0;
-
-            for (Task t : periodTasks) {
-                // assigned?
-                boolean isAssigned = t.getAssignedUsers() != null &&
-                        t.getAssignedUsers().stream().anyMatch(x -> Objects.equals(x.getId(), u.getId()));
-                if (isAssigned) {
-                    assigned++;
-                    if (t.getStatus() == Status.COMPLETED) onTime++;
-                    else if (t.getStatus() == Status.OVERDUE) late++;
-                }
-                // tự khởi tạo trong kỳ: dùng createdAt nếu có, không thì xét deadline trong kỳ
-                boolean createdByUser = (t.getCreatedBy() != null && Objects.equals(t.getCreatedBy().getId(), u.getId()));
-                if (createdByUser) {
-                    // Nếu entity có createdAt, check in-range; nếu không, coi như theo deadline
-                    // (bạn có thể thay bằng t.getCreatedAt() != null)
-                    selfCreated++;
-                }
-            }
+        // Cập nhật OVERDUE trước khi đếm (như khi load task qua TaskService), chỉ với task thực sự quá hạn
+        int refreshed = taskService.refreshOverdueTasks(projectId);
 
-            // submissions/approval/reject trong kỳ (triển khai trong TaskApprovalService)
-            long submissions = taskApprovalService.countSubmissionsByUserAndProjectBetween(u.getId(), projectId, fromDate, toDate);
-            long approvals   = taskApprovalService.countApprovalsByUserAndProjectBetween(u.getId(), projectId, fromDate, toDate);
-            long rejects     = taskApprovalService.countRejectsByUserAndProjectBetween(u.getId(), projectId, fromDate, toDate);
-
-            double deadlineRate = assigned > 0 ? (double) onTime / assigned : 0.0;
-            double approvalRate = submissions > 0 ? (double) approvals / submissions : 0.0;
-
-            double score = score(deadlineRate, approvalRate, selfCreated);
-
-            rows.add(MemberRow.builder()
-                    .userId(u.getId())
-                    .memberName(fullNameOrEmail(u))
-                    .assigned(assigned)
-                    .onTime(onTime)
-                    .late(late)
-                    .selfCreated(selfCreated)
-                    .submissions(submissions)
-                    .approvals(approvals)
-                    .rejects(rejects)
-                    .deadlineRate(Math.round(deadlineRate * 100))
-                    .approvalRate(Math.round(approvalRate * 100))
-                    .score(Math.round(score))
-                    .build());
-        }
+        // Gom số liệu per user: cộng bucket ngày đã materialize, hoặc GROUP BY trên task_user + task_approval_logs.
+        // Vừa chuyển OVERDUE (có thể chưa commit) -> snapshot chưa phản ánh, đọc bảng gốc.
+        List<MemberRow> rows = aggregator.aggregate(projectId, from, to, refreshed == 0);
 
         // Xếp hạng
         List<MemberRow> ranked = rows.stream()
@@ -162,11 +91,38 @@ public class MemberEvaluationReportService {
         return model;
     }
 
+    // Quyền: chỉ cần là thành viên dự án
+    public void checkAccess(Long projectId) {
+        var role = projectService.getCurrentUserRole(projectId);
+        if (role == null) {
+            throw new RuntimeException("Access denied");
+        }
+    }
+
+    // Build lại snapshot ghi đè số liệu cả project: chỉ LEADER/VICE_LEADER
+    public void checkRebuildAccess(Long projectId) {
+        Role role = projectService.getCurrentUserRole(projectId);
+        if (!(Role.LEADER.equals(role) || Role.VICE_LEADER.equals(role))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only LEADER/VICE_LEADER can rebuild snapshots");
+        }
+    }
+
     // ===== Export PDF =====
 //    @Transactional(readOnly = true)
     public Path generatePdf(Long projectId, LocalDate from, LocalDate to) throws Exception {
-        Map<String, Object> model = buildModel(projectId, from, to);
+        checkAccess(projectId); // kiểm tra quyền trước khi lấy từ cache
+        return reportCache.getOrGenerate("member-eval", ReportFormat.PDF, projectId, null, from, to,
+                () -> renderPdf(projectId, from, to));
+    }
+
+    private Path renderPdf(Long projectId, LocalDate from, LocalDate to) throws Exception {
+        Timer.Sample phase = domainMetrics.start();
+        Map<String, Object> model = modelLoader.load(() -> buildModel(projectId, from, to));
+        phase.stop(domainMetrics.reportPhase(REPORT, "model", projectId));
+
+        phase = domainMetrics.start();
         String html = htmlRenderer.renderHtml("report/member-evaluation-report", model);
+        phase.stop(domainMetrics.reportPhase(REPORT, "render", projectId));
 
         Path dir = Paths.get("uploads", "report");
         Files.createDirectories(dir);
@@ -175,17 +131,26 @@ public class MemberEvaluationReportService {
         String ts = LocalDateTime.now(ZONE).format(TS_FMT);
         Path pdf = dir.resolve(safe + "-member-eval-" + ts + ".pdf");
 
-        htmlToPdfService.writePdf(html, pdf);
+        domainMetrics.pdfRender(REPORT, projectId, ((List<?>) model.getOrDefault("items", List.of())).size(), 1,
+                html.length(), () -> {
+                    htmlToPdfService.writePdf(html, pdf);
+                    return Files.size(pdf);
+                });
         return pdf.toAbsolutePath();
     }
 
     // ===== Export Excel ===== (trích bảng #member-table từ template HTML)
 //    @Transactional(readOnly = true)
     public Path generateExcel(Long projectId, LocalDate from, LocalDate to) throws Exception {
-        Map<String, Object> model = buildModel(projectId, from, to);
-        String html = htmlRenderer.renderHtml("report/member-evaluation-report", model);
+        checkAccess(projectId);
+        return reportCache.getOrGenerate("member-eval", ReportFormat.XLSX, projectId, null, from, to,
+                () -> renderExcel(projectId, from, to));
+    }
 
-        byte[] xlsx = htmlToExcelService.htmlTableToXlsx(html, "#member-table");
+    private Path renderExcel(Long projectId, LocalDate from, LocalDate to) throws Exception {
+        Timer.Sample phase = domainMetrics.start();
+        Map<String, Object> model = modelLoader.load(() -> buildModel(projectId, from, to));
+        phase.stop(domainMetrics.reportPhase(REPORT, "model", projectId));
 
         Path dir = Paths.get("uploads", "report");
         Files.createDirectories(dir);
@@ -194,56 +159,46 @@ public class MemberEvaluationReportService {
         String ts = LocalDateTime.now(ZONE).format(TS_FMT);
         Path out = dir.resolve(safe + "-member-eval-" + ts + ".xlsx");
 
+        if (streamingExcel) {
+            phase = domainMetrics.start();
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(out))) {
+                writeExcel(model, os);
+            }
+            phase.stop(domainMetrics.reportPhase(REPORT, "convert", projectId));
+            return out.toAbsolutePath();
+        }
+
+        // Fallback: HTML -> Jsoup -> XSSFWorkbook
+        phase = domainMetrics.start();
+        String html = htmlRenderer.renderHtml("report/member-evaluation-report", model);
+        phase.stop(domainMetrics.reportPhase(REPORT, "render", projectId));
+
+        phase = domainMetrics.start();
+        byte[] xlsx = htmlToExcelService.htmlTableToXlsx(html, "#member-table");
+
         Files.write(out, xlsx, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        phase.stop(domainMetrics.reportPhase(REPORT, "convert", projectId));
         return out.toAbsolutePath();
     }
 
-    // ========= Helpers =========
+    /** Ghi model (từ buildModel) thẳng ra XLSX, cùng cột với bảng #member-table. */
+    @SuppressWarnings("unchecked")
+    public void writeExcel(Map<String, Object> model, OutputStream os) throws IOException {
+        Map<String, String> meta = new LinkedHashMap<>();
+        meta.put("Project", String.valueOf(model.get("projectName")));
+        meta.put("Period", model.get("fromDate") + " - " + model.get("toDate"));
+        meta.put("Generated At", String.valueOf(model.get("generatedAt")));
 
-    // Tính điểm (có thể điều chỉnh trọng số theo ý bạn)
-    private double score(double deadlineRate, double approvalRate, long selfCreated) {
-        // 50% deadline, 40% approval, 10% bonus theo số task tự tạo (log để tránh lệch)
-        double base = 0.5 * deadlineRate + 0.4 * approvalRate; // cả hai là [0..1]
-        double bonus = Math.log1p(selfCreated) / Math.log(2) * 0.1; // 0.. ~
-        double s = (base + bonus) * 100.0;
-        return Math.min(100.0, s);
+        List<MemberRow> items = (List<MemberRow>) model.getOrDefault("items", List.of());
+        xlsxWriter.write(os, "Báo cáo đánh giá thành viên dự án", meta, EXCEL_COLUMNS, items);
     }
 
-    private String fullNameOrEmail(User u) {
-        String fn = safeStr(u.getFirstName());
-        String ln = safeStr(u.getLastName());
-        String name = (fn + " " + ln).trim();
-        return !name.isBlank() ? name : safeStr(u.getEmail());
-    }
-
-    private String safeStr(String s) {
-        return s == null ? "" : s;
-    }
+    // ========= Helpers =========
 
     private String safe(String name) {
         return name.replaceAll("[^a-zA-Z0-9-_]", "_");
     }
 
-    // Bạn nên thay thế bằng repository thật có fetch join:
-    @Transactional(readOnly = true)
-    protected List<Task> fetchTasksWithAssignees(Long projectId, Date from, Date to) {
-        // TODO: thay bằng taskRepository.findByProjectIdAndDeadlineBetween(...) có @EntityGraph("assignedUsers")
-        // Tạm thời dùng TaskService + lọc (nhưng cẩn thận Lazy nếu assignedUsers là LAZY):
-        List<TaskDto> dtos = taskService.getAllTasksByProjectId(projectId);
-        List<Task> stub = new ArrayList<>(); // Chỉ minh hoạ, bạn hãy dùng repository thật để lấy entity
-
-        for (TaskDto dto : dtos) {
-            if (dto.getDeadline() != null && !dto.getDeadline().before(from) && !dto.getDeadline().after(to)) {
-                Task task = taskRepository.findById(dto.getId()).orElseThrow(); // Chuyển đổi từ DTO sang entity nếu cần
-
-                stub.add(task);
-            }
-        }
-
-        // => Khuyến nghị: viết một query EntityGraph để trả về List<Task> đã fetch assignedUsers.
-        return stub;
-    }
-
     // ===== Row DTO cho template =====
     @Data
     @Builder
@@ -0,0 +1,244 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import personal.project.teamwork_management.dto.MemberPerformanceTotalsDto;
+import personal.project.teamwork_management.event.ProjectDataChangedEvent;
+import personal.project.teamwork_management.model.ApprovalAction;
+import personal.project.teamwork_management.model.MemberPerformanceSnapshot;
+import personal.project.teamwork_management.model.MemberPerformanceSnapshotBuild;
+import personal.project.teamwork_management.model.MemberPerformanceSnapshotDirtyDay;
+import personal.project.teamwork_management.model.Status;
+import personal.project.teamwork_management.repository.MemberPerformanceSnapshotBuildRepository;
+import personal.project.teamwork_management.repository.MemberPerformanceSnapshotDirtyDayRepository;
+import personal.project.teamwork_management.repository.MemberPerformanceSnapshotRepository;
+import personal.project.teamwork_management.repository.ProjectRepository;
+import personal.project.teamwork_management.repository.TaskApprovalRepository;
+import personal.project.teamwork_management.repository.TaskRepository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Gom sẵn số liệu đánh giá thành viên theo (project, user, ngày) vào member_performance_snapshot.
+ * - Đêm: build lại toàn bộ từng project; on-demand: {@link #rebuildProject(Long)}.
+ * - Dữ liệu thay đổi muộn (đổi status/deadline/assignee, log duyệt mới): ngày bị ảnh hưởng được đánh dấu
+ *   từ {@link ProjectDataChangedEvent} và tính lại định kỳ. Trong lúc còn ngày chờ tính lại,
+ *   {@link #isFresh} trả false để báo cáo đọc thẳng bảng gốc.
+ * Trạng thái (project đã build, ngày chờ tính lại) nằm trong DB chứ không trong JVM, nên chạy nhiều instance
+ * vẫn đúng: thay đổi ghi ở instance này làm snapshot hết "fresh" với báo cáo đọc ở instance khác.
+ */
+@Slf4j
+@Service
+public class MemberPerformanceSnapshotService {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
+    // khoảng ngày khi build toàn bộ project (nằm trong giới hạn DATETIME của MySQL)
+    private static final LocalDate FULL_FROM = LocalDate.of(1970, 1, 1);
+    private static final LocalDate FULL_TO = LocalDate.of(9999, 12, 30);
+
+    private final MemberPerformanceSnapshotRepository snapshotRepository;
+    private final MemberPerformanceSnapshotDirtyDayRepository dirtyDayRepository;
+    private final MemberPerformanceSnapshotBuildRepository buildRepository;
+    private final TaskRepository taskRepository;
+    private final TaskApprovalRepository taskApprovalRepository;
+    private final ProjectRepository projectRepository;
+    private final TransactionTemplate transactionTemplate;
+    // đánh dấu chạy sau commit của thay đổi (hoặc ngoài transaction): luôn transaction riêng
+    private final TransactionTemplate markTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.report.snapshots.enabled:true}")
+    private boolean enabled = true;
+
+    // số (project, ngày) chờ tính lại thấy ở lần flush gần nhất
+    private final AtomicLong pendingDays = new AtomicLong();
+
+    private record Bucket(Long userId, LocalDate day) {
+    }
+
+    public MemberPerformanceSnapshotService(MemberPerformanceSnapshotRepository snapshotRepository,
+                                            MemberPerformanceSnapshotDirtyDayRepository dirtyDayRepository,
+                                            MemberPerformanceSnapshotBuildRepository buildRepository,
+                                            TaskRepository taskRepository,
+                                            TaskApprovalRepository taskApprovalRepository,
+                                            ProjectRepository projectRepository,
+                                            PlatformTransactionManager transactionManager,
+                                            MeterRegistry meterRegistry) {
+        this.snapshotRepository = snapshotRepository;
+        this.dirtyDayRepository = dirtyDayRepository;
+        this.buildRepository = buildRepository;
+        this.taskRepository = taskRepository;
+        this.taskApprovalRepository = taskApprovalRepository;
+        this.projectRepository = projectRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.markTemplate = new TransactionTemplate(transactionManager);
+        this.markTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("report.snapshots.dirty.days", pendingDays);
+    }
+
+    // ---------------- Đọc ----------------
+    /** true nếu [from, to] của project đọc được từ snapshot (đã build, không còn ngày chờ tính lại). */
+    public boolean isFresh(Long projectId, LocalDate from, LocalDate to) {
+        return enabled
+                && buildRepository.existsByProjectId(projectId)
+                && !dirtyDayRepository.existsByProjectIdAndSnapshotDayBetween(projectId, from, to);
+    }
+
+    /** Tổng các bucket ngày trong [from, to], theo userId. */
+    public Map<Long, MemberPerformanceTotalsDto> sumByUser(Long projectId, LocalDate from, LocalDate to) {
+        Map<Long, MemberPerformanceTotalsDto> totals = new HashMap<>();
+        for (MemberPerformanceTotalsDto t : snapshotRepository.sumByUser(projectId, from, to)) {
+            totals.put(t.getUserId(), t);
+        }
+        return totals;
+    }
+
+    // ---------------- Đánh dấu ngày thay đổi ----------------
+    @EventListener
+    public void onProjectDataChanged(ProjectDataChangedEvent event) {
+        if (!enabled || event.affectedDates().isEmpty()) return;
+        List<MemberPerformanceSnapshotDirtyDay> marks = event.affectedDates().stream()
+                .map(MemberPerformanceSnapshotService::toDay)
+                .distinct()
+                .map(day -> MemberPerformanceSnapshotDirtyDay.builder()
+                        .projectId(event.projectId())
+                        .snapshotDay(day)
+                        .build())
+                .toList();
+        try {
+            markTemplate.executeWithoutResult(status -> dirtyDayRepository.saveAll(marks));
+        } catch (Exception e) {
+            // thay đổi đã commit; mất đánh dấu thì snapshot lệch tới lần build lại đêm
+            log.warn("Could not mark snapshot days dirty for project {}: {}", event.projectId(), e.getMessage());
+        }
+    }
+
+    // ---------------- Job ----------------
+    @Scheduled(cron = "${spring.report.snapshots.cron:0 30 2 * * *}", zone = "Asia/Bangkok")
+    public void rebuildAll() {
+        if (!enabled) return;
+        for (Long projectId : projectRepository.findAllIds()) {
+            try {
+                rebuildProject(projectId);
+            } catch (Exception e) {
+                log.warn("Snapshot rebuild failed for project {}: {}", projectId, e.getMessage());
+            }
+        }
+    }
+
+    /** Tính lại các ngày bị đánh dấu (chỉ với project đã build toàn bộ; project khác chờ job đêm/on-demand). */
+    @Scheduled(fixedDelayString = "${spring.report.snapshots.flush-interval-ms:60000}")
+    public void flushDirtyDays() {
+        if (!enabled) return;
+        Map<Long, List<MemberPerformanceSnapshotDirtyDay>> byProject = dirtyDayRepository.findAllOfBuiltProjects().stream()
+                .collect(Collectors.groupingBy(MemberPerformanceSnapshotDirtyDay::getProjectId));
+        pendingDays.set(byProject.values().stream()
+                .mapToLong(marks -> marks.stream().map(MemberPerformanceSnapshotDirtyDay::getSnapshotDay).distinct().count())
+                .sum());
+        byProject.forEach((projectId, marks) -> {
+            try {
+                rebuildDays(projectId, marks);
+            } catch (Exception e) {
+                log.warn("Snapshot refresh failed for project {}: {}", projectId, e.getMessage());
+            }
+        });
+    }
+
+    /** Xoá và build lại toàn bộ snapshot của project. Trả về số dòng đã ghi. */
+    public synchronized int rebuildProject(Long projectId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Integer written = transactionTemplate.execute(status -> {
+            // đọc đánh dấu trước khi tính: đánh dấu mới trong lúc tính giữ lại cho lần flush sau
+            List<MemberPerformanceSnapshotDirtyDay> pending = dirtyDayRepository.findByProjectId(projectId);
+            Collection<MemberPerformanceSnapshot> rows = computeBuckets(projectId, FULL_FROM, FULL_TO).values();
+            snapshotRepository.deleteByProject(projectId);
+            snapshotRepository.saveAll(rows);
+            dirtyDayRepository.deleteAllInBatch(pending);
+            MemberPerformanceSnapshotBuild build = buildRepository.findFirstByProjectId(projectId)
+                    .orElseGet(() -> MemberPerformanceSnapshotBuild.builder().projectId(projectId).build());
+            build.setUpdatedAt(new Date());
+            buildRepository.save(build);
+            return rows.size();
+        });
+        sample.stop(meterRegistry.timer("report.snapshots.rebuild", "mode", "full"));
+        return written != null ? written : 0;
+    }
+
+    // Tính lại các ngày của marks, xoá đúng các dòng đánh dấu đó trong cùng transaction
+    private synchronized void rebuildDays(Long projectId, List<MemberPerformanceSnapshotDirtyDay> marks) {
+        Set<LocalDate> days = marks.stream().map(MemberPerformanceSnapshotDirtyDay::getSnapshotDay).collect(Collectors.toSet());
+        LocalDate from = Collections.min(days);
+        LocalDate to = Collections.max(days);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<MemberPerformanceSnapshot> rows = computeBuckets(projectId, from, to).values().stream()
+                    .filter(s -> days.contains(s.getSnapshotDay()))
+                    .toList();
+            snapshotRepository.deleteDays(projectId, days);
+            snapshotRepository.saveAll(rows);
+            dirtyDayRepository.deleteAllInBatch(marks);
+        });
+        sample.stop(meterRegistry.timer("report.snapshots.rebuild", "mode", "days"));
+    }
+
+    // ---------------- Gom theo ngày ----------------
+    private Map<Bucket, MemberPerformanceSnapshot> computeBuckets(Long projectId, LocalDate from, LocalDate to) {
+        Date fromDate = Date.from(from.atStartOfDay(ZONE).toInstant());
+        Date toExclusive = Date.from(to.plusDays(1).atStartOfDay(ZONE).toInstant());
+        Map<Bucket, MemberPerformanceSnapshot> buckets = new HashMap<>();
+
+        // assigned / completed / overdue theo ngày deadline (mỗi cặp user-task đếm 1 lần)
+        Set<List<Long>> seen = new HashSet<>();
+        for (Object[] r : taskRepository.findAssigneeDeadlines(projectId, fromDate, toExclusive)) {
+            Long userId = (Long) r[0];
+            if (!seen.add(List.of(userId, (Long) r[1]))) continue;
+            MemberPerformanceSnapshot s = bucket(buckets, projectId, userId, (Date) r[2]);
+            s.setAssigned(s.getAssigned() + 1);
+            if (r[3] == Status.COMPLETED) s.setCompleted(s.getCompleted() + 1);
+            else if (r[3] == Status.OVERDUE) s.setOverdue(s.getOverdue() + 1);
+        }
+
+        // task tự tạo theo ngày deadline
+        for (Object[] r : taskRepository.findCreatorDeadlines(projectId, fromDate, toExclusive)) {
+            MemberPerformanceSnapshot s = bucket(buckets, projectId, (Long) r[0], (Date) r[1]);
+            s.setCreated(s.getCreated() + 1);
+        }
+
+        // submissions / approvals / rejects theo ngày tạo log
+        for (Object[] r : taskApprovalRepository.findUserActions(projectId, fromDate, toExclusive)) {
+            MemberPerformanceSnapshot s = bucket(buckets, projectId, (Long) r[0], (Date) r[1]);
+            s.setSubmissions(s.getSubmissions() + 1);
+            if (r[2] == ApprovalAction.APPROVE) s.setApprovals(s.getApprovals() + 1);
+            else if (r[2] == ApprovalAction.REJECT) s.setRejects(s.getRejects() + 1);
+        }
+        return buckets;
+    }
+
+    private static MemberPerformanceSnapshot bucket(Map<Bucket, MemberPerformanceSnapshot> buckets,
+                                                    Long projectId, Long userId, Date at) {
+        LocalDate day = toDay(at);
+        return buckets.computeIfAbsent(new Bucket(userId, day), b -> MemberPerformanceSnapshot.builder()
+                .projectId(projectId)
+                .userId(userId)
+                .snapshotDay(day)
+                .build());
+    }
+
+    private static LocalDate toDay(Date date) {
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZONE).toLocalDate();
+    }
+}
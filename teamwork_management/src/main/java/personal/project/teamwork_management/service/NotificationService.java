@@ -3,10 +3,12 @@ package personal.project.teamwork_management.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import personal.project.teamwork_management.event.jfr.NotificationBatchEvent;
 import personal.project.teamwork_management.model.Notification;
 import personal.project.teamwork_management.model.NotificationType;
 import personal.project.teamwork_management.repository.NotificationRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -18,6 +20,9 @@ public class NotificationService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private DomainMetrics domainMetrics;
+
     public Notification createNotification(String message, NotificationType type, Long userId,
                                             Long relatedId, String relatedType) {
         Notification notification = new Notification();
@@ -37,6 +42,29 @@ public class NotificationService {
         return notification;
     }
 
+    /**
+     * Gửi cùng 1 thông báo cho nhiều user, ghi notifications.fanout (thời gian) và
+     * notifications.fanout.recipients (số người nhận) theo type + projectSize.
+     */
+    public void notifyUsers(String message, NotificationType type, Collection<Long> userIds,
+                            Long relatedId, String relatedType, Long projectId) {
+        domainMetrics.measure(new NotificationBatchEvent(), () -> {
+            for (Long userId : userIds) {
+                createNotification(message, type, userId, relatedId, relatedType);
+            }
+            return userIds.size();
+        }, recipients -> {
+            String size = domainMetrics.projectSize(projectId);
+            domainMetrics.summary("notifications.fanout.recipients", "users", size, "type", type.name())
+                    .record(recipients);
+            return domainMetrics.timer("notifications.fanout", size, "type", type.name());
+        }, (jfr, recipients) -> {
+            jfr.projectId = projectId != null ? projectId : 0;
+            jfr.notificationType = type.name();
+            jfr.recipients = recipients;
+        });
+    }
+
     public List<Notification> getUnreadNotifications(Long userId) {
         return notificationRepository.findByUserIdAndIsReadFalse(userId);
     }
@@ -0,0 +1,35 @@
+package personal.project.teamwork_management.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import personal.project.teamwork_management.event.ProjectDataChangedEvent;
+
+/**
+ * Phát {@link ProjectDataChangedEvent} SAU khi transaction hiện tại commit (rollback => không phát).
+ * Ghi ở flush mà tăng version ngay thì request khác có thể vẫn đọc dữ liệu cũ (chưa commit) và cache nó
+ * dưới version mới. Không có transaction => phát ngay.
+ */
+@Component
+public class ProjectDataChangePublisher {
+
+    private final ApplicationEventPublisher publisher;
+
+    public ProjectDataChangePublisher(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    public void publish(ProjectDataChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publisher.publishEvent(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publisher.publishEvent(event);
+            }
+        });
+    }
+}
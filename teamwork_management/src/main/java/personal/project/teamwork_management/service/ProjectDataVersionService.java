@@ -0,0 +1,36 @@
+package personal.project.teamwork_management.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import personal.project.teamwork_management.event.ProjectDataChangedEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Số version dữ liệu của từng project, tăng mỗi khi task/thành viên/duyệt task thay đổi.
+ * Dùng làm một phần key cho cache (báo cáo, ...): version khác nhau => dữ liệu có thể đã khác.
+ * Version toàn cục tăng theo mọi thay đổi của mọi project (cho dữ liệu gộp nhiều project, VD danh sách project).
+ */
+@Service
+public class ProjectDataVersionService {
+
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    public long getVersion(Long projectId) {
+        AtomicLong v = versions.get(projectId);
+        return v != null ? v.get() : 0L;
+    }
+
+    public long getGlobalVersion() {
+        return globalVersion.get();
+    }
+
+    @EventListener
+    public void onProjectDataChanged(ProjectDataChangedEvent event) {
+        versions.computeIfAbsent(event.projectId(), id -> new AtomicLong()).incrementAndGet();
+        globalVersion.incrementAndGet();
+    }
+}
@@ -34,6 +34,12 @@ public class ProjectLogService {
     }
 
     public List<ProjectLog> getLogs(Long projectId, Date startDate, Date endDate) {
+        Date[] range = resolveRange(projectId, startDate, endDate);
+        return projectLogRepository.findByProjectIdAndCreatedAtBetween(projectId, range[0], range[1]);
+    }
+
+    /** Khoảng thời gian mặc định: từ ngày bắt đầu project tới min(hiện tại, ngày kết thúc). */
+    public Date[] resolveRange(Long projectId, Date startDate, Date endDate) {
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new IllegalArgumentException("Project not found with id: " + projectId));
         if(startDate == null){
@@ -41,14 +47,12 @@ public class ProjectLogService {
         }
         if(endDate == null){
             Date now = new Date();
-            if(now.before(project.getEndDate())){
+            if(project.getEndDate() == null || now.before(project.getEndDate())){
                 endDate = now;
             } else {
                 endDate = project.getEndDate();
             }
         }
-
-        return projectLogRepository.findByProjectIdAndCreatedAtBetween(projectId, startDate, endDate);
+        return new Date[]{startDate, endDate};
     }
 }
-
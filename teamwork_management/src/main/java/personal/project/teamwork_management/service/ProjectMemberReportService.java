@@ -1,17 +1,19 @@
 package personal.project.teamwork_management.service;
 
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
-import personal.project.teamwork_management.dto.TaskDto;
-import personal.project.teamwork_management.dto.UserDto;
 import personal.project.teamwork_management.model.ProjectMember;
-import personal.project.teamwork_management.model.Task; // dùng entity Task như ProjectReportService
+import personal.project.teamwork_management.model.Status;
+import personal.project.teamwork_management.model.User;
 import personal.project.teamwork_management.repository.ProjectMemberRepository;
 import personal.project.teamwork_management.repository.TaskRepository;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.*;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
@@ -23,11 +25,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProjectMemberReportService {
 
+    private static final String REPORT = "member"; // tag report của report.phase
     private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
     private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
 
     private final TaskRepository taskRepository;
-    private final TaskService taskService;
     private final ProjectMemberRepository projectMemberRepository;
 
     private final HtmlReportRenderer htmlRenderer;
@@ -36,6 +38,14 @@ public class ProjectMemberReportService {
 
     // tái dùng toàn bộ tính toán chỉ số từ service cũ
     private final MemberEvaluationReportService evalService;
+    private final ReportCacheService reportCache;
+    private final XlsxReportWriter xlsxWriter;
+    private final ReportModelLoader modelLoader;          // model trong transaction ngắn, render sau commit
+    private final DomainMetrics domainMetrics;
+
+    // true: model -> SXSSF trực tiếp; false: đi đường HTML -> Excel cũ
+    @Value("${spring.report.excel.streaming:true}")
+    private boolean streamingExcel;
 
     /**
      * Build model cho template: chỉ 1 thành viên duy nhất.
@@ -78,10 +88,20 @@ public class ProjectMemberReportService {
     }
 
     /** Xuất PDF: ghi thẳng ra Path (dùng writePdf(html, outPath)) */
-    @Transactional
     public Path generatePdf(Long projectId, Long memberId, LocalDate fromDate, LocalDate toDate) throws Exception {
-        Map<String, Object> model = buildModel(projectId, memberId, fromDate, toDate);
+        evalService.checkAccess(projectId); // kiểm tra quyền trước khi lấy từ cache
+        return reportCache.getOrGenerate("member", ReportFormat.PDF, projectId, memberId, fromDate, toDate,
+                () -> renderPdf(projectId, memberId, fromDate, toDate));
+    }
+
+    private Path renderPdf(Long projectId, Long memberId, LocalDate fromDate, LocalDate toDate) throws Exception {
+        Timer.Sample phase = domainMetrics.start();
+        Map<String, Object> model = modelLoader.load(() -> buildModel(projectId, memberId, fromDate, toDate));
+        phase.stop(domainMetrics.reportPhase(REPORT, "model", projectId));
+
+        phase = domainMetrics.start();
         String html = htmlRenderer.renderHtml("report/member-evaluation-report-single", model);
+        phase.stop(domainMetrics.reportPhase(REPORT, "render", projectId));
 
         Path dir = Paths.get("uploads", "report");
         Files.createDirectories(dir);
@@ -91,17 +111,25 @@ public class ProjectMemberReportService {
         String ts = LocalDateTime.now(ZONE).format(TS_FMT);
         Path out = dir.resolve(safe + "-" + ts + ".pdf");
 
-        htmlToPdfService.writePdf(html, out); // overload ghi thẳng vào Path
+        domainMetrics.pdfRender(REPORT, projectId, ((List<?>) model.getOrDefault("memberTasks", List.of())).size(), 1,
+                html.length(), () -> {
+                    htmlToPdfService.writePdf(html, out); // overload ghi thẳng vào Path
+                    return Files.size(out);
+                });
         return out.toAbsolutePath();
     }
 
     /** Xuất Excel: lấy từ bảng #report-table (bảng chỉ số của member) */
-    @Transactional
     public Path generateExcel(Long projectId, Long memberId, LocalDate fromDate, LocalDate toDate) throws Exception {
-        Map<String, Object> model = buildModel(projectId, memberId, fromDate, toDate);
-        String html = htmlRenderer.renderHtml("report/member-evaluation-report-single", model);
+        evalService.checkAccess(projectId);
+        return reportCache.getOrGenerate("member", ReportFormat.XLSX, projectId, memberId, fromDate, toDate,
+                () -> renderExcel(projectId, memberId, fromDate, toDate));
+    }
 
-        byte[] xlsx = htmlToExcelService.htmlTableToXlsx(html, "#report-table");
+    private Path renderExcel(Long projectId, Long memberId, LocalDate fromDate, LocalDate toDate) throws Exception {
+        Timer.Sample phase = domainMetrics.start();
+        Map<String, Object> model = modelLoader.load(() -> buildModel(projectId, memberId, fromDate, toDate));
+        phase.stop(domainMetrics.reportPhase(REPORT, "model", projectId));
 
         Path dir = Paths.get("uploads", "report");
         Files.createDirectories(dir);
@@ -111,62 +139,113 @@ public class ProjectMemberReportService {
         String ts = LocalDateTime.now(ZONE).format(TS_FMT);
         Path out = dir.resolve(safe + "-" + ts + ".xlsx");
 
+        if (streamingExcel) {
+            phase = domainMetrics.start();
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(out))) {
+                writeExcel(model, os);
+            }
+            phase.stop(domainMetrics.reportPhase(REPORT, "convert", projectId));
+            return out.toAbsolutePath();
+        }
+
+        // Fallback: HTML -> Jsoup -> XSSFWorkbook
+        phase = domainMetrics.start();
+        String html = htmlRenderer.renderHtml("report/member-evaluation-report-single", model);
+        phase.stop(domainMetrics.reportPhase(REPORT, "render", projectId));
+
+        phase = domainMetrics.start();
+        byte[] xlsx = htmlToExcelService.htmlTableToXlsx(html, "#report-table");
+
         Files.write(out, xlsx, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        phase.stop(domainMetrics.reportPhase(REPORT, "convert", projectId));
         return out.toAbsolutePath();
     }
 
+    /** Ghi model (từ buildModel) thẳng ra XLSX, cùng cột với bảng #report-table (chỉ số của member). */
+    @SuppressWarnings("unchecked")
+    public void writeExcel(Map<String, Object> model, OutputStream os) throws IOException {
+        Map<String, String> meta = new LinkedHashMap<>();
+        meta.put("Project", String.valueOf(model.get("projectName")));
+        meta.put("Period", model.get("fromDate") + " - " + model.get("toDate"));
+        meta.put("Member", String.valueOf(model.get("memberName")));
+        meta.put("Generated At", String.valueOf(model.get("generatedAt")));
+
+        List<MemberEvaluationReportService.MemberRow> items =
+                (List<MemberEvaluationReportService.MemberRow>) model.getOrDefault("items", List.of());
+        List<XlsxReportWriter.Column<MemberEvaluationReportService.MemberRow>> columns = List.of(
+                XlsxReportWriter.Column.rowNumber("#"),
+                new XlsxReportWriter.Column<>("Thành viên", MemberEvaluationReportService.MemberRow::getMemberName),
+                new XlsxReportWriter.Column<>("Assigned", MemberEvaluationReportService.MemberRow::getAssignedTasks),
+                new XlsxReportWriter.Column<>("On time", MemberEvaluationReportService.MemberRow::getOnTimeTasks),
+                new XlsxReportWriter.Column<>("Late", MemberEvaluationReportService.MemberRow::getLateTasks),
+                new XlsxReportWriter.Column<>("Self-created", MemberEvaluationReportService.MemberRow::getSelfCreatedTasks),
+                new XlsxReportWriter.Column<>("Submissions", MemberEvaluationReportService.MemberRow::getSubmissions),
+                new XlsxReportWriter.Column<>("Approvals", MemberEvaluationReportService.MemberRow::getApprovals),
+                new XlsxReportWriter.Column<>("Rejects", MemberEvaluationReportService.MemberRow::getRejects),
+                new XlsxReportWriter.Column<>("Score", MemberEvaluationReportService.MemberRow::getTotalScore)
+        );
+        xlsxWriter.write(os, "Báo cáo thành viên dự án", meta, columns, items);
+    }
+
     // ----------------- helpers -----------------
 
-    /** Duyệt cây task như ProjectReportService và lọc task assign cho memberId trong [from, to] theo deadline */
+    /**
+     * Task assign cho memberId có deadline trong [from, to]: 1 query đi từ task_user của member lên các task cha
+     * (thay cho việc dựng toàn bộ cây task của project rồi lọc). Cột "no" giữ thứ tự duyệt cây (pre-order)
+     * như trước, "path" là chuỗi tiêu đề từ task gốc xuống.
+     */
     private List<Map<String, Object>> collectTasksForMember(Long projectId, Long memberId, LocalDate from, LocalDate to) {
-        Long userId = getUserIdFroMemberId(memberId);
+        User user = getMemberUser(memberId);
+        Date fromDate = Date.from(from.atStartOfDay(ZONE).toInstant());
+        Date toExclusive = Date.from(to.plusDays(1).atStartOfDay(ZONE).toInstant());
+
+        // task_id -> chuỗi tổ tiên (depth tăng dần: chính task, cha, ông, ...)
+        Map<Long, List<Object[]>> chains = new LinkedHashMap<>();
+        for (Object[] r : taskRepository.findMemberTasksWithAncestors(projectId, user.getId(), fromDate, toExclusive)) {
+            chains.computeIfAbsent(((Number) r[0]).longValue(), k -> new ArrayList<>()).add(r);
+        }
 
         List<Map<String, Object>> rows = new ArrayList<>();
-
-        List<Task> roots = taskRepository.findByProjectIdAndLevel(projectId, 1);
-        int seq = 0;
-        for (Task root : roots) {
-            List<TaskDto> chain = new ArrayList<>();
-            try {
-                chain = taskService.getTaskHierarchyForReport(root.getId());
-            } catch (Exception e) {
-                log.error("Error fetching task chain for root task ID: {}", root.getId(), e);
-                continue; // skip this root if there's an error
-            }
-            for (TaskDto t : chain) {
-                LocalDate dl = toLocalDate(t.getDeadline());
-                if (dl == null || dl.isBefore(from) || dl.isAfter(to)) continue;
-
-                List<UserDto> assignees = t.getAssignedUsers() != null ? t.getAssignedUsers() : Collections.emptyList();
-                boolean assignedToMember = assignees.stream().anyMatch(u -> u != null && Objects.equals(u.getId(), userId));
-                if (!assignedToMember) continue;
-
-                seq++;
-                Map<String, Object> row = new LinkedHashMap<>();
-                row.put("no", seq);
-                row.put("id", t.getId());
-                row.put("title", t.getTitle());
-                row.put("deadline", formatDate(t.getDeadline()));
-                row.put("status", String.valueOf(t.getStatus()));
-                row.put("priority", String.valueOf(t.getPriority()));
-
-                // tên hiển thị: lấy từ đúng userId
-                String displayName = assignees.stream()
-                        .filter(u -> u != null && Objects.equals(u.getId(), userId))
-                        .findFirst()
-                        .map(u -> {
-                            String fn = u.getFirstName() == null ? "" : u.getFirstName().trim();
-                            String ln = u.getLastName() == null ? "" : u.getLastName().trim();
-                            String name = (fn + " " + ln).trim();
-                            return name.isEmpty() ? (u.getEmail() != null ? u.getEmail() : "(no name)") : name;
-                        })
-                        .orElse("(no name)");
-                row.put("assignee", displayName);
-
-                rows.add(row);
+        Map<Map<String, Object>, String> treeOrder = new IdentityHashMap<>();
+        String displayName = displayName(user);
+
+        for (Map.Entry<Long, List<Object[]>> e : chains.entrySet()) {
+            List<Object[]> chain = e.getValue();
+            Object[] top = chain.get(chain.size() - 1);
+            // chỉ lấy task nằm dưới 1 task gốc level 1 (giống cách duyệt từ findByProjectIdAndLevel(projectId, 1))
+            if (top[3] != null || top[4] == null || ((Number) top[4]).intValue() != 1) continue;
+
+            StringBuilder order = new StringBuilder();
+            StringBuilder path = new StringBuilder();
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                Object[] a = chain.get(i);
+                order.append(String.format("%019d", ((Number) a[1]).longValue())).append('/');
+                if (path.length() > 0) path.append(" / ");
+                path.append(a[5]);
             }
+
+            Object[] self = chain.get(0);
+            Object status = self[8];
+            if (status instanceof Number n) status = Status.values()[n.intValue()];
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("no", 0);
+            row.put("id", e.getKey());
+            row.put("title", self[6]);
+            row.put("deadline", formatDate(self[7]));
+            row.put("status", String.valueOf(status));
+            row.put("priority", String.valueOf(self[9]));
+            row.put("assignee", displayName);
+            row.put("path", path.toString());
+            rows.add(row);
+            treeOrder.put(row, order.toString());
         }
 
+        // đánh số theo thứ tự duyệt cây
+        rows.sort(Comparator.comparing(treeOrder::get));
+        int seq = 0;
+        for (Map<String, Object> row : rows) row.put("no", ++seq);
+
         // sort theo deadline ↑ rồi id ↑
         rows.sort(Comparator
                 .comparing((Map<String, Object> m) -> String.valueOf(m.get("deadline")), Comparator.nullsLast(String::compareTo))
@@ -174,6 +253,13 @@ public class ProjectMemberReportService {
         return rows;
     }
 
+    private static String displayName(User u) {
+        String fn = u.getFirstName() == null ? "" : u.getFirstName().trim();
+        String ln = u.getLastName() == null ? "" : u.getLastName().trim();
+        String name = (fn + " " + ln).trim();
+        return name.isEmpty() ? (u.getEmail() != null ? u.getEmail() : "(no name)") : name;
+    }
+
     private static LocalDate toLocalDate(Object date) {
         if (date == null) return null;
         if (date instanceof java.sql.Date d)     return d.toLocalDate();
@@ -195,12 +281,12 @@ public class ProjectMemberReportService {
     }
 
     private Long getUserIdFroMemberId(Long memberId) {
-        // Giả sử có phương thức để lấy userId từ memberId
-        // Thực tế sẽ cần truy vấn database hoặc service khác để lấy thông tin này
+        return getMemberUser(memberId).getId();
+    }
 
+    private User getMemberUser(Long memberId) {
         ProjectMember member = projectMemberRepository.findById(memberId)
                 .orElseThrow(() -> new IllegalArgumentException("Member not found with ID: " + memberId));
-
-        return member.getUser().getId(); // tạm thời trả về memberId như userId
+        return member.getUser();
     }
 }
@@ -1,16 +1,24 @@
 package personal.project.teamwork_management.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import personal.project.teamwork_management.dto.ProjectDto;
 import personal.project.teamwork_management.dto.TaskDto;
 import personal.project.teamwork_management.dto.UserDto;
+import personal.project.teamwork_management.event.jfr.TaskTreeTraversalEvent;
 import personal.project.teamwork_management.model.Role;
 import personal.project.teamwork_management.model.Task;
 import personal.project.teamwork_management.repository.TaskRepository;
+import personal.project.teamwork_management.util.CountingOutputStream;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.*;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
@@ -21,37 +29,71 @@ import java.util.*;
 public class ProjectReportService {
 
     private final ProjectService projectService;
-    private final TaskService taskService;
     private final TaskRepository taskRepository;
 
     // NEW: renderer/converters cho HTML
     private final HtmlReportRenderer htmlRenderer;     // -> render HTML từ Thymeleaf
     private final HtmlToPdfService htmlToPdfService;   // -> HTML -> PDF (OpenHTMLtoPDF)
     private final HtmlToExcelService htmlToExcelService; // -> HTML table -> XLSX (Jsoup + POI)
+    private final ReportCacheService reportCache;        // -> cache file theo version dữ liệu project
+    private final XlsxReportWriter xlsxWriter;           // -> model -> XLSX (SXSSF streaming)
+    private final ProjectTreeLoader treeLoader;          // -> load các cây task song song
+    private final ReportModelLoader modelLoader;         // -> model trong transaction ngắn, render sau commit
+    private final MeterRegistry meterRegistry;
+    private final DomainMetrics domainMetrics;
 
     private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final DateTimeFormatter TS_FMT   = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
 
+    private static final List<XlsxReportWriter.Column<Map<String, Object>>> EXCEL_COLUMNS = List.of(
+            new XlsxReportWriter.Column<>("#", r -> r.get("number")),
+            new XlsxReportWriter.Column<>("Task ID", r -> r.get("taskId")),
+            new XlsxReportWriter.Column<>("Title", r -> r.get("title")),
+            new XlsxReportWriter.Column<>("Level", r -> r.get("level")),
+            new XlsxReportWriter.Column<>("Priority", r -> r.get("priority")),
+            new XlsxReportWriter.Column<>("Status", r -> r.get("status")),
+            new XlsxReportWriter.Column<>("Progress", r -> r.get("progress")),
+            new XlsxReportWriter.Column<>("Deadline", r -> r.get("deadline")),
+            new XlsxReportWriter.Column<>("Assignee", r -> r.get("topAssignee"))
+    );
+
+    // true: model -> SXSSF trực tiếp; false: đi đường HTML -> Excel cũ
+    @Value("${spring.report.excel.streaming:true}")
+    private boolean streamingExcel;
+
+    // Nhiều hơn N dòng task -> chia bảng thành đoạn N dòng, render song song rồi ghép PDF (0 = tắt)
+    @Value("${spring.report.pdf.chunk-rows:800}")
+    private int pdfChunkRows;
+
     // ---------------- Build model cho template ----------------
     @Transactional(propagation = Propagation.SUPPORTS)
     public Map<String, Object> buildModel(Long projectId) throws Exception {
-        Role role = projectService.getCurrentUserRole(projectId);
-        if (role == null || !(Role.LEADER.equals(role) || Role.VICE_LEADER.equals(role))) {
-            throw new RuntimeException("Access denied: Only LEADER/VICE_LEADER can create project report.");
-        }
+        checkAccess(projectId);
+        Timer.Sample modelSample = Timer.start(meterRegistry);
 
         ProjectDto project = projectService.getProjectById(projectId);
         Double progress = projectService.calculateProjectProgress(projectId);
         long progressRounded = Math.round(progress != null ? progress : 0);
 
         List<Task> roots = taskRepository.findByProjectIdAndLevel(projectId, 1);
+        List<Long> rootIds = roots.stream().map(Task::getId).toList();
+
+        // load từng cây (pre-order) song song, kết quả vẫn theo thứ tự roots
+        List<List<TaskDto>> chains = domainMetrics.measure(new TaskTreeTraversalEvent(),
+                () -> treeLoader.loadHierarchies(rootIds),
+                loaded -> phaseTimer("load", projectId),
+                (jfr, loaded) -> {
+                    jfr.projectId = projectId;
+                    jfr.roots = rootIds.size();
+                    jfr.nodes = loaded.stream().mapToInt(List::size).sum();
+                });
+
         List<Map<String,Object>> items = new ArrayList<>();
         int rootIndex = 0;
 
-        for (Task root : roots) {
+        for (List<TaskDto> chain : chains) {
             rootIndex++;
-            List<TaskDto> chain = taskService.getTaskHierarchyForReport(root.getId()); // pre-order
 
             Deque<Integer> counters = new ArrayDeque<>();
             int lastLevel = 0;
@@ -102,15 +144,27 @@ public class ProjectReportService {
         model.put("progress", progressRounded);
         model.put("generatedAt", LocalDateTime.now(ZONE).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
         model.put("items", items);
+        modelSample.stop(phaseTimer("model", projectId));
         return model;
     }
 
+    public void checkAccess(Long projectId) {
+        Role role = projectService.getCurrentUserRole(projectId);
+        if (role == null || !(Role.LEADER.equals(role) || Role.VICE_LEADER.equals(role))) {
+            throw new RuntimeException("Access denied: Only LEADER/VICE_LEADER can create project report.");
+        }
+    }
+
     // ---------------- HTML -> PDF ----------------
-    @Transactional(propagation = Propagation.SUPPORTS)
     public Path generatePdf(Long projectId) throws Exception {
-        Map<String, Object> model = buildModel(projectId);
+        checkAccess(projectId); // kiểm tra quyền trước khi lấy từ cache
+        return reportCache.getOrGenerate("project", ReportFormat.PDF, projectId, null, null, null,
+                () -> renderPdf(projectId));
+    }
+
+    private Path renderPdf(Long projectId) throws Exception {
+        Map<String, Object> model = modelLoader.load(() -> buildModel(projectId));
 
-        String html = htmlRenderer.renderHtml("report/project-report", model); // templates/report/project-report.html
         Path dir = Paths.get("uploads","report");
         Files.createDirectories(dir);
 
@@ -118,17 +172,22 @@ public class ProjectReportService {
         String ts = LocalDateTime.now(ZONE).format(TS_FMT);
         Path pdfPath = dir.resolve(safe + "-" + ts + ".pdf");
 
-        htmlToPdfService.writePdf(html, pdfPath);
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(pdfPath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))) {
+            writePdf(model, os);
+        }
         return pdfPath.toAbsolutePath();
     }
 
     // ---------------- HTML -> Excel ----------------
-    @Transactional(propagation = Propagation.SUPPORTS)
     public Path generateExcel(Long projectId) throws Exception {
-        Map<String, Object> model = buildModel(projectId);
+        checkAccess(projectId);
+        return reportCache.getOrGenerate("project", ReportFormat.XLSX, projectId, null, null, null,
+                () -> renderExcel(projectId));
+    }
 
-        String html = htmlRenderer.renderHtml("report/project-report", model); // templates/report/project-report.html
-        byte[] xlsx = htmlToExcelService.htmlTableToXlsx(html, "#report-table"); // id table trong template
+    private Path renderExcel(Long projectId) throws Exception {
+        Map<String, Object> model = modelLoader.load(() -> buildModel(projectId));
 
         Path dir = Paths.get("uploads","report");
         Files.createDirectories(dir);
@@ -137,11 +196,83 @@ public class ProjectReportService {
         String ts = LocalDateTime.now(ZONE).format(TS_FMT);
         Path out = dir.resolve(safe + "-" + ts + ".xlsx");
 
+        if (streamingExcel) {
+            Timer.Sample convert = Timer.start(meterRegistry);
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(out))) {
+                writeExcel(model, os);
+            }
+            convert.stop(phaseTimer("convert", projectId));
+            return out.toAbsolutePath();
+        }
+
+        // Fallback: HTML -> Jsoup -> XSSFWorkbook
+        Timer.Sample render = Timer.start(meterRegistry);
+        String html = htmlRenderer.renderHtml("report/project-report", model); // templates/report/project-report.html
+        render.stop(phaseTimer("render", projectId));
+
+        Timer.Sample convert = Timer.start(meterRegistry);
+        byte[] xlsx = htmlToExcelService.htmlTableToXlsx(html, "#report-table"); // id table trong template
         Files.write(out, xlsx, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        convert.stop(phaseTimer("convert", projectId));
         return out.toAbsolutePath();
     }
 
+    /**
+     * Render model (từ buildModel) thành PDF vào stream đích, không tạo file trong uploads/report.
+     * Bảng lớn (> spring.report.pdf.chunk-rows dòng) được chia đoạn: tiêu đề/meta chỉ ở đoạn đầu,
+     * header bảng lặp lại mỗi trang, số trang đánh lại liên tục sau khi ghép.
+     */
+    @SuppressWarnings("unchecked")
+    public void writePdf(Map<String, Object> model, OutputStream os) throws Exception {
+        List<Map<String, Object>> items = (List<Map<String, Object>>) model.getOrDefault("items", List.of());
+        boolean chunked = pdfChunkRows > 0 && items.size() > pdfChunkRows;
+        Long projectId = (Long) model.get("projectId");
+
+        Timer.Sample render = Timer.start(meterRegistry);
+        List<String> parts = new ArrayList<>();
+        if (chunked) {
+            for (int from = 0; from < items.size(); from += pdfChunkRows) {
+                Map<String, Object> part = new HashMap<>(model);
+                part.put("items", items.subList(from, Math.min(items.size(), from + pdfChunkRows)));
+                part.put("firstChunk", from == 0);
+                part.put("pageNumbers", false);
+                parts.add(htmlRenderer.renderHtml("report/project-report", part));
+            }
+        } else {
+            parts.add(htmlRenderer.renderHtml("report/project-report", model)); // templates/report/project-report.html
+        }
+        render.stop(phaseTimer("render", projectId));
+
+        CountingOutputStream counting = new CountingOutputStream(os);
+        domainMetrics.pdfRender("project", projectId, items.size(), parts.size(),
+                parts.stream().mapToLong(String::length).sum(), () -> {
+                    if (chunked) {
+                        htmlToPdfService.writePdfChunked(parts, counting);
+                    } else {
+                        htmlToPdfService.writePdf(parts.get(0), counting);
+                    }
+                    return counting.getCount();
+                });
+    }
+
+    /** Ghi model (từ buildModel) thẳng ra XLSX, cùng cột với bảng #report-table. */
+    @SuppressWarnings("unchecked")
+    public void writeExcel(Map<String, Object> model, OutputStream os) throws IOException {
+        Map<String, String> meta = new LinkedHashMap<>();
+        meta.put("Status", String.valueOf(model.get("status")));
+        meta.put("Progress", model.get("progress") + "%");
+        meta.put("Generated At", String.valueOf(model.get("generatedAt")));
+
+        List<Map<String, Object>> items = (List<Map<String, Object>>) model.getOrDefault("items", List.of());
+        xlsxWriter.write(os, String.valueOf(model.get("projectName")), meta, EXCEL_COLUMNS, items);
+    }
+
     // ---------------- Helpers ----------------
+    // report.phase{report=project, phase=model|load|render|convert, projectSize}
+    private Timer phaseTimer(String phase, Long projectId) {
+        return domainMetrics.reportPhase("project", phase, projectId);
+    }
+
     private static String joinCounters(Deque<Integer> counters) {
         List<Integer> tmp = new ArrayList<>(counters);
         Collections.reverse(tmp);
@@ -1,5 +1,6 @@
 package personal.project.teamwork_management.service;
 
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -7,9 +8,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import personal.project.teamwork_management.dto.DtoView;
 import personal.project.teamwork_management.dto.MemberDto;
 import personal.project.teamwork_management.dto.ProjectDto;
+import personal.project.teamwork_management.dto.TaskDto;
+import personal.project.teamwork_management.event.ProjectDataChangedEvent;
 import personal.project.teamwork_management.model.*;
+import personal.project.teamwork_management.repository.ProjectInteractionRepository;
 import personal.project.teamwork_management.repository.ProjectMemberRepository;
 import personal.project.teamwork_management.repository.ProjectRepository;
 import personal.project.teamwork_management.repository.TaskRepository;
@@ -38,6 +43,14 @@ public class ProjectService {
     private ProjectLogService projectLogService;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private ProjectInteractionRepository projectInteractionRepository;
+    @Autowired
+    private DomainMetrics domainMetrics;
+    @Autowired
+    private ProjectViewCache projectViewCache;
+    @Autowired
+    private ProjectDataChangePublisher changePublisher;
 
     public Role getCurrentUserRole(Long projectId) {
         User currentUser = userService.getCurrentUser();
@@ -49,22 +62,30 @@ public class ProjectService {
     }
 
     public ProjectDto getProjectById(Long id) throws Exception {
+        checkCanView(id);
+
+        // Ghép DTO (project + progress + members + tasks) chỉ khi dữ liệu project đổi, xem ProjectViewCache
+        ProjectDto projectDto = projectViewCache.getOrLoad(id, () -> loadProjectView(id));
+        return recordView(projectDto);
+    }
+
+    /**
+     * Như getProjectById nhưng không ghép danh sách task (tasks = null): người gọi stream task thẳng từ DB
+     * (JsonStreamService), dùng cho project rất lớn.
+     */
+    public ProjectDto getProjectWithoutTasks(Long id) throws Exception {
+        checkCanView(id);
+        return recordView(loadProjectSummary(id));
+    }
+
+    private void checkCanView(Long id) throws Exception {
         Role currentUserRole = getCurrentUserRole(id);
         if(currentUserRole == null){
             throw new Exception("Current user does not have permission to view this project");
         }
+    }
 
-        
-        ProjectDto projectDto = projectRepository.findProjectDtoById(id);
-        
-        if (projectDto == null) {
-            throw new Exception("Project not found with id: " + id);
-        }
-        Long longProgress = calculateProjectProgress(id).longValue();
-        projectDto.setProgress(longProgress < 100 ? longProgress + 1 : longProgress);
-        projectDto.setMembers(projectMemberRepository.findAllMembersByProjectId(id));
-        projectDto.setTasks(taskRepository.findAllTasksDtoByProjectId(id));
-
+    private ProjectDto recordView(ProjectDto projectDto) {
         Date now = new Date();
         if (projectDto.getStatus() == Status.NOT_STARTED && 
             projectDto.getStartDate() != null && 
@@ -84,56 +105,82 @@ public class ProjectService {
         return projectDto;
     }
 
+    private ProjectDto loadProjectView(Long id) throws Exception {
+        ProjectDto projectDto = loadProjectSummary(id);
+        projectDto.setTasks(taskRepository.findAllTasksDtoByProjectId(id));
+        return projectDto;
+    }
+
+    private ProjectDto loadProjectSummary(Long id) throws Exception {
+        ProjectDto projectDto = projectRepository.findProjectDtoById(id);
+
+        if (projectDto == null) {
+            throw new Exception("Project not found with id: " + id);
+        }
+        Long longProgress = calculateProjectProgress(id).longValue();
+        projectDto.setProgress(longProgress < 100 ? longProgress + 1 : longProgress);
+        projectDto.setMembers(projectMemberRepository.findAllMembersByProjectId(id));
+        return projectDto;
+    }
+
     public Double calculateProjectProgress(Long projectId){
+        // progress.recompute{scope=project}: thời gian + số node của cây
+        return domainMetrics.progressRecompute(projectId, null, nodes -> recomputeProjectProgress(projectId, nodes));
+    }
+
+    // nodes[0]: số task của project
+    private Double recomputeProjectProgress(Long projectId, int[] nodes){
         Project project = projectRepository.findById(projectId).get();
-        List<Task> levelOneTask = taskRepository.findByProjectIdAndLevel(projectId, 1);
-        Double totalWeightScore = 0D;
-        Double totalProgress = 0D;
-        for(Task task : levelOneTask){
-            Double weightScore = (double) task.getPriority();
-            totalWeightScore += weightScore;
-            totalProgress += weightScore * calculateTaskProgress(task.getId()) /100;
-        }
-        Double progress = totalProgress / totalWeightScore * 100;
+        // 1 query cho cả cây rồi tính đệ quy trong bộ nhớ (trước đây findById + findByParentId + save mỗi task)
+        TaskProgressTree tree = new TaskProgressTree(taskRepository.findProgressRowsByProjectId(projectId));
+        nodes[0] = tree.size();
+        Double progress = tree.projectProgress();
+        saveTaskProgress(projectId, tree.changes());
         Long longProgress = progress.longValue();
-        project.setProgress(longProgress < 100 ? longProgress + 1 : longProgress);
-        projectRepository.save(project);
+        Long newProgress = longProgress < 100 ? longProgress + 1 : longProgress;
+        if (!newProgress.equals(project.getProgress())) {
+            project.setProgress(newProgress);
+            projectRepository.save(project);
+        }
         return progress;
 
     }
 
-    public Double calculateTaskProgress(Long taskId){
-        Double totalWeightScore = 0D;
-        Double totalProgress = 0D;
-        Task task = taskRepository.findById(taskId).get();
-        List<Task> subTasks = taskRepository.findByParentId(taskId);
-        if(subTasks == null || subTasks.isEmpty()) {
-            return (double) task.getProgress(); // No sub-tasks, return 100% progress
-        }
-        for(Task subTask: subTasks){
-            Double weightScore = (double) subTask.getPriority() / (double) subTask.getLevel();
-            totalWeightScore += weightScore;
-            totalProgress += weightScore * calculateTaskProgress(subTask.getId()) /100;
-        }
-        Double progress = totalProgress / totalWeightScore * 100;
-        Integer intProgress = progress.intValue();
-        task.setProgress(intProgress < 100 ? intProgress + 1 : intProgress);
-        taskRepository.save(task);
+    /**
+     * Ghi progress mới của các task cha (chỉ task thực sự đổi) bằng UPDATE hàng loạt.
+     * UPDATE JPQL không qua event của Hibernate nên ProjectDataChangeListener không thấy:
+     * tự phát ProjectDataChangedEvent cho từng task để version project (cache, ETag) tăng như khi save entity.
+     */
+    public void saveTaskProgress(Long projectId, Map<Long, Integer> changes) {
+        changes.forEach((taskId, progress) -> {
+            taskRepository.updateProgress(taskId, progress);
+            changePublisher.publish(new ProjectDataChangedEvent(projectId, Task.class, taskId));
+        });
+    }
 
-        return progress;
+    private static List<Long> memberUserIds(Project project) {
+        return project.getMembers().stream().map(member -> member.getUser().getId()).toList();
     }
 
     public ProjectDto getProjectByIdForController(Long id) throws Exception {
         ProjectDto projectDto = getProjectById(id);
+        recordInteraction(id);
+        return projectDto;
+    }
 
+    public ProjectDto getProjectWithoutTasksForController(Long id) throws Exception {
+        ProjectDto projectDto = getProjectWithoutTasks(id);
+        recordInteraction(id);
+        return projectDto;
+    }
+
+    private void recordInteraction(Long id) {
         try {
             projectInteractionService.createProjectInteraction(projectRepository.findById(id).get());
         } catch (Exception e) {
             // Log but don't fail the main operation
             System.err.println("Could not create project interaction: " + e.getMessage());
         }
-
-        return projectDto;
     }
 
     public Project activeProject(Long id) {
@@ -256,16 +303,14 @@ public class ProjectService {
                 existingProject.getId(),
                 ActivityType.UPDATED_PROJECT
         );
-        List<ProjectMember> members = existingProject.getMembers();
-        for(ProjectMember member : members) {
-            notificationService.createNotification(
-                    "Project Updated " + existingProject.getName(),
-                    NotificationType.PROJECT_UPDATED,
-                    member.getUser().getId(),
-                    existingProject.getId(),
-                    "Project"
-            );
-        }
+        notificationService.notifyUsers(
+                "Project Updated " + existingProject.getName(),
+                NotificationType.PROJECT_UPDATED,
+                memberUserIds(existingProject),
+                existingProject.getId(),
+                "Project",
+                existingProject.getId()
+        );
 
         projectLogService.log(
                 ProjectAction.UPDATED,
@@ -295,15 +340,14 @@ public class ProjectService {
         Project project = projectRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Project not found with id: " + id));
         // Gửi thông báo cho tất cả thành viên dự án
-        for (ProjectMember member : project.getMembers()) {
-            notificationService.createNotification(
-                    "Project Deleted: " + project.getName(),
-                    NotificationType.PROJECT_DELETED,
-                    member.getUser().getId(),
-                    project.getId(),
-                    "Project"
-            );
-        }
+        notificationService.notifyUsers(
+                "Project Deleted: " + project.getName(),
+                NotificationType.PROJECT_DELETED,
+                memberUserIds(project),
+                project.getId(),
+                "Project",
+                project.getId()
+        );
 
         // Xóa dự án theo ID
         List<ProjectMember> projectMembers = projectMemberRepository.findAllByProjectId(id);
@@ -403,15 +447,14 @@ public class ProjectService {
                 ActivityType.UPDATED_PROJECT
         );
 
-        for(ProjectMember member : project.getMembers()){
-            notificationService.createNotification(
-                    "Project Status Updated: " + project.getName(),
-                    NotificationType.PROJECT_UPDATED,
-                    member.getUser().getId(),
-                    project.getId(),
-                    "Project"
-            );
-        }
+        notificationService.notifyUsers(
+                "Project Status Updated: " + project.getName(),
+                NotificationType.PROJECT_UPDATED,
+                memberUserIds(project),
+                project.getId(),
+                "Project",
+                project.getId()
+        );
 
     }
 
@@ -422,32 +465,41 @@ public class ProjectService {
         }
 
         try {
-            List<ProjectInteraction> interactions = projectInteractionService.getProjectInteractions();
-            List<Long> projectIds = new ArrayList<>();
-            List<ProjectDto> recentProjects = new ArrayList<>();
-            int count = 0;
-            
-            if (interactions == null || interactions.isEmpty()) {
-                return recentProjects; // Return empty list if no interactions
+            // id theo thứ tự xem gần nhất, bỏ trùng; rồi load DTO/thành viên/task của cả nhóm bằng 3 query
+            // (trước đây 3 query mỗi project + load từng ProjectInteraction kèm Project)
+            List<Long> viewedIds = projectInteractionRepository
+                    .findProjectIdsByUserIdOrderByLastViewedAtDesc(currentUser.getId())
+                    .stream().distinct().toList();
+            if (viewedIds.isEmpty()) {
+                return new ArrayList<>();
             }
-            
-            for (ProjectInteraction interaction : interactions) {
-                Project project = interaction.getProject();
-                if (project != null && !projectIds.contains(project.getId())) {
-                    projectIds.add(project.getId());
-                    ProjectDto projectDto = projectRepository.findProjectDtoById(project.getId());
-                    
-                    // Skip null projects (user might not have access)
-                    if (projectDto != null) {
-                        projectDto.setMembers(projectMemberRepository.findAllMembersByProjectId(project.getId()));
-                        projectDto.setTasks(taskRepository.findAllTasksDtoByProjectId(project.getId()));
-                        recentProjects.add(projectDto);
-                        count++;
-                        if (count >= 10) break;
-                    }
-                }
+
+            Map<Long, ProjectDto> byId = new HashMap<>();
+            for (ProjectDto dto : projectRepository.findProjectDtosByIds(viewedIds)) {
+                byId.put(dto.getId(), dto);
+            }
+            // Skip null projects (đã bị xoá)
+            List<ProjectDto> recentProjects = viewedIds.stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .limit(10)
+                    .toList();
+            List<Long> ids = recentProjects.stream().map(ProjectDto::getId).toList();
+
+            Map<Long, List<MemberDto>> members = new HashMap<>();
+            for (Object[] r : projectMemberRepository.findAllMemberRowsByProjectIds(ids)) {
+                members.computeIfAbsent((Long) r[0], k -> new ArrayList<>())
+                        .add(new MemberDto((Long) r[1], (String) r[2], (String) r[3], (String) r[4], (Role) r[5]));
+            }
+            Map<Long, List<TaskDto>> tasks = new HashMap<>();
+            for (TaskDto t : taskRepository.findAllTasksDtoByProjectIds(ids)) {
+                tasks.computeIfAbsent(t.getProjectId(), k -> new ArrayList<>()).add(t);
             }
-            return recentProjects;
+            for (ProjectDto dto : recentProjects) {
+                dto.setMembers(members.getOrDefault(dto.getId(), new ArrayList<>()));
+                dto.setTasks(tasks.getOrDefault(dto.getId(), new ArrayList<>()));
+            }
+            return new ArrayList<>(recentProjects);
         } catch (Exception e) {
             // Log error and return empty list instead of throwing
             System.err.println("Error getting recent projects: " + e.getMessage());
@@ -625,6 +677,33 @@ public class ProjectService {
         return projectPage;
     }
 
+    /**
+     * GET /api/projects theo view: DETAIL như getProjectsByRole / getAllProjects (kèm members + tasks từng project);
+     * CARD / ROW chỉ 1 query projection + 1 count, không đọc members / tasks.
+     */
+    public Page<?> getProjects(DtoView view, int page, int size, String role, String search, String status, String sortBy, String sortDirection) {
+        if (view == DtoView.DETAIL) {
+            return role != null && !role.trim().isEmpty()
+                    ? getProjectsByRole(page, size, role, search, status, sortBy, sortDirection)
+                    : getAllProjects(page, size, search, status, sortBy, sortDirection);
+        }
+        User currentUser = userService.getCurrentUser();
+        if (currentUser == null) {
+            throw new RuntimeException("Current user not found");
+        }
+
+        Pageable pageable = PageRequest.of(page, size, createSort(sortBy, sortDirection));
+        List<Role> roles = "managed".equalsIgnoreCase(role) ? List.of(Role.LEADER, Role.VICE_LEADER)
+                : "member".equalsIgnoreCase(role) ? List.of(Role.MEMBER)
+                : List.of(Role.values());
+        String searchTerm = search != null && !search.trim().isEmpty() ? search.trim() : null;
+        Status statusEnum = parseStatus(status);
+
+        return view == DtoView.CARD
+                ? projectRepository.findProjectCards(currentUser.getId(), roles, searchTerm, statusEnum, pageable)
+                : projectRepository.findProjectRows(currentUser.getId(), roles, searchTerm, statusEnum, pageable);
+    }
+
     /**
      * Get projects by role with filtering
      */
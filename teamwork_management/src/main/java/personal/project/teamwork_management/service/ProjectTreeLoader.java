@@ -0,0 +1,104 @@
+package personal.project.teamwork_management.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import personal.project.teamwork_management.dto.TaskDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Load cây task (pre-order, như TaskService.getTaskHierarchyForReport) cho nhiều root cùng lúc trên reportLoadExecutor.
+ * Mỗi root chạy trong 1 transaction read-only riêng; kết quả trả về đúng thứ tự rootIds.
+ */
+@Component
+public class ProjectTreeLoader {
+
+    private final TaskService taskService;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate readOnlyTx;
+
+    // 1: load tuần tự trên thread hiện tại như trước
+    @Value("${spring.report.load.parallelism:4}")
+    private int parallelism = 4;
+
+    public ProjectTreeLoader(TaskService taskService,
+                             @Qualifier("reportLoadExecutor") ThreadPoolTaskExecutor executor,
+                             PlatformTransactionManager transactionManager) {
+        this.taskService = taskService;
+        this.executor = executor;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public List<List<TaskDto>> loadHierarchies(List<Long> rootIds) throws Exception {
+        List<List<TaskDto>> result = new ArrayList<>(rootIds.size());
+        if (parallelism <= 1 || rootIds.size() <= 1) {
+            for (Long rootId : rootIds) {
+                result.add(taskService.getTaskHierarchyForReport(rootId));
+            }
+            return result;
+        }
+
+        // getCurrentUserRole() trong TaskService đọc SecurityContext -> copy sang worker thread
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+
+        List<CompletableFuture<List<TaskDto>>> futures = new ArrayList<>(rootIds.size());
+        for (Long rootId : rootIds) {
+            futures.add(CompletableFuture.supplyAsync(() -> load(rootId, securityContext), executor));
+        }
+
+        try {
+            for (CompletableFuture<List<TaskDto>> f : futures) {
+                result.add(f.join());
+            }
+            return result;
+        } catch (CompletionException e) {
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof LoadFailure lf) throw lf.getCause(); // exception gốc của TaskService
+            if (cause instanceof Exception ex) throw ex;
+            throw e;
+        }
+    }
+
+    private List<TaskDto> load(Long rootId, SecurityContext securityContext) {
+        SecurityContext previous = SecurityContextHolder.getContext();
+        SecurityContextHolder.setContext(securityContext);
+        try {
+            return readOnlyTx.execute(status -> {
+                try {
+                    return taskService.getTaskHierarchyForReport(rootId);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new LoadFailure(e);
+                }
+            });
+        } finally {
+            // CallerRunsPolicy có thể chạy trên chính thread gọi -> trả lại context cũ
+            SecurityContextHolder.setContext(previous);
+        }
+    }
+
+    /** Bọc checked exception của getTaskHierarchyForReport để đi qua CompletableFuture. */
+    private static final class LoadFailure extends RuntimeException {
+        LoadFailure(Exception cause) {
+            super(cause.getMessage(), cause);
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import personal.project.teamwork_management.dto.MemberDto;
+import personal.project.teamwork_management.dto.ProjectDto;
+import personal.project.teamwork_management.dto.TaskDto;
+import personal.project.teamwork_management.dto.UserDto;
+import personal.project.teamwork_management.event.ProjectDataChangedEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache ProjectDto đã ghép (project + progress + members + tasks) của trang chi tiết project, key = projectId,
+ * gắn với version dữ liệu project: task/thành viên/project thay đổi => version tăng, entry bị bỏ.
+ * Single-flight: nhiều request cùng mở 1 project khi chưa có cache chỉ ghép DTO 1 lần, các request còn lại chờ kết quả
+ * (tối đa wait-seconds: loader bị treo thì request chờ nhận 503 và entry bị bỏ, không giữ thread mãi).
+ * Người gọi nhận bản sao sâu (danh sách và từng MemberDto / TaskDto / UserDto / Date đều mới),
+ * không sửa được entry trong cache.
+ */
+@Service
+public class ProjectViewCache {
+
+    @FunctionalInterface
+    public interface ProjectViewLoader {
+        ProjectDto load() throws Exception;
+    }
+
+    private record Entry(long version, CompletableFuture<ProjectDto> view, Instant createdAt) {
+    }
+
+    private final ProjectDataVersionService versionService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.project-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${spring.project-cache.max-entries:1000}")
+    private int maxEntries = 1000;
+
+    // tên/email thành viên nằm ở bảng user, không phát ProjectDataChangedEvent => tối đa chừng này phút
+    @Value("${spring.project-cache.max-age-minutes:10}")
+    private long maxAgeMinutes = 10;
+
+    @Value("${spring.project-cache.wait-seconds:30}")
+    private long waitSeconds = 30;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public ProjectViewCache(ProjectDataVersionService versionService, MeterRegistry meterRegistry) {
+        this.versionService = versionService;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("project.view.cache.size", entries, Map::size);
+    }
+
+    /**
+     * Trả về bản sao view đã cache nếu dữ liệu project chưa đổi; nếu đang có request khác ghép view thì chờ
+     * kết quả đó; ngược lại gọi loader trên thread hiện tại. Phải kiểm tra quyền TRƯỚC khi gọi hàm này.
+     */
+    public ProjectDto getOrLoad(Long projectId, ProjectViewLoader loader) throws Exception {
+        if (!enabled) {
+            return loader.load();
+        }
+
+        // Lấy version TRƯỚC khi load: nếu có ghi trong lúc load thì lần sau sẽ miss (an toàn)
+        long version = versionService.getVersion(projectId);
+        Instant now = Instant.now();
+        Entry mine = new Entry(version, new CompletableFuture<>(), now);
+        Entry current = entries.compute(projectId, (id, e) -> isUsable(e, version, now) ? e : mine);
+
+        if (current != mine) {
+            count(current.view().isDone() ? "hit" : "shared");
+            return copyOf(await(projectId, current));
+        }
+        count("miss");
+
+        try {
+            ProjectDto view = loader.load();
+            mine.view().complete(view);
+            evictIfFull();
+            return copyOf(view);
+        } catch (Throwable t) {
+            // các request đang chờ nhận cùng lỗi; request sau load lại
+            entries.remove(projectId, mine);
+            mine.view().completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    @EventListener
+    public void onProjectDataChanged(ProjectDataChangedEvent event) {
+        entries.remove(event.projectId());
+    }
+
+    private boolean isUsable(Entry e, long version, Instant now) {
+        return e != null && e.version() >= version && !e.view().isCompletedExceptionally() && !isExpired(e, now);
+    }
+
+    private boolean isExpired(Entry e, Instant now) {
+        return Duration.between(e.createdAt(), now).toMinutes() >= maxAgeMinutes;
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        Instant now = Instant.now();
+        entries.values().removeIf(e -> e.view().isDone() && isExpired(e, now));
+        while (entries.size() > maxEntries) {
+            entries.entrySet().stream()
+                    .min(Comparator.comparing(e -> e.getValue().createdAt()))
+                    .ifPresent(oldest -> entries.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("project.view.cache.requests", "result", result).increment();
+    }
+
+    private ProjectDto await(Long projectId, Entry entry) throws Exception {
+        try {
+            return entry.view().get(waitSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (TimeoutException e) {
+            // request sau tự load lại thay vì chờ tiếp cùng loader
+            entries.remove(projectId, entry);
+            count("timeout");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Project view is still loading, try again later");
+        }
+    }
+
+    private static ProjectDto copyOf(ProjectDto view) {
+        ProjectDto copy = new ProjectDto(view.getId(), view.getName(), view.getDescription(), view.getStatus(),
+                view.getProgress(), copyOf(view.getStartDate()), copyOf(view.getEndDate()));
+        copy.setMembers(copyOf(view.getMembers(), ProjectViewCache::copyOf));
+        copy.setTasks(copyOf(view.getTasks(), ProjectViewCache::copyOf));
+        return copy;
+    }
+
+    private static MemberDto copyOf(MemberDto m) {
+        return new MemberDto(m.getId(), m.getFirstName(), m.getLastName(), m.getEmail(), m.getRole());
+    }
+
+    private static TaskDto copyOf(TaskDto t) {
+        return new TaskDto(t.getId(), t.getTitle(), t.getDescription(), t.getPriority(), t.getProgress(), t.getLevel(),
+                t.getCreatedById(), copyOf(t.getAssignedUsers(), ProjectViewCache::copyOf), t.getProjectId(),
+                t.getParentId(), t.getStatus(), copyOf(t.getDeadline()));
+    }
+
+    private static UserDto copyOf(UserDto u) {
+        return new UserDto(u.getId(), u.getFirstName(), u.getLastName(), u.getEmail(), u.getPhoneNumber(),
+                copyOf(u.getDob()));
+    }
+
+    private static Date copyOf(Date d) {
+        return d != null ? new Date(d.getTime()) : null;
+    }
+
+    private static <T> List<T> copyOf(List<T> items, UnaryOperator<T> copier) {
+        if (items == null) {
+            return null;
+        }
+        List<T> copy = new ArrayList<>(items.size());
+        for (T item : items) {
+            copy.add(item != null ? copier.apply(item) : null);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,269 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import personal.project.teamwork_management.event.jfr.ReportGenerationEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Cache file báo cáo đã xuất, key = (loại báo cáo, format, projectId, memberId, from, to, version dữ liệu project).
+ * Khi task/thành viên/duyệt task của project thay đổi thì version tăng => entry cũ không còn được dùng.
+ * Task vừa quá hạn được chuyển OVERDUE trước khi đọc version (hit không bỏ qua bước này như trước).
+ * Entry bị loại theo số lượng (LRU) và theo tuổi. Cache giữ bản riêng trong spring.report.cache.dir, mỗi người gọi
+ * nhận 1 hard link / copy riêng: xoá bản của cache không làm mất file mà job hay endpoint đồng bộ đã trả ra.
+ * Nhiều request cùng miss 1 key thì chỉ 1 request render, các request khác đợi rồi dùng chung kết quả.
+ */
+@Slf4j
+@Service
+public class ReportCacheService {
+
+    @FunctionalInterface
+    public interface ReportGenerator {
+        Path generate() throws Exception;
+    }
+
+    public record Key(String type, ReportFormat format, Long projectId, Long memberId,
+                      LocalDate from, LocalDate to, long version) {
+
+        boolean sameReport(Key other) {
+            return type.equals(other.type) && format == other.format
+                    && Objects.equals(projectId, other.projectId) && Objects.equals(memberId, other.memberId)
+                    && Objects.equals(from, other.from) && Objects.equals(to, other.to);
+        }
+    }
+
+    // path: bản của cache; outputDir / fileName: nơi và tên file generator đã ghi (bản của người gọi đặt cạnh đó)
+    private record Entry(Path path, Path outputDir, String fileName, Instant createdAt) {
+    }
+
+    private final ProjectDataVersionService versionService;
+    private final TaskService taskService;
+    private final MeterRegistry meterRegistry;
+    private final DomainMetrics domainMetrics;
+
+    @Value("${spring.report.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${spring.report.cache.max-entries:200}")
+    private int maxEntries;
+
+    @Value("${spring.report.cache.max-age-minutes:30}")
+    private long maxAgeMinutes;
+
+    @Value("${spring.report.cache.dir:uploads/report/cache}")
+    private String cacheDir = "uploads/report/cache";
+
+    // access-order => LRU
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // key đang render: request miss sau đợi kết quả thay vì render lại
+    private final Map<Key, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    public ReportCacheService(ProjectDataVersionService versionService, TaskService taskService,
+                              MeterRegistry meterRegistry, DomainMetrics domainMetrics) {
+        this.versionService = versionService;
+        this.taskService = taskService;
+        this.meterRegistry = meterRegistry;
+        this.domainMetrics = domainMetrics;
+        meterRegistry.gauge("report.cache.size", entries, Map::size);
+    }
+
+    /**
+     * Trả về file của riêng người gọi: bản sao (hard link) của file đã cache nếu dữ liệu project chưa đổi,
+     * ngược lại gọi generator và lưu kết quả. Phải kiểm tra quyền TRƯỚC khi gọi hàm này.
+     */
+    public Path getOrGenerate(String type, ReportFormat format, Long projectId, Long memberId,
+                              LocalDate from, LocalDate to, ReportGenerator generator) throws Exception {
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        return domainMetrics.measure(event,
+                () -> lookupOrGenerate(type, format, projectId, memberId, from, to, generator, event),
+                null,
+                (jfr, path) -> {
+                    jfr.report = type;
+                    jfr.format = format.name();
+                    jfr.projectId = projectId != null ? projectId : 0;
+                    jfr.memberId = memberId != null ? memberId : 0;
+                    jfr.bytes = Files.size(path);
+                });
+    }
+
+    private Path lookupOrGenerate(String type, ReportFormat format, Long projectId, Long memberId, LocalDate from,
+                                  LocalDate to, ReportGenerator generator, ReportGenerationEvent jfr) throws Exception {
+        if (!enabled) {
+            return generate(type, format, projectId, generator);
+        }
+
+        // OVERDUE phụ thuộc thời gian, không phải ghi của người dùng: chuyển trước để version tăng nếu có task đổi.
+        // Đang trong transaction thì version chỉ tăng sau commit => có task vừa chuyển thì coi như miss.
+        int refreshed = projectId != null ? taskService.refreshOverdueTasks(projectId) : 0;
+
+        // Lấy version TRƯỚC khi generate: nếu có ghi trong lúc generate thì lần sau sẽ miss (an toàn)
+        Key key = new Key(type, format, projectId, memberId, from, to, versionService.getVersion(projectId));
+        Path cached = refreshed == 0 ? checkout(key) : null;
+        if (cached != null) {
+            meterRegistry.counter("report.cache.requests", "type", type, "result", "hit").increment();
+            jfr.cacheHit = true;
+            return cached;
+        }
+
+        CompletableFuture<Entry> mine = new CompletableFuture<>();
+        CompletableFuture<Entry> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            Path shared = awaitShared(key, running);
+            if (shared != null) {
+                meterRegistry.counter("report.cache.requests", "type", type, "result", "shared").increment();
+                jfr.cacheHit = true;
+                return shared;
+            }
+            return generate(type, format, projectId, generator); // bản vừa render đã bị loại
+        }
+        meterRegistry.counter("report.cache.requests", "type", type, "result", "miss").increment();
+
+        try {
+            Path path = generate(type, format, projectId, generator);
+            mine.complete(store(key, path));
+            return path;
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Đợi request đang render cùng key; lỗi của lần render đó ném lại cho người đợi
+    private Path awaitShared(Key key, CompletableFuture<Entry> running) throws Exception {
+        try {
+            return checkout(running.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+
+    // report.output.bytes{type, format, projectSize}: kích thước file vừa sinh
+    private Path generate(String type, ReportFormat format, Long projectId, ReportGenerator generator) throws Exception {
+        Path path = generator.generate();
+        domainMetrics.summary("report.output.bytes", "bytes", domainMetrics.projectSize(projectId),
+                "type", type, "format", format.name()).record(Files.size(path));
+        return path;
+    }
+
+    private synchronized Path checkout(Key key) throws IOException {
+        Entry e = entries.get(key);
+        if (e == null) {
+            return null;
+        }
+        if (isExpired(e, Instant.now()) || !Files.exists(e.path())) {
+            entries.remove(key);
+            deleteQuietly(e.path());
+            return null;
+        }
+        return checkout(e);
+    }
+
+    // Bản của người gọi, cạnh chỗ generator ghi: <tên>-<8 ký tự>.<đuôi>. Giữ lock để entry không bị xoá giữa chừng
+    private synchronized Path checkout(Entry e) throws IOException {
+        if (!entries.containsValue(e)) {
+            return null;
+        }
+        String name = e.fileName();
+        int dot = name.lastIndexOf('.');
+        String unique = UUID.randomUUID().toString().substring(0, 8);
+        Path target = e.outputDir().resolve(dot > 0
+                ? name.substring(0, dot) + "-" + unique + name.substring(dot)
+                : name + "-" + unique);
+        try {
+            link(e.path(), target);
+        } catch (NoSuchFileException ex) {
+            return null;
+        }
+        return target.toAbsolutePath();
+    }
+
+    // Giữ 1 bản cho cache (hard link tới file vừa sinh, người gọi vẫn dùng file gốc)
+    private synchronized Entry store(Key key, Path path) throws IOException {
+        Path dir = Files.createDirectories(Paths.get(cacheDir));
+        Path own = dir.resolve(UUID.randomUUID() + "-" + path.getFileName());
+        link(path, own);
+        Entry entry = new Entry(own, path.toAbsolutePath().getParent(), path.getFileName().toString(), Instant.now());
+
+        // Bỏ các bản của cùng báo cáo nhưng version cũ hơn
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().sameReport(key) && e.getKey().version() != key.version()) {
+                it.remove();
+                deleteQuietly(e.getValue().path());
+            }
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            deleteQuietly(previous.path());
+        }
+
+        while (entries.size() > maxEntries) {
+            Iterator<Map.Entry<Key, Entry>> lru = entries.entrySet().iterator();
+            Map.Entry<Key, Entry> eldest = lru.next();
+            lru.remove();
+            deleteQuietly(eldest.getValue().path());
+        }
+        return entry;
+    }
+
+    @Scheduled(fixedDelayString = "${spring.report.cache.sweep-interval-ms:300000}")
+    public synchronized void evictExpired() {
+        Instant now = Instant.now();
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (isExpired(e.getValue(), now)) {
+                it.remove();
+                deleteQuietly(e.getValue().path());
+            }
+        }
+    }
+
+    private boolean isExpired(Entry e, Instant now) {
+        return e.createdAt().plus(Duration.ofMinutes(maxAgeMinutes)).isBefore(now);
+    }
+
+    // hard link (không tốn đĩa), FS không hỗ trợ thì copy
+    private static void link(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+        } catch (NoSuchFileException e) {
+            throw e;
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Cannot delete cached report {}: {}", path, e.getMessage());
+        }
+    }
+}
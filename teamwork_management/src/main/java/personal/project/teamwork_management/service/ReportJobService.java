@@ -0,0 +1,296 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import personal.project.teamwork_management.dto.ReportJobDto;
+import personal.project.teamwork_management.dto.ReportJobDto.JobStatus;
+import personal.project.teamwork_management.dto.ReportJobDto.JobType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Hàng đợi job xuất báo cáo: submit trả về jobId, worker pool render file,
+ * client poll trạng thái hoặc nhận push qua WebSocket /topic/reports/{userId}.
+ * Quyền được kiểm tra lúc submit (403 ngay, không đợi worker). File kết quả (bản riêng của người gọi mà
+ * ReportCacheService trả về) được chuyển vào thư mục riêng của job (spring.report.jobs.dir/{jobId}) nên TTL cleanup
+ * chỉ xoá file của job, không đụng file của cache hay của endpoint đồng bộ trong uploads/report.
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+
+    @FunctionalInterface
+    interface ReportTask {
+        Path generate() throws Exception;
+    }
+
+    private final ProjectReportService projectReportService;
+    private final MemberEvaluationReportService memberEvaluationReportService;
+    private final ProjectMemberReportService projectMemberReportService;
+    private final UserService userService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ReportJobDto> jobs = new ConcurrentHashMap<>();
+
+    @Value("${spring.report.jobs.max-per-user:2}")
+    private int maxPerUser;
+
+    @Value("${spring.report.jobs.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${spring.report.jobs.dir:uploads/report/jobs}")
+    private String jobsDir = "uploads/report/jobs";
+
+    private final Counter submittedCounter;
+    private final Counter rejectedCounter;
+
+    public ReportJobService(ProjectReportService projectReportService,
+                            MemberEvaluationReportService memberEvaluationReportService,
+                            ProjectMemberReportService projectMemberReportService,
+                            UserService userService,
+                            SimpMessagingTemplate messagingTemplate,
+                            @Qualifier("reportJobExecutor") ThreadPoolTaskExecutor executor,
+                            MeterRegistry meterRegistry) {
+        this.projectReportService = projectReportService;
+        this.memberEvaluationReportService = memberEvaluationReportService;
+        this.projectMemberReportService = projectMemberReportService;
+        this.userService = userService;
+        this.messagingTemplate = messagingTemplate;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+
+        this.submittedCounter = meterRegistry.counter("report.jobs.submitted");
+        this.rejectedCounter = meterRegistry.counter("report.jobs.rejected");
+        meterRegistry.gauge("report.jobs.active", executor, ThreadPoolTaskExecutor::getActiveCount);
+        meterRegistry.gauge("report.jobs.queued", executor, e -> e.getThreadPoolExecutor().getQueue().size());
+    }
+
+    // ---------------- Submit ----------------
+    public ReportJobDto submitProjectReport(Long projectId, ReportFormat format) {
+        checkAccess(() -> projectReportService.checkAccess(projectId));
+        return submit(JobType.PROJECT, format, projectId, null, () -> format == ReportFormat.PDF
+                ? projectReportService.generatePdf(projectId)
+                : projectReportService.generateExcel(projectId));
+    }
+
+    public ReportJobDto submitMemberEvaluationReport(Long projectId, LocalDate from, LocalDate to, ReportFormat format) {
+        checkAccess(() -> memberEvaluationReportService.checkAccess(projectId));
+        return submit(JobType.MEMBER_EVALUATION, format, projectId, null, () -> format == ReportFormat.PDF
+                ? memberEvaluationReportService.generatePdf(projectId, from, to)
+                : memberEvaluationReportService.generateExcel(projectId, from, to));
+    }
+
+    public ReportJobDto submitMemberReport(Long projectId, Long memberId, LocalDate from, LocalDate to, ReportFormat format) {
+        checkAccess(() -> memberEvaluationReportService.checkAccess(projectId));
+        return submit(JobType.MEMBER, format, projectId, memberId, () -> format == ReportFormat.PDF
+                ? projectMemberReportService.generatePdf(projectId, memberId, from, to)
+                : projectMemberReportService.generateExcel(projectId, memberId, from, to));
+    }
+
+    // checkAccess của các report service ném RuntimeException("Access denied...") -> 403
+    private static void checkAccess(Runnable check) {
+        try {
+            check.run();
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, e.getMessage());
+        }
+    }
+
+    private ReportJobDto submit(JobType type, ReportFormat format, Long projectId, Long memberId, ReportTask task) {
+        Long userId = userService.getCurrentUser().getId();
+
+        ReportJobDto job = ReportJobDto.builder()
+                .id(UUID.randomUUID().toString())
+                .type(type)
+                .format(format)
+                .projectId(projectId)
+                .memberId(memberId)
+                .userId(userId)
+                .status(JobStatus.QUEUED)
+                .createdAt(Instant.now())
+                .build();
+
+        // Giới hạn số job đang chờ/chạy của mỗi user
+        synchronized (jobs) {
+            long pending = jobs.values().stream()
+                    .filter(j -> userId.equals(j.getUserId()))
+                    .filter(j -> j.getStatus() == JobStatus.QUEUED || j.getStatus() == JobStatus.RUNNING)
+                    .count();
+            if (pending >= maxPerUser) {
+                rejectedCounter.increment();
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Too many report jobs in progress (max " + maxPerUser + ")");
+            }
+            jobs.put(job.getId(), job);
+        }
+
+        // Copy authentication sang worker thread (UserService.getCurrentUser() đọc từ SecurityContext)
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+        try {
+            executor.execute(() -> run(job, task, securityContext));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            rejectedCounter.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Report queue is full, try again later");
+        }
+        submittedCounter.increment();
+        return job;
+    }
+
+    private void run(ReportJobDto job, ReportTask task, SecurityContext securityContext) {
+        SecurityContextHolder.setContext(securityContext);
+        update(job.getId(), b -> b.status(JobStatus.RUNNING).startedAt(Instant.now()));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        ReportJobDto finished = null;
+        try {
+            // Không bọc transaction: report service dựng model trong transaction ngắn (ReportModelLoader), render sau commit
+            Path generated = task.generate();
+            Path path = keep(job.getId(), generated);
+            finished = update(job.getId(), b -> b.status(JobStatus.DONE).path(path)
+                    .fileName(generated.getFileName().toString()).finishedAt(Instant.now()));
+        } catch (Exception e) {
+            outcome = "failure";
+            log.warn("Report job {} ({}) failed: {}", job.getId(), job.getType(), e.getMessage());
+            finished = update(job.getId(), b -> b.status(JobStatus.FAILED).error(e.getMessage()).finishedAt(Instant.now()));
+        } finally {
+            sample.stop(meterRegistry.timer("report.jobs.duration",
+                    "type", job.getType().name(), "format", job.getFormat().name(), "outcome", outcome));
+            meterRegistry.counter("report.jobs.completed", "outcome", outcome).increment();
+            SecurityContextHolder.clearContext();
+            if (finished != null) {
+                notifyUser(finished);
+            }
+        }
+    }
+
+    // File do report service trả về thuộc về người gọi (cache giữ bản riêng) => chuyển hẳn vào thư mục của job
+    private Path keep(String jobId, Path generated) throws IOException {
+        Path dir = Files.createDirectories(Paths.get(jobsDir, jobId));
+        return Files.move(generated, dir.resolve(generated.getFileName()), StandardCopyOption.REPLACE_EXISTING)
+                .toAbsolutePath();
+    }
+
+    // Job là snapshot bất biến: mỗi lần đổi trạng thái thay cả bản ghi trong map (atomic theo key)
+    private ReportJobDto update(String jobId, UnaryOperator<ReportJobDto.ReportJobDtoBuilder> change) {
+        return jobs.computeIfPresent(jobId, (id, j) -> change.apply(j.toBuilder()).build());
+    }
+
+    private void notifyUser(ReportJobDto job) {
+        try {
+            messagingTemplate.convertAndSend("/topic/reports/" + job.getUserId(), job);
+        } catch (Exception e) {
+            log.debug("Cannot push report job {} status: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    // ---------------- Query ----------------
+    public ReportJobDto getJob(String jobId) {
+        ReportJobDto job = jobs.get(jobId);
+        Long userId = userService.getCurrentUser().getId();
+        if (job == null || !userId.equals(job.getUserId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Report job not found: " + jobId);
+        }
+        return job;
+    }
+
+    public List<ReportJobDto> getMyJobs() {
+        Long userId = userService.getCurrentUser().getId();
+        return jobs.values().stream()
+                .filter(j -> userId.equals(j.getUserId()))
+                .sorted(Comparator.comparing(ReportJobDto::getCreatedAt).reversed())
+                .toList();
+    }
+
+    // ---------------- TTL cleanup ----------------
+    @Scheduled(fixedDelayString = "${spring.report.jobs.cleanup-interval-ms:600000}")
+    public void cleanupExpired() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(ttlMinutes));
+
+        Set<String> live = new HashSet<>();
+        int deleted = 0;
+        for (ReportJobDto j : jobs.values()) {
+            if (j.getFinishedAt() != null && j.getFinishedAt().isBefore(cutoff) && jobs.remove(j.getId(), j)) {
+                deleted += deleteJobDir(Paths.get(jobsDir, j.getId()));
+            } else {
+                live.add(j.getId());
+            }
+        }
+
+        // Thư mục của job không còn trong bộ nhớ (VD còn lại sau khi restart) và đã quá TTL
+        Path root = Paths.get(jobsDir);
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> dirs = Files.list(root)) {
+                for (Path dir : (Iterable<Path>) dirs::iterator) {
+                    try {
+                        if (!live.contains(dir.getFileName().toString())
+                                && Files.getLastModifiedTime(dir).toInstant().isBefore(cutoff)) {
+                            deleted += deleteJobDir(dir);
+                        }
+                    } catch (IOException e) {
+                        log.debug("Cannot check report job dir {}: {}", dir, e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Report cleanup failed: {}", e.getMessage());
+            }
+        }
+        if (deleted > 0) {
+            meterRegistry.counter("report.jobs.files.deleted").increment(deleted);
+            log.info("Deleted {} expired report file(s)", deleted);
+        }
+    }
+
+    // Xoá file trong thư mục của 1 job rồi xoá thư mục; trả về số file đã xoá
+    private static int deleteJobDir(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                if (Files.deleteIfExists(p)) {
+                    deleted++;
+                }
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            log.debug("Cannot delete expired report job dir {}: {}", dir, e.getMessage());
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,53 @@
+package personal.project.teamwork_management.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Dựng model báo cáo (buildModel) trong 1 transaction ngắn riêng, commit xong mới render Thymeleaf / PDF / XLSX:
+ * job báo cáo trên reportJobExecutor chỉ giữ kết nối DB lúc đọc dữ liệu, không giữ suốt lúc render.
+ * Bước model còn ghi như đường đồng bộ (log READ, progress, chuyển OVERDUE) nên transaction không read-only.
+ */
+@Component
+public class ReportModelLoader {
+
+    @FunctionalInterface
+    public interface ModelBuilder<T> {
+        T build() throws Exception;
+    }
+
+    private final TransactionTemplate tx;
+
+    public ReportModelLoader(PlatformTransactionManager transactionManager) {
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T load(ModelBuilder<T> builder) throws Exception {
+        try {
+            return tx.execute(status -> {
+                try {
+                    return builder.build();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new LoadFailure(e);
+                }
+            });
+        } catch (LoadFailure e) {
+            throw e.getCause(); // exception gốc của buildModel
+        }
+    }
+
+    /** Bọc checked exception của buildModel để đi qua TransactionCallback. */
+    private static final class LoadFailure extends RuntimeException {
+        LoadFailure(Exception cause) {
+            super(cause.getMessage(), cause);
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package personal.project.teamwork_management.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * ETag mạnh cho các GET hay bị poll (chi tiết project, danh sách project, danh sách task), tính chỉ từ counter
+ * trong bộ nhớ nên trả 304 được trước khi ghép DTO.
+ * <ul>
+ *     <li>project: version dữ liệu của project đó</li>
+ *     <li>user: version toàn cục + userId (danh sách gộp nhiều project của user, kèm members/tasks)</li>
+ * </ul>
+ * ETag còn gồm id lần khởi động (counter bắt đầu lại từ 0) và cửa sổ thời gian spring.etag.window-seconds:
+ * OVERDUE, NOT_STARTED -> IN_PROGRESS đổi theo thời gian, tên/email user không phát event nên không làm tăng version.
+ */
+@Service
+public class ResourceETagService {
+
+    private final ProjectDataVersionService versionService;
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+
+    @Value("${spring.etag.window-seconds:60}")
+    private long windowSeconds = 60;
+
+    public ResourceETagService(ProjectDataVersionService versionService) {
+        this.versionService = versionService;
+    }
+
+    public String forProject(Long projectId) {
+        return etag("p" + projectId + "-" + versionService.getVersion(projectId));
+    }
+
+    public String forUser(Long userId) {
+        return etag("u" + userId + "-" + versionService.getGlobalVersion());
+    }
+
+    private String etag(String version) {
+        long window = System.currentTimeMillis() / 1000 / Math.max(1, windowSeconds);
+        return "\"" + version + "-" + boot + "-" + window + "\"";
+    }
+}
@@ -0,0 +1,139 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import personal.project.teamwork_management.util.RequestSqlStats;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nhận số liệu SQL của từng request (SqlStatsFilter): ghi metric Micrometer theo endpoint,
+ * cảnh báo request vượt ngưỡng statement hoặc lặp 1 dạng câu nhiều lần (N+1),
+ * giữ tổng hợp theo endpoint cho actuator "sqlstats".
+ */
+@Slf4j
+@Service
+public class SqlStatsService {
+
+    public static final String REASON_STATEMENTS = "statements";
+    public static final String REASON_REPEATED = "repeated";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    @Value("${spring.sql-stats.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${spring.sql-stats.statement-threshold:50}")
+    private int statementThreshold = 50;
+
+    @Value("${spring.sql-stats.repeat-threshold:10}")
+    private int repeatThreshold = 10;
+
+    public SqlStatsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(String method, String uri, RequestSqlStats stats) {
+        DistributionSummary.builder("http.server.sql.statements")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("http.server.sql.entity.loads")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getEntityLoads());
+        Timer.builder("http.server.sql.time")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        Map.Entry<String, Integer> repeated = stats.mostRepeated();
+        List<String> reasons = new ArrayList<>(2);
+        if (stats.getStatements() > statementThreshold) reasons.add(REASON_STATEMENTS);
+        if (repeated != null && repeated.getValue() >= repeatThreshold) reasons.add(REASON_REPEATED);
+        for (String reason : reasons) {
+            meterRegistry.counter("http.server.sql.flagged", "method", method, "uri", uri, "reason", reason).increment();
+        }
+        if (!reasons.isEmpty()) {
+            log.warn("SQL hot spot {} {}: {} statements, {} ms JDBC, {} entity loads; '{}' x{}",
+                    method, uri, stats.getStatements(), TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos()),
+                    stats.getEntityLoads(), repeated.getKey(), repeated.getValue());
+        }
+
+        endpoints.computeIfAbsent(method + " " + uri, EndpointStats::new).add(stats, repeated, !reasons.isEmpty());
+    }
+
+    /** Endpoint tệ nhất theo số statement trung bình / request. */
+    public List<Map<String, Object>> topOffenders(int limit) {
+        return endpoints.values().stream()
+                .map(EndpointStats::snapshot)
+                .sorted(Comparator.comparingDouble((Map<String, Object> m) -> (double) m.get("avgStatements")).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private static final class EndpointStats {
+
+        private final String endpoint;
+        private long requests;
+        private long flagged;
+        private long totalStatements;
+        private int maxStatements;
+        private long totalJdbcNanos;
+        private long totalEntityLoads;
+        private String worstShape;
+        private int worstShapeCount;
+        private Instant lastFlaggedAt;
+
+        EndpointStats(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized void add(RequestSqlStats stats, Map.Entry<String, Integer> repeated, boolean isFlagged) {
+            requests++;
+            totalStatements += stats.getStatements();
+            maxStatements = Math.max(maxStatements, stats.getStatements());
+            totalJdbcNanos += stats.getJdbcNanos();
+            totalEntityLoads += stats.getEntityLoads();
+            if (repeated != null && repeated.getValue() > worstShapeCount) {
+                worstShape = repeated.getKey();
+                worstShapeCount = repeated.getValue();
+            }
+            if (isFlagged) {
+                flagged++;
+                lastFlaggedAt = Instant.now();
+            }
+        }
+
+        synchronized Map<String, Object> snapshot() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("endpoint", endpoint);
+            m.put("requests", requests);
+            m.put("flagged", flagged);
+            m.put("avgStatements", requests == 0 ? 0.0 : (double) totalStatements / requests);
+            m.put("maxStatements", maxStatements);
+            m.put("avgJdbcMs", requests == 0 ? 0.0 : totalJdbcNanos / 1_000_000.0 / requests);
+            m.put("avgEntityLoads", requests == 0 ? 0.0 : (double) totalEntityLoads / requests);
+            m.put("mostRepeatedStatement", worstShape);
+            m.put("mostRepeatedCount", worstShapeCount);
+            m.put("lastFlaggedAt", lastFlaggedAt);
+            return m;
+        }
+    }
+}
@@ -41,6 +41,9 @@ public class TaskApprovalService {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private DomainMetrics domainMetrics;
+
 
 
     public TaskApprovalLog getTaskApprovalLogById(Long id) {
@@ -84,18 +87,19 @@ public class TaskApprovalService {
                 ActivityType.SUBMITTED_TASK
         );
         List<ProjectMember> members = projectMemberRepository.findByProjectId(task.getProject().getId());
-        for(ProjectMember member : members) {
-            if (member.getRole() == Role.LEADER || member.getRole() == Role.VICE_LEADER) {
-                notificationService.createNotification(
-                        (note == null || note.isEmpty()) ? "New submission for task approval " + task.getTitle() :
-                        "New submission for task approval " + task.getTitle() + " with note: " + note,
-                        NotificationType.TASK_SUBMITTED,
-                        member.getUser().getId(),
-                        log.getId(),
-                        "TaskApprovalLog"
-                );
-            }
-        }
+        notificationService.notifyUsers(
+                (note == null || note.isEmpty()) ? "New submission for task approval " + task.getTitle() :
+                "New submission for task approval " + task.getTitle() + " with note: " + note,
+                NotificationType.TASK_SUBMITTED,
+                members.stream()
+                        .filter(member -> member.getRole() == Role.LEADER || member.getRole() == Role.VICE_LEADER)
+                        .map(member -> member.getUser().getId())
+                        .toList(),
+                log.getId(),
+                "TaskApprovalLog",
+                task.getProject().getId()
+        );
+        countAction(ApprovalAction.SUBMIT, task);
         return log;
     }
 
@@ -138,6 +142,7 @@ public class TaskApprovalService {
                 approvalLog.getId(),
                 "TaskApprovalLog"
         );
+        countAction(ApprovalAction.APPROVE, task);
         return approvalLog;
     }
 
@@ -178,9 +183,16 @@ public class TaskApprovalService {
                 rejectionLog.getId(),
                 "TaskApprovalLog"
         );
+        countAction(ApprovalAction.REJECT, task);
         return rejectionLog;
     }
 
+    // approvals.actions{action=SUBMIT|APPROVE|REJECT, projectSize}
+    private void countAction(ApprovalAction action, Task task) {
+        domainMetrics.count("approvals.actions", domainMetrics.projectSize(task.getProject().getId()),
+                "action", action.name());
+    }
+
     @Transactional(readOnly = true)
     public long countSubmissionsByUserAndProjectBetween(Long userId, Long projectId, Date from, Date to) {
         return logRepository.countSubmissions(userId, projectId, from, to);
@@ -0,0 +1,81 @@
+package personal.project.teamwork_management.service;
+
+import java.util.*;
+
+/**
+ * Cây task của 1 project dựng từ TaskRepository.findProgressRowsByProjectId (id, parent_id, priority, level, progress),
+ * tính progress đệ quy trong bộ nhớ thay cho findById + findByParentId + save từng task.
+ * Task cha có progress lưu trong DB khác giá trị tính lại được gom vào {@link #changes()} để ghi 1 lượt.
+ */
+final class TaskProgressTree {
+
+    private final Map<Long, Object[]> rows = new HashMap<>();
+    private final Map<Long, List<Object[]>> children = new HashMap<>();
+    private final List<Object[]> levelOne = new ArrayList<>();
+    private final Map<Long, Integer> changes = new LinkedHashMap<>();
+    private int visited;
+
+    TaskProgressTree(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            this.rows.put((Long) row[0], row);
+            if (Integer.valueOf(1).equals(row[3])) levelOne.add(row);
+            if (row[1] != null) children.computeIfAbsent((Long) row[1], k -> new ArrayList<>()).add(row);
+        }
+    }
+
+    // số task của project
+    int size() {
+        return rows.size();
+    }
+
+    // số task đã duyệt từ khi tạo cây
+    int visited() {
+        return visited;
+    }
+
+    // task id -> progress mới (đã +1 như khi hiển thị) của các task cha cần ghi lại
+    Map<Long, Integer> changes() {
+        return changes;
+    }
+
+    // progress cả project: trung bình các task tầng 1 theo priority
+    Double projectProgress() {
+        Double totalWeightScore = 0D;
+        Double totalProgress = 0D;
+        for (Object[] task : levelOne) {
+            Double weightScore = (double) (Integer) task[2];
+            totalWeightScore += weightScore;
+            totalProgress += weightScore * taskProgress(task) / 100;
+        }
+        return totalProgress / totalWeightScore * 100;
+    }
+
+    // progress cây con của taskId; null nếu task không thuộc project
+    Double taskProgress(Long taskId) {
+        Object[] task = rows.get(taskId);
+        return task != null ? taskProgress(task) : null;
+    }
+
+    // subtask: trọng số priority / level
+    private Double taskProgress(Object[] task) {
+        visited++;
+        List<Object[]> subTasks = children.get((Long) task[0]);
+        if (subTasks == null || subTasks.isEmpty()) {
+            return (double) (Integer) task[4];
+        }
+        Double totalWeightScore = 0D;
+        Double totalProgress = 0D;
+        for (Object[] subTask : subTasks) {
+            Double weightScore = (double) (Integer) subTask[2] / (double) (Integer) subTask[3];
+            totalWeightScore += weightScore;
+            totalProgress += weightScore * taskProgress(subTask) / 100;
+        }
+        Double progress = totalProgress / totalWeightScore * 100;
+        Integer intProgress = progress.intValue();
+        Integer newProgress = intProgress < 100 ? intProgress + 1 : intProgress;
+        if (!newProgress.equals(task[4])) {
+            changes.put((Long) task[0], newProgress);
+        }
+        return progress;
+    }
+}
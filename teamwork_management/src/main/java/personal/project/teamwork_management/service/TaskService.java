@@ -7,6 +7,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import personal.project.teamwork_management.dto.DtoView;
 import personal.project.teamwork_management.dto.TaskDto;
 import personal.project.teamwork_management.dto.UserDto;
 import personal.project.teamwork_management.model.*;
@@ -19,6 +20,8 @@ import java.util.*;
 @Service
 public class TaskService {
 
+    private static final List<Status> OVERDUE_EXCLUDED = List.of(Status.COMPLETED, Status.OVERDUE, Status.CANCELED);
+
     @Autowired
     private TaskRepository taskRepository;
     @Autowired
@@ -35,6 +38,8 @@ public class TaskService {
     private TaskInteractionService taskInteractionService;
     @Autowired
     private UserActivityService userActivityService;
+    @Autowired
+    private DomainMetrics domainMetrics;
 
     public TaskDto createTask(TaskDto taskDto, Long projectId) throws Exception {
         User currentUser = userService.getCurrentUser();
@@ -126,6 +131,9 @@ public class TaskService {
         return getTaskById(task.getId());
     }
 
+    // Một transaction cho cả lần đọc: findById lặp lại lấy từ persistence context; chỉ ghi khi giá trị thực sự đổi
+    // (ghi => version project tăng => cache/ETag của project bị loại)
+    @Transactional
     public TaskDto getTaskById(Long taskId) throws Exception {
 
         Task task = taskRepository.findById(taskId)
@@ -146,7 +154,9 @@ public class TaskService {
         taskDto.setPriority(task.getPriority());
 //        taskDto.setProgress(task.getProgress());
 
-        Integer intProgress = calculateTaskProgress(task.getId()).intValue();
+        // progress.recompute{scope=task}: thời gian + số node của cây con
+        Integer intProgress = domainMetrics.progressRecompute(task.getProject().getId(), task.getId(),
+                nodes -> calculateTaskProgress(task, nodes)).intValue();
         taskDto.setProgress(intProgress < 100 ? intProgress + 1 : intProgress);
 
         taskDto.setLevel(task.getLevel());
@@ -154,7 +164,7 @@ public class TaskService {
 
         if(taskDto.getProgress() == 100 && task.getStatus() != Status.COMPLETED && task.getStatus() != Status.OVERDUE) {
             task.setStatus(Status.COMPLETED);
-            task = taskRepository.save(task);
+            taskRepository.save(task);
         }
         taskDto.setStatus(task.getStatus());
 
@@ -163,68 +173,62 @@ public class TaskService {
         taskDto.setParentId(task.getParent() != null ? task.getParent().getId() : null);
         taskDto.setDeadline(task.getDeadline());
 
-        List<UserDto> assignedUsers = new ArrayList<>();
-        Set<Long> assignedUserIds = getAllAssignedUserIds(taskDto.getId());
-        for(Long id : assignedUserIds){
-            UserDto user = userRepository.findUserDtoById(id);
-            assignedUsers.add(user);
-        }
-
-        taskDto.setAssignedUsers(assignedUsers);
+        Set<Long> assignedUserIds = getAllAssignedUserIds(task);
+        taskDto.setAssignedUsers(assignedUserIds.isEmpty()
+                ? new ArrayList<>() : userRepository.findUserDtosByIds(assignedUserIds));
 
         return taskDto;
     }
 
     public Double calculateTaskProgress(Long taskId){
-        Double totalWeightScore = 0D;
-        Double totalProgress = 0D;
         Task task = taskRepository.findById(taskId).get();
-        List<Task> subTasks = taskRepository.findByParentId(taskId);
-        if(subTasks == null || subTasks.isEmpty()) {
-            return (double) task.getProgress(); // No sub-tasks, return 100% progress
-        }
-        for(Task subTask: subTasks){
-            Double weightScore = (double) subTask.getPriority() / (double) subTask.getLevel();
-            totalWeightScore += weightScore;
-            totalProgress += weightScore * calculateTaskProgress(subTask.getId()) /100;
+        return calculateTaskProgress(task, new int[1]);
+    }
+
+    // nodes[0]: số task đã duyệt. 1 query cho cả cây của project rồi tính cây con trong bộ nhớ,
+    // chỉ ghi task cha có progress đổi (trước đây findById + findByParentId + save mỗi task)
+    private Double calculateTaskProgress(Task task, int[] nodes){
+        Long projectId = task.getProject().getId();
+        TaskProgressTree tree = new TaskProgressTree(taskRepository.findProgressRowsByProjectId(projectId));
+        Double progress = tree.taskProgress(task.getId());
+        nodes[0] = tree.visited();
+
+        Map<Long, Integer> changes = new HashMap<>(tree.changes());
+        // chính task này ghi qua entity: nếu UPDATE hàng loạt, lần flush sau của entity (VD đổi status) ghi lại progress cũ
+        Integer ownProgress = changes.remove(task.getId());
+        if (ownProgress != null) {
+            task.setProgress(ownProgress);
+            taskRepository.save(task);
         }
-        Double progress = totalProgress / totalWeightScore * 100;
-        Integer intProgress = progress.intValue();
-        task.setProgress(intProgress < 100 ? intProgress + 1 : intProgress);
-        taskRepository.save(task);
+        projectService.saveTaskProgress(projectId, changes);
 
         return progress;
     }
 
-    public Set<Long> getAllAssignedUserIds(Long taskId) {
+    // Gộp assignee của cả cây con vào task: 1 query (task, cha, user) cho cả project rồi duyệt cây trong bộ nhớ
+    public Set<Long> getAllAssignedUserIds(Task task) {
+        Map<Long, List<Long>> children = new HashMap<>();
+        Map<Long, List<Long>> assignees = new HashMap<>();
+        for (Object[] row : taskRepository.findAssigneeRowsByProjectId(task.getProject().getId())) {
+            Long id = (Long) row[0];
+            if (row[1] != null) children.computeIfAbsent((Long) row[1], k -> new ArrayList<>()).add(id);
+            if (row[2] != null) assignees.computeIfAbsent(id, k -> new ArrayList<>()).add((Long) row[2]);
+        }
+
         Set<Long> userIds = new HashSet<>();
         Deque<Long> stack = new ArrayDeque<>();
-        stack.push(taskId);
-
+        stack.push(task.getId());
         while (!stack.isEmpty()) {
             Long currentId = stack.pop();
-            Task task = taskRepository.findById(currentId)
-                    .orElseThrow(() -> new RuntimeException("Task not found: " + currentId));
-
-            if (task.getAssignedUsers() != null) {
-                task.getAssignedUsers().forEach(user -> userIds.add(user.getId()));
-            }
-
-            List<Task> subTasks = taskRepository.findByParentId(currentId);
-            for (Task subTask : subTasks) {
-                stack.push(subTask.getId());
-            }
+            userIds.addAll(assignees.getOrDefault(currentId, List.of()));
+            children.getOrDefault(currentId, List.of()).forEach(stack::push);
         }
-        List<User> users = new ArrayList<>();
-        for(Long userId : userIds) {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found: " + userId));
-            users.add(user);
+
+        // set mới cho collection => Hibernate xoá rồi chèn lại toàn bộ task_user của task: chỉ làm khi tập user đổi
+        if (!new HashSet<>(assignees.getOrDefault(task.getId(), List.of())).equals(userIds)) {
+            task.setAssignedUsers(new ArrayList<>(userRepository.findAllById(userIds)));
+            taskRepository.save(task);
         }
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
-        task.setAssignedUsers(users);
-        taskRepository.save(task);
 
         return userIds;
     }
@@ -232,7 +236,8 @@ public class TaskService {
     public TaskDto getTaskByIdForController(Long taskId) throws Exception {
         TaskDto taskDto = getTaskById(taskId);
 
-        taskInteractionService.createTaskInteraction(taskRepository.findById(taskId).get());
+        // interaction chỉ cần khoá ngoại task: không SELECT lại task
+        taskInteractionService.createTaskInteraction(taskRepository.getReferenceById(taskId));
 
         return taskDto;
     }
@@ -245,18 +250,16 @@ public class TaskService {
                 && task.getStatus() != Status.CANCELED) {
             task.setStatus(Status.OVERDUE);
 
-            for(User user : task.getAssignedUsers()){
-            notificationService.createNotification(
+            notificationService.notifyUsers(
                "Task " + task.getTitle() + " is overdue",
                 NotificationType.TASK_UPDATED,
-                user.getId(),
+                task.getAssignedUsers().stream().map(User::getId).toList(),
                 task.getId(),
-                "Task"
+                "Task",
+                task.getProject().getId()
             );
+            taskRepository.save(task);
         }
-        }
-        taskRepository.save(task);   
-
     }
 
     public TaskDto checkTaskDone(Long id) throws Exception{
@@ -282,78 +285,78 @@ public class TaskService {
             tasks.poll();
         }
 
-        for(User user : task.getAssignedUsers()) {
-            notificationService.createNotification(
-                "Task " + task.getTitle() + " is completed",
-                NotificationType.TASK_UPDATED,
-                user.getId(),
-                task.getId(),
-                "Task"
-            );
-        }
+        notificationService.notifyUsers(
+            "Task " + task.getTitle() + " is completed",
+            NotificationType.TASK_UPDATED,
+            task.getAssignedUsers().stream().map(User::getId).toList(),
+            task.getId(),
+            "Task",
+            task.getProject().getId()
+        );
 
         return getTaskById(task.getId());
     }
 
-    public List<TaskDto> getAllTasksByProjectId(Long projectId) {
-        List<TaskDto> tasks = taskRepository.findAllTasksDtoByProjectId(projectId);
-        for (TaskDto taskDto : tasks) {
-            Task task = taskRepository.findById(taskDto.getId()).orElse(null);
-            if (task != null) {
-                updateOverdueTask(task);
+    /**
+     * GET /api/tasks theo view: DETAIL như getAllTasksBy...; ROW / CARD đọc projection rút gọn (cùng phạm vi,
+     * cùng cập nhật OVERDUE).
+     */
+    public List<?> getTasks(DtoView view, Long projectId, Long userId) {
+        if (view == DtoView.DETAIL) {
+            if (projectId != null && userId != null) {
+                return getAllTasksByProjectIdAndUserId(projectId, userId);
             }
-
-            List<UserDto> assignedUsers = new ArrayList<>();
-            for (User user : task.getAssignedUsers()) {
-                UserDto userDto = new UserDto();
-                userDto.setId(user.getId());
-                userDto.setFirstName(user.getFirstName());
-                userDto.setLastName(user.getLastName());
-                userDto.setEmail(user.getEmail());
-                userDto.setPhoneNumber(user.getPhoneNumber());
-                userDto.setDob(user.getDob());
-                assignedUsers.add(userDto);
+            if (projectId != null) {
+                return getAllTasksByProjectId(projectId);
             }
-            taskDto.setAssignedUsers(assignedUsers);
+            return getAllTasksByUserId(userId);
+        }
+        if (projectId == null && userId == null) {
+            return List.of();
         }
+        refreshOverdueTasks(projectId, userId);
+        return view == DtoView.ROW
+                ? taskRepository.findTaskRows(projectId, userId)
+                : taskRepository.findTaskCards(projectId, userId);
+    }
+
+    // Chỉ load task thực sự quá hạn để chuyển OVERDUE (trước đây findById + save từng task của danh sách)
+    public List<TaskDto> getAllTasksByProjectId(Long projectId) {
+        refreshOverdueTasks(projectId);
         return taskRepository.findAllTasksDtoByProjectId(projectId);
     }
 
     public List<TaskDto> getAllTasksByUserId(Long userId) {
-        List<TaskDto> tasks = taskRepository.findAllTasksDtoByUserId(userId);
-        for (TaskDto taskDto : tasks) {
-            Task task = taskRepository.findById(taskDto.getId()).orElse(null);
-            if (task != null) {
-                updateOverdueTask(task);
-            }
-
-            List<UserDto> assignedUsers = new ArrayList<>();
-            for (User user : task.getAssignedUsers()) {
-                UserDto userDto = new UserDto();
-                userDto.setId(user.getId());
-                userDto.setFirstName(user.getFirstName());
-                userDto.setLastName(user.getLastName());
-                userDto.setEmail(user.getEmail());
-                userDto.setPhoneNumber(user.getPhoneNumber());
-                userDto.setDob(user.getDob());
-                assignedUsers.add(userDto);
-            }
-            taskDto.setAssignedUsers(assignedUsers);
-        }
+        markOverdue(taskRepository.findOverdueCandidatesByAssignee(null, userId, new Date(), OVERDUE_EXCLUDED));
         return taskRepository.findAllTasksDtoByUserId(userId);
     }
 
     public List<TaskDto> getAllTasksByProjectIdAndUserId(Long projectId, Long userId) {
-        List<TaskDto> tasks = taskRepository.findAllTasksDtoByProjectIdAndUserId(projectId, userId);
-        for (TaskDto taskDto : tasks) {
-            Task task = taskRepository.findById(taskDto.getId()).orElse(null);
-            if (task != null) {
-                updateOverdueTask(task);
-            }
-        }
+        markOverdue(taskRepository.findOverdueCandidatesByAssignee(projectId, userId, new Date(), OVERDUE_EXCLUDED));
         return taskRepository.findAllTasksDtoByProjectIdAndUserId(projectId, userId);
     }
 
+    /** Chuyển OVERDUE (+ notification) các task quá hạn của project. Trả về số task vừa chuyển. */
+    public int refreshOverdueTasks(Long projectId) {
+        return markOverdue(taskRepository.findOverdueCandidates(projectId, new Date(), OVERDUE_EXCLUDED));
+    }
+
+    /** Cập nhật OVERDUE đúng phạm vi của getAllTasksBy... (project / user / cả hai), dùng trước khi stream danh sách. */
+    public void refreshOverdueTasks(Long projectId, Long userId) {
+        if (projectId != null && userId == null) {
+            refreshOverdueTasks(projectId);
+        } else {
+            markOverdue(taskRepository.findOverdueCandidatesByAssignee(projectId, userId, new Date(), OVERDUE_EXCLUDED));
+        }
+    }
+
+    private int markOverdue(List<Task> candidates) {
+        for (Task task : candidates) {
+            updateOverdueTask(task);
+        }
+        return candidates.size();
+    }
+
     public TaskDto updateTask(Long id, TaskDto taskDto) throws Exception {
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new Exception("Task not found"));
@@ -791,17 +794,17 @@ public class TaskService {
         task = taskRepository.save(task);
         
         // Send notifications to assigned users
-        for (User assignedUser : task.getAssignedUsers()) {
-            if (!assignedUser.getId().equals(currentUser.getId())) {
-                notificationService.createNotification(
-                    "Bạn được giao nhiệm vụ: " + task.getTitle(),
-                    NotificationType.TASK_ASSIGNED,
-                    assignedUser.getId(),
-                    task.getId(),
-                    "Task"
-                );
-            }
-        }
+        notificationService.notifyUsers(
+            "Bạn được giao nhiệm vụ: " + task.getTitle(),
+            NotificationType.TASK_ASSIGNED,
+            task.getAssignedUsers().stream()
+                .map(User::getId)
+                .filter(userId -> !userId.equals(currentUser.getId()))
+                .toList(),
+            task.getId(),
+            "Task",
+            task.getProject().getId()
+        );
         
         return convertToDto(task);
     }
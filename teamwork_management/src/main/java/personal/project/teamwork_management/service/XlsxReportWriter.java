@@ -0,0 +1,111 @@
+package personal.project.teamwork_management.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Ghi bảng báo cáo thẳng từ model sang XLSX bằng SXSSFWorkbook (chỉ giữ N dòng trong bộ nhớ),
+ * không qua HTML + Jsoup như HtmlToExcelService. Layout giữ giống bản HTML: tiêu đề, meta, dòng trống, header, body.
+ */
+@Service
+public class XlsxReportWriter {
+
+    /** 1 cột: tiêu đề + cách lấy giá trị từ 1 dòng model và số thứ tự (từ 1) của dòng đó. */
+    public record Column<T>(String header, BiFunction<T, Integer, Object> value) {
+
+        public Column(String header, Function<T, Object> value) {
+            this(header, (item, no) -> value.apply(item));
+        }
+
+        /** Cột "#" đánh số theo thứ tự ghi, không cần tìm lại dòng trong danh sách. */
+        public static <T> Column<T> rowNumber(String header) {
+            return new Column<>(header, (item, no) -> no);
+        }
+    }
+
+    @Value("${spring.report.excel.row-window:100}")
+    private int rowWindow = 100;
+
+    public <T> void write(OutputStream out, String title, Map<String, String> meta,
+                          List<Column<T>> columns, Iterable<T> rows) throws IOException {
+        SXSSFWorkbook wb = new SXSSFWorkbook(rowWindow);
+        try {
+            SXSSFSheet sheet = wb.createSheet("Report");
+            // autoSize cần theo dõi độ rộng trước khi dòng bị flush ra đĩa
+            sheet.trackAllColumnsForAutoSizing();
+            int r = 0;
+
+            CellStyle bold = wb.createCellStyle();
+            Font font = wb.createFont();
+            font.setBold(true);
+            bold.setFont(font);
+
+            // Tiêu đề + meta
+            if (title != null && !title.isBlank()) {
+                Cell c0 = sheet.createRow(r++).createCell(0);
+                c0.setCellValue(title);
+                c0.setCellStyle(bold);
+            }
+            if (meta != null && !meta.isEmpty()) {
+                for (Map.Entry<String, String> e : meta.entrySet()) {
+                    Row row = sheet.createRow(r++);
+                    Cell k = row.createCell(0);
+                    k.setCellValue(e.getKey());
+                    k.setCellStyle(bold);
+                    row.createCell(1).setCellValue(e.getValue() != null ? e.getValue() : "");
+                }
+            }
+            if (r > 0) r++; // dòng trống
+
+            // Header
+            Row header = sheet.createRow(r++);
+            for (int c = 0; c < columns.size(); c++) {
+                Cell cell = header.createCell(c);
+                cell.setCellValue(columns.get(c).header());
+                cell.setCellStyle(bold);
+            }
+
+            // Body
+            int no = 0;
+            for (T item : rows) {
+                no++;
+                Row row = sheet.createRow(r++);
+                for (int c = 0; c < columns.size(); c++) {
+                    setValue(row.createCell(c), columns.get(c).value().apply(item, no));
+                }
+            }
+
+            for (int i = 0; i < columns.size(); i++) {
+                try { sheet.autoSizeColumn(i); } catch (Exception ignored) {}
+            }
+
+            wb.write(out);
+        } finally {
+            wb.close();
+            wb.dispose(); // xoá file tạm của SXSSF
+        }
+    }
+
+    private static void setValue(Cell cell, Object v) {
+        if (v == null) {
+            cell.setCellValue("");
+        } else if (v instanceof Number n) {
+            cell.setCellValue(n.doubleValue());
+        } else {
+            cell.setCellValue(String.valueOf(v));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package personal.project.teamwork_management.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * Ghi CSV (RFC 4180, UTF-8, xuống dòng CRLF) từng dòng ra stream, không giữ dữ liệu trong bộ nhớ.
+ * Date ghi dạng ISO-8601 kèm offset (Asia/Bangkok).
+ * Chuỗi bắt đầu bằng = + - @ (hoặc tab, CR) được thêm ' phía trước để Excel/Sheets không chạy như công thức.
+ */
+public class CsvWriter implements Flushable, Closeable {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+    private final Writer out;
+
+    public CsvWriter(OutputStream os) {
+        this.out = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    public void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) out.write(',');
+            writeValue(values[i]);
+        }
+        out.write("\r\n");
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) return;
+        String s;
+        if (value instanceof Date d) {
+            s = Instant.ofEpochMilli(d.getTime()).atZone(ZONE).toOffsetDateTime().format(DATE_TIME);
+        } else if (value instanceof Enum<?> e) {
+            s = e.name();
+        } else if (value instanceof Number) {
+            s = value.toString(); // số âm giữ nguyên
+        } else {
+            s = neutralizeFormula(value.toString());
+        }
+        if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+            out.write('"');
+            out.write(s.replace("\"", "\"\""));
+            out.write('"');
+        } else {
+            out.write(s);
+        }
+    }
+
+    private static String neutralizeFormula(String s) {
+        if (s.isEmpty()) return s;
+        char c = s.charAt(0);
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r' ? "'" + s : s;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
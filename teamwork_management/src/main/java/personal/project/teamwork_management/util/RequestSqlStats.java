@@ -0,0 +1,82 @@
+package personal.project.teamwork_management.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Số liệu SQL của request hiện tại (theo thread): số statement, thời gian JDBC, số entity load,
+ * số lần lặp của từng "dạng" câu SQL (literal thay bằng ?). Hook Hibernate ghi vào, SqlStatsFilter mở/đóng.
+ * Ngoài request (job, executor khác) current() là null -> hook bỏ qua.
+ */
+public final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final int MAX_SHAPE_LENGTH = 300;
+
+    private int statements;
+    private long jdbcNanos;
+    private int entityLoads;
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    private RequestSqlStats() {
+    }
+
+    public static RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public void onStatement(String sql) {
+        statements++;
+        shapes.merge(shape(sql), 1, Integer::sum);
+    }
+
+    public void onJdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    public void onEntityLoad() {
+        entityLoads++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    /** Dạng câu lặp nhiều nhất (null nếu chưa có statement nào). */
+    public Map.Entry<String, Integer> mostRepeated() {
+        return shapes.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+    }
+
+    /** "select ... where id=42 and name='a'" và "... id=7 ..." cùng dạng; IN (?, ?, ?) gộp thành IN (?). */
+    static String shape(String sql) {
+        String s = STRING_LITERAL.matcher(sql).replaceAll("?");
+        s = NUMBER_LITERAL.matcher(s).replaceAll("?");
+        s = IN_LIST.matcher(s).replaceAll("(?)");
+        s = SPACES.matcher(s).replaceAll(" ").trim();
+        return s.length() > MAX_SHAPE_LENGTH ? s.substring(0, MAX_SHAPE_LENGTH) : s;
+    }
+}
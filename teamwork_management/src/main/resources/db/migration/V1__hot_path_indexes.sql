@@ -0,0 +1,21 @@
+-- Index cho các truy vấn nóng (trước đây chỉ có PK, index của FK và unique email => quét bảng).
+-- Tên cột theo naming mặc định của Hibernate (camelCase -> snake_case).
+-- task(parent_task_id): InnoDB đã tự tạo index cho FK parent_task_id (findByParentId), không tạo trùng.
+
+-- Cây task theo project: findByProjectIdAndLevel, task level 1 khi build báo cáo, findOverdueCandidates (project_id)
+CREATE INDEX idx_task_project_level ON task (project_id, level);
+
+-- Quét OVERDUE toàn cục và các đếm theo kỳ (deadline BETWEEN ...) kèm status
+CREATE INDEX idx_task_deadline_status ON task (deadline, status);
+
+-- Thông báo chưa đọc của user, mới nhất trước
+CREATE INDEX idx_notification_user_read_created ON notification (user_id, is_read, created_at);
+
+-- Hoạt động theo đối tượng (target_type = 'Project' AND target_id = ?) ORDER BY timestamp DESC
+CREATE INDEX idx_user_activity_target_time ON user_activity (target_type, target_id, timestamp);
+
+-- Log project theo khoảng thời gian (báo cáo, export CSV)
+CREATE INDEX idx_project_log_project_created ON project_log (project_id, created_at);
+
+-- Thống kê duyệt task theo người thực hiện / action / kỳ (countSubmissions, countByStatus)
+CREATE INDEX idx_approval_user_action_created ON task_approval_logs (user_id, action, created_at);
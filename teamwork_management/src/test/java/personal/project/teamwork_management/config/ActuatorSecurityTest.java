@@ -0,0 +1,76 @@
+package personal.project.teamwork_management.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import personal.project.teamwork_management.model.User;
+import personal.project.teamwork_management.repository.UserRepository;
+import personal.project.teamwork_management.util.JwtUtil;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Actuator ngoài health chỉ cho tài khoản quản trị (spring.security.user), user đăng nhập bằng JWT bị chặn.
+ */
+@SpringBootTest(properties = {
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test",
+        "spring.report.snapshots.enabled=false",
+        "spring.security.user.name=ops",
+        "spring.security.user.password=ops-secret"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserRepository userRepository;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.findByEmail("actuator@test.local");
+        if (user == null) {
+            user = new User();
+            user.setEmail("actuator@test.local");
+            user.setPassword("x");
+            userRepository.save(user);
+        }
+        bearer = "Bearer " + jwtUtil.generateToken("actuator@test.local");
+    }
+
+    @Test
+    void healthIsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    void appUsersCannotReadOrResetSqlStats() throws Exception {
+        mockMvc.perform(get("/actuator/sqlstats").header("Authorization", bearer)).andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/actuator/sqlstats").header("Authorization", bearer)).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/jfr").header("Authorization", bearer)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void wrongAdminPasswordIsRejected() throws Exception {
+        mockMvc.perform(get("/actuator/sqlstats").with(httpBasic("ops", "nope"))).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void adminCanUseActuator() throws Exception {
+        mockMvc.perform(get("/actuator/sqlstats").with(httpBasic("ops", "ops-secret"))).andExpect(status().isOk());
+        mockMvc.perform(delete("/actuator/sqlstats").with(httpBasic("ops", "ops-secret"))).andExpect(status().isNoContent());
+    }
+}
@@ -0,0 +1,146 @@
+package personal.project.teamwork_management.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import personal.project.teamwork_management.model.Project;
+import personal.project.teamwork_management.model.Status;
+import personal.project.teamwork_management.model.Task;
+import personal.project.teamwork_management.model.User;
+import personal.project.teamwork_management.repository.ProjectRepository;
+import personal.project.teamwork_management.repository.TaskRepository;
+import personal.project.teamwork_management.repository.UserRepository;
+import personal.project.teamwork_management.service.ProjectDataChangePublisher;
+import personal.project.teamwork_management.service.ProjectDataVersionService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Version của project chỉ tăng khi transaction ghi dữ liệu commit, không tăng lúc flush hay khi rollback.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProjectDataChangeListener.class, ProjectDataChangePublisher.class, ProjectDataVersionService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProjectDataChangeListenerTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProjectDataVersionService versionService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private TransactionTemplate tx;
+    private Project project;
+    private Task task;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+
+        user = new User();
+        user.setEmail("listener@mail.test");
+        user.setPassword("x");
+        user = userRepository.save(user);
+
+        project = new Project();
+        project.setName("Versioned");
+        project.setStatus(Status.IN_PROGRESS);
+        project = projectRepository.save(project);
+
+        task = new Task();
+        task.setTitle("Task");
+        task.setPriority(1);
+        task.setLevel(1);
+        task.setProgress(0);
+        task.setStatus(Status.IN_PROGRESS);
+        task.setProject(project);
+        task = taskRepository.save(task);
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteById(task.getId());
+        projectRepository.deleteById(project.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void versionIsBumpedOnlyAfterCommit() {
+        long before = versionService.getVersion(project.getId());
+
+        tx.executeWithoutResult(status -> {
+            Task t = taskRepository.findById(task.getId()).orElseThrow();
+            t.setProgress(50);
+            taskRepository.saveAndFlush(t);
+            assertThat(versionService.getVersion(project.getId())).isEqualTo(before);
+        });
+
+        assertThat(versionService.getVersion(project.getId())).isGreaterThan(before);
+    }
+
+    @Test
+    void rollbackLeavesVersionUnchanged() {
+        long before = versionService.getVersion(project.getId());
+        long globalBefore = versionService.getGlobalVersion();
+
+        tx.executeWithoutResult(status -> {
+            Task t = taskRepository.findById(task.getId()).orElseThrow();
+            t.setProgress(70);
+            taskRepository.saveAndFlush(t);
+            status.setRollbackOnly();
+        });
+
+        assertThat(versionService.getVersion(project.getId())).isEqualTo(before);
+        assertThat(versionService.getGlobalVersion()).isEqualTo(globalBefore);
+    }
+
+    @Test
+    void collectionChangeBumpsVersion() {
+        long before = versionService.getVersion(project.getId());
+
+        tx.executeWithoutResult(status -> {
+            Task t = taskRepository.findById(task.getId()).orElseThrow();
+            t.setAssignedUsers(new ArrayList<>(List.of(userRepository.findById(user.getId()).orElseThrow())));
+        });
+
+        assertThat(versionService.getVersion(project.getId())).isGreaterThan(before);
+
+        tx.executeWithoutResult(status -> taskRepository.findById(task.getId()).orElseThrow()
+                .getAssignedUsers().clear());
+    }
+
+    @Test
+    void writeWithoutTransactionIsPublishedImmediately() {
+        long before = versionService.getVersion(project.getId());
+
+        Task t = taskRepository.findById(task.getId()).orElseThrow();
+        t.setProgress(20);
+        taskRepository.save(t); // transaction riêng của repository
+
+        assertThat(versionService.getVersion(project.getId())).isEqualTo(before + 1);
+    }
+}
@@ -0,0 +1,256 @@
+package personal.project.teamwork_management.controller;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import personal.project.teamwork_management.model.*;
+import personal.project.teamwork_management.repository.ProjectMemberRepository;
+import personal.project.teamwork_management.repository.ProjectRepository;
+import personal.project.teamwork_management.repository.TaskRepository;
+import personal.project.teamwork_management.repository.UserRepository;
+import personal.project.teamwork_management.service.ProjectDataVersionService;
+import personal.project.teamwork_management.service.SqlStatsService;
+import personal.project.teamwork_management.util.JwtUtil;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ngân sách SQL / request cho các endpoint GET chính, đo bằng SqlStatsService (hook Hibernate) trên fixture
+ * 1 project cây task sâu 4 tầng (120 task), 30 thành viên. Số statement không được phụ thuộc kích thước cây:
+ * thêm lại vòng findById / save theo từng task (N+1) sẽ làm test fail.
+ * p95 chỉ chặn hồi quy thô (H2 in-memory, máy CI chậm) nên để rộng.
+ */
+@SpringBootTest(properties = {
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test",
+        "spring.report.snapshots.enabled=false",
+        "spring.project-cache.enabled=false", // đo đường ghép view thật, không phải cache đã nóng sau warmup
+        "spring.etag.window-seconds=3600"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryBudgetTest {
+
+    private static final int BRANCHING = 3;
+    private static final int DEPTH = 4;
+    private static final int MEMBERS = 30;
+    private static final int WARMUP = 3;
+    private static final int REQUESTS = 20;
+    private static final long P95_MS = 500;
+    private static final long RENDER_P95_MS = 3000; // report dựng workbook POI trong request, không phải SQL
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private SqlStatsService sqlStatsService;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private ProjectMemberRepository projectMemberRepository;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private ProjectDataVersionService versionService;
+
+    private String token;
+    private Long leaderId;
+    private Long projectId;
+    private Long leafTaskId;
+    private Long rootTaskId;
+
+    private record Budget(String pattern, String url, int maxStatements, long p95Ms) {
+        Budget(String pattern, String url, int maxStatements) {
+            this(pattern, url, maxStatements, P95_MS);
+        }
+    }
+
+    @BeforeAll
+    void createFixture() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            User u = new User();
+            u.setFirstName("User");
+            u.setLastName(String.valueOf(i));
+            u.setEmail("budget" + i + "@test.local");
+            u.setPassword("x");
+            users.add(u);
+        }
+        users = userRepository.saveAll(users);
+        User leader = users.get(0);
+        leaderId = leader.getId();
+        token = jwtUtil.generateToken(leader.getEmail());
+
+        Project project = new Project();
+        project.setName("Budget fixture");
+        project.setStatus(Status.IN_PROGRESS);
+        project.setProgress(0L);
+        project.setStartDate(new Date());
+        project = projectRepository.save(project);
+        projectId = project.getId();
+
+        List<ProjectMember> members = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            ProjectMember pm = new ProjectMember();
+            pm.setProject(project);
+            pm.setUser(users.get(i));
+            pm.setRole(i == 0 ? Role.LEADER : Role.MEMBER);
+            members.add(pm);
+        }
+        projectMemberRepository.saveAll(members);
+
+        // cây BFS: tầng 1 có BRANCHING task, mỗi task có BRANCHING con, sâu DEPTH tầng
+        Date deadline = new Date(System.currentTimeMillis() + 30L * 24 * 3600 * 1000);
+        List<Task> level = List.of();
+        int n = 0;
+        for (int depth = 1; depth <= DEPTH; depth++) {
+            List<Task> next = new ArrayList<>();
+            for (Task parent : depth == 1 ? Collections.<Task>singletonList(null) : level) {
+                for (int b = 0; b < BRANCHING; b++, n++) {
+                    Task t = new Task();
+                    t.setTitle("Task " + n);
+                    t.setPriority(1 + b);
+                    t.setLevel(depth);
+                    t.setProgress(depth == DEPTH ? (n * 37) % 101 : 0);
+                    t.setStatus(Status.IN_PROGRESS);
+                    t.setDeadline(deadline);
+                    t.setCreatedBy(leader);
+                    t.setProject(project);
+                    t.setParent(parent);
+                    t.setAssignedUsers(new ArrayList<>(List.of(leader, users.get(1 + n % (MEMBERS - 1)))));
+                    next.add(t);
+                }
+            }
+            level = taskRepository.saveAll(next);
+            if (depth == 1) rootTaskId = level.get(0).getId();
+        }
+        leafTaskId = level.get(level.size() - 1).getId();
+    }
+
+    // số đo trên fixture sau khi bỏ N+1; /my, /assigned còn convertToDto từng task (tỉ lệ theo size trang = 20)
+    private List<Budget> budgets() {
+        String today = LocalDate.now().toString();
+        return List.of(
+                new Budget("/api/projects/{id:[0-9]+}", "/api/projects/" + projectId, 6),
+                new Budget("/api/projects/recent", "/api/projects/recent", 5),
+                new Budget("/api/projects", "/api/projects", 4),
+                new Budget("/api/projects", "/api/projects?view=card", 4),
+                new Budget("/api/projects", "/api/projects?view=row", 4),
+                new Budget("/api/projects/managed", "/api/projects/managed", 4),
+                new Budget("/api/projects/member", "/api/projects/member", 2),
+                new Budget("/api/projects/stats", "/api/projects/stats", 4),
+                new Budget("/api/tasks", "/api/tasks?projectId=" + projectId, 3),
+                new Budget("/api/tasks", "/api/tasks?userId=" + leaderId, 3),
+                new Budget("/api/tasks", "/api/tasks?projectId=" + projectId + "&userId=" + leaderId, 3),
+                new Budget("/api/tasks", "/api/tasks?projectId=" + projectId + "&view=row", 3),
+                new Budget("/api/tasks", "/api/tasks?userId=" + leaderId + "&view=card", 3),
+                new Budget("/api/tasks/my", "/api/tasks/my", 33),
+                new Budget("/api/tasks/assigned", "/api/tasks/assigned", 33),
+                new Budget("/api/tasks/stats", "/api/tasks/stats", 3),
+                // lá: thêm 1 SELECT cho chuỗi task cha (ManyToOne eager) theo độ sâu; gốc: cả cây con vẫn cùng số statement
+                new Budget("/api/tasks/{id:[0-9]+}", "/api/tasks/" + leafTaskId, 7),
+                new Budget("/api/tasks/{id:[0-9]+}", "/api/tasks/" + rootTaskId, 6),
+                new Budget("/api/task-approvals/task/{taskId}", "/api/task-approvals/task/" + leafTaskId, 2),
+                new Budget("/api/users/profile", "/api/users/profile", 1),
+                new Budget("/api/recent/project", "/api/recent/project", 6),
+                new Budget("/api/user-activity", "/api/user-activity?projectId=" + projectId, 2),
+                new Budget("/api/notifications/unread/{userId}", "/api/notifications/unread/" + leaderId, 2),
+                new Budget("/api/files/project/{projectId}", "/api/files/project/" + projectId, 2),
+                new Budget("/api/project-logs/{projectId}", "/api/project-logs/" + projectId, 2),
+                new Budget("/api/auth/validate", "/api/auth/validate", 1),
+                new Budget("/api/reports/jobs", "/api/reports/jobs", 1),
+                new Budget("/api/reports/projects/{projectId}/excel/stream",
+                        "/api/reports/projects/" + projectId + "/excel/stream", 7, RENDER_P95_MS),
+                new Budget("/api/reports/projects/{projectId}/members/preview",
+                        "/api/reports/projects/" + projectId + "/members/preview?from=" + today + "&to=" + today, 14)
+        );
+    }
+
+    @TestFactory
+    Stream<DynamicTest> endpointsStayWithinSqlAndLatencyBudget() {
+        return budgets().stream().map(b -> DynamicTest.dynamicTest("GET " + b.url(), () -> {
+            for (int i = 0; i < WARMUP; i++) call(b.url()); // lần đầu: tạo interaction, đổi status, cache...
+            sqlStatsService.reset();
+
+            long[] nanos = new long[REQUESTS];
+            for (int i = 0; i < REQUESTS; i++) {
+                long start = System.nanoTime();
+                call(b.url());
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            long p95Ms = nanos[(int) Math.ceil(REQUESTS * 0.95) - 1] / 1_000_000;
+
+            Map<String, Object> stats = sqlStatsService.topOffenders(Integer.MAX_VALUE).stream()
+                    .filter(m -> ("GET " + b.pattern()).equals(m.get("endpoint")))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("no SQL stats recorded for GET " + b.pattern()));
+
+            assertThat((int) stats.get("maxStatements"))
+                    .as("SQL statements / request for GET %s (most repeated: %s x%s)",
+                            b.url(), stats.get("mostRepeatedStatement"), stats.get("mostRepeatedCount"))
+                    .isLessThanOrEqualTo(b.maxStatements());
+            assertThat(p95Ms).as("p95 latency (ms) for GET %s", b.url()).isLessThanOrEqualTo(b.p95Ms());
+        }));
+    }
+
+    // poll lại với ETag cũ khi dữ liệu không đổi: 304, không body
+    @Test
+    void unchangedPollsAreNotModified() throws Exception {
+        for (String url : List.of("/api/projects/" + projectId, "/api/projects", "/api/tasks?projectId=" + projectId)) {
+            call(url); // lần đầu có thể ghi (progress, status) => version tăng
+            String etag = mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("ETag");
+            assertThat(etag).as("ETag of GET %s", url).isNotNull();
+
+            mockMvc.perform(get(url).header("Authorization", "Bearer " + token).header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag));
+        }
+    }
+
+    // đọc task không được ghi lại task/task_user khi không có gì đổi: version project (cache, ETag) giữ nguyên
+    @Test
+    void repeatedTaskReadsDoNotBumpProjectVersion() throws Exception {
+        for (Long taskId : List.of(rootTaskId, leafTaskId)) {
+            String url = "/api/tasks/" + taskId;
+            call(url); // lần đầu có thể ghi progress / assignee gộp từ cây con
+            long version = versionService.getVersion(projectId);
+
+            for (int i = 0; i < 3; i++) call(url);
+
+            assertThat(versionService.getVersion(projectId)).as("project version after GET %s", url).isEqualTo(version);
+        }
+    }
+
+    private void call(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            // StreamingResponseBody (report stream): chạy hết phần ghi body, trả kết nối giữ bởi open-in-view
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        }
+    }
+}
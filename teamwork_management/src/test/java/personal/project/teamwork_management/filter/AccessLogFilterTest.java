@@ -0,0 +1,129 @@
+package personal.project.teamwork_management.filter;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sample theo route: route tỉ lệ 0 không ghi, trừ khi lỗi (luôn ghi, kèm payload đã che field nhạy cảm).
+ */
+class AccessLogFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger("ACCESS");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private final AccessLogFilter filter = new AccessLogFilter(objectMapper, 1.0,
+            List.of("GET /api/notifications/unread/{userId}=0"), 60_000, 100);
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        accessLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogger.detachAppender(appender);
+    }
+
+    @Test
+    void skipsRouteSampledAtZero() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/notifications/unread/{userId}");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> { });
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    void writesJsonLineForDefaultRoute() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/projects/{id}");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> { });
+
+        assertThat(appender.list).hasSize(1);
+        JsonNode line = objectMapper.readTree(appender.list.get(0).getFormattedMessage());
+        assertThat(line.get("route").asText()).isEqualTo("/api/projects/{id}");
+        assertThat(line.get("status").asInt()).isEqualTo(200);
+        assertThat(line.get("reason").asText()).isEqualTo("sampled");
+        assertThat(line.has("payload")).isFalse();
+    }
+
+    @Test
+    void alwaysLogsErrorsWithPayload() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/notifications/unread/{userId}");
+        request.setContentType("application/json");
+        request.setContent("{\"a\":1}".getBytes());
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.getInputStream().readAllBytes();
+            ((MockHttpServletResponse) res).setStatus(503);
+        });
+
+        assertThat(appender.list).hasSize(1);
+        JsonNode line = objectMapper.readTree(appender.list.get(0).getFormattedMessage());
+        assertThat(line.get("status").asInt()).isEqualTo(503);
+        assertThat(line.get("reason").asText()).isEqualTo("error");
+        assertThat(line.get("payload").asText()).isEqualTo("{\"a\":1}");
+    }
+
+    @Test
+    void neverLogsLoginBody() throws Exception {
+        MockHttpServletRequest request = request("POST", "/api/auth/login");
+        request.setContentType("application/json");
+        request.setContent("{\"email\":\"a@b.c\",\"password\":\"hunter2\"}".getBytes());
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.getInputStream().readAllBytes();
+            ((MockHttpServletResponse) res).setStatus(500);
+        });
+
+        String logged = appender.list.get(0).getFormattedMessage();
+        assertThat(logged).doesNotContain("hunter2").doesNotContain("a@b.c");
+        assertThat(objectMapper.readTree(logged).get("payload").asText()).startsWith("<");
+    }
+
+    @Test
+    void redactsSensitiveFieldsInPayloadAndQuery() throws Exception {
+        MockHttpServletRequest request = request("PUT", "/api/projects/{id}");
+        request.setQueryString("page=1&access_token=abc123");
+        request.setContentType("application/json");
+        request.setContent("{\"name\":\"P\",\"newPassword\":\"s3cr\\\"et\",\"pin\":1,\"apiKey\":42}".getBytes());
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.getInputStream().readAllBytes();
+            ((MockHttpServletResponse) res).setStatus(500);
+        });
+
+        JsonNode line = objectMapper.readTree(appender.list.get(0).getFormattedMessage());
+        assertThat(line.get("payload").asText())
+                .isEqualTo("{\"name\":\"P\",\"newPassword\":\"***\",\"pin\":1,\"apiKey\":\"***\"}");
+        assertThat(line.get("query").asText()).isEqualTo("page=1&access_token=***");
+    }
+
+    @Test
+    void redactsTruncatedValuesAndFormBodies() {
+        assertThat(AccessLogFilter.redact("{\"password\":\"abcd")).isEqualTo("{\"password\":\"***\"");
+        assertThat(AccessLogFilter.redact("user=a&password=x%26y&x=1")).isEqualTo("user=a&password=***&x=1");
+    }
+
+    private static MockHttpServletRequest request(String method, String route) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, route);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, route);
+        return request;
+    }
+}
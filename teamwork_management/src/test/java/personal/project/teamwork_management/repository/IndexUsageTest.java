@@ -0,0 +1,83 @@
+package personal.project.teamwork_management.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import personal.project.teamwork_management.config.FlywayConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migration db/migration chạy sau ddl-auto (FlywayConfig) và các truy vấn nóng dùng index thay vì quét bảng.
+ * H2 MODE=MySQL, DB riêng cho class này (Flyway ghi lịch sử, không dùng chung DB create-drop của các test khác).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FlywayConfig.class)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:indexes_${random.value};MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1"
+})
+class IndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void taskTreeByProjectAndLevel() {
+        assertUsesIndex("SELECT t.id FROM task t WHERE t.project_id = 1 AND t.level = 1",
+                "idx_task_project_level");
+    }
+
+    @Test
+    void overdueScanByDeadline() {
+        assertUsesIndex("SELECT t.id FROM task t WHERE t.deadline < TIMESTAMP '2026-01-01 00:00:00' AND t.status NOT IN (3, 4, 5)",
+                "idx_task_deadline_status");
+    }
+
+    @Test
+    void childrenUseForeignKeyIndex() {
+        assertThat(explain("SELECT t.id FROM task t WHERE t.parent_task_id = 1")).doesNotContain("tableScan");
+    }
+
+    @Test
+    void unreadNotificationsOfUser() {
+        assertUsesIndex("SELECT n.id FROM notification n WHERE n.user_id = 1 AND n.is_read = FALSE ORDER BY n.created_at DESC",
+                "idx_notification_user_read_created");
+    }
+
+    @Test
+    void activityOfProject() {
+        assertUsesIndex("SELECT ua.id FROM user_activity ua WHERE ua.target_type = 'Project' AND ua.target_id = 1 "
+                        + "ORDER BY ua.timestamp DESC",
+                "idx_user_activity_target_time");
+    }
+
+    @Test
+    void projectLogsInPeriod() {
+        assertUsesIndex("SELECT l.id FROM project_log l WHERE l.project_id = 1 "
+                        + "AND l.created_at BETWEEN TIMESTAMP '2026-01-01 00:00:00' AND TIMESTAMP '2026-02-01 00:00:00'",
+                "idx_project_log_project_created");
+    }
+
+    @Test
+    void approvalsOfUserByAction() {
+        assertUsesIndex("SELECT l.id FROM task_approval_logs l WHERE l.user_id = 1 AND l.action = 'APPROVE' "
+                        + "AND l.created_at BETWEEN TIMESTAMP '2026-01-01 00:00:00' AND TIMESTAMP '2026-02-01 00:00:00'",
+                "idx_approval_user_action_created");
+    }
+
+    private void assertUsesIndex(String sql, String index) {
+        assertThat(explain(sql)).containsIgnoringCase(index).doesNotContain("tableScan");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
@@ -0,0 +1,108 @@
+package personal.project.teamwork_management.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import personal.project.teamwork_management.model.Project;
+import personal.project.teamwork_management.model.ProjectMember;
+import personal.project.teamwork_management.model.Role;
+import personal.project.teamwork_management.model.Status;
+import personal.project.teamwork_management.model.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * User đọc lại từ region "user" không cần SQL; query membership được cache và bị loại khi project_member đổi.
+ * Không chạy trong transaction của test: cache chỉ được ghi khi transaction commit.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectMemberRepository projectMemberRepository;
+
+    private Statistics statistics;
+    private User user;
+    private Project project;
+    private ProjectMember member;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = new User();
+        user.setEmail("cache@mail.test");
+        user.setPassword("x");
+        user = userRepository.save(user);
+
+        project = new Project();
+        project.setName("Cached");
+        project.setStatus(Status.IN_PROGRESS);
+        project = projectRepository.save(project);
+
+        member = new ProjectMember();
+        member.setProject(project);
+        member.setUser(user);
+        member.setRole(Role.MEMBER);
+        member = projectMemberRepository.save(member);
+    }
+
+    @AfterEach
+    void tearDown() {
+        projectMemberRepository.deleteById(member.getId());
+        projectRepository.deleteById(project.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void userIsServedFromSecondLevelCache() {
+        userRepository.findById(user.getId()).orElseThrow();
+        statistics.clear();
+
+        User again = userRepository.findById(user.getId()).orElseThrow();
+
+        assertThat(again.getEmail()).isEqualTo("cache@mail.test");
+        assertThat(statistics.getDomainDataRegionStatistics("user").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void membershipQueryIsCachedAndInvalidatedOnChange() {
+        projectMemberRepository.findRoleByProjectIdAndUserId(project.getId(), user.getId());
+        statistics.clear();
+
+        assertThat(projectMemberRepository.findRoleByProjectIdAndUserId(project.getId(), user.getId()))
+                .isEqualTo(Role.MEMBER);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        member.setRole(Role.VICE_LEADER);
+        member = projectMemberRepository.save(member);
+        statistics.clear();
+
+        assertThat(projectMemberRepository.findRoleByProjectIdAndUserId(project.getId(), user.getId()))
+                .isEqualTo(Role.VICE_LEADER);
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+}
@@ -0,0 +1,83 @@
+package personal.project.teamwork_management.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import personal.project.teamwork_management.model.Project;
+import personal.project.teamwork_management.model.Status;
+import personal.project.teamwork_management.model.Task;
+import personal.project.teamwork_management.model.User;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static personal.project.teamwork_management.support.EntityFixtures.newTask;
+import static personal.project.teamwork_management.support.EntityFixtures.persistProject;
+import static personal.project.teamwork_management.support.EntityFixtures.persistUser;
+
+/**
+ * findMemberTasksWithAncestors: chỉ lấy task của member trong khoảng deadline, kèm chuỗi task cha lên tới gốc.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TaskRepositoryMemberTasksTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Test
+    void returnsAssignedTasksInWindowWithAncestorChain() {
+        Project project = persistProject(em, "P");
+
+        User me = persistUser(em, "me@mail.test");
+        User other = persistUser(em, "other@mail.test");
+
+        Date inWindow = date(LocalDate.of(2025, 3, 31));
+        Date outOfWindow = date(LocalDate.of(2025, 4, 1));
+
+        Task root = persistTask(project, null, 1, "Root", inWindow, List.of(other));
+        Task mid = persistTask(project, root, 2, "Mid", inWindow, List.of(other));
+        Task leaf = persistTask(project, mid, 3, "Leaf", inWindow, List.of(me, other));
+        persistTask(project, mid, 3, "Late", outOfWindow, List.of(me));
+        Task single = persistTask(project, null, 1, "Single", inWindow, List.of(me));
+        em.flush();
+        em.clear();
+
+        List<Object[]> rows = taskRepository.findMemberTasksWithAncestors(project.getId(), me.getId(),
+                date(LocalDate.of(2025, 3, 1)), outOfWindow);
+
+        Map<Long, List<Long>> chains = new LinkedHashMap<>();
+        for (Object[] r : rows) {
+            chains.computeIfAbsent(((Number) r[0]).longValue(), k -> new ArrayList<>()).add(((Number) r[1]).longValue());
+        }
+        assertThat(chains).containsOnlyKeys(leaf.getId(), single.getId());
+        assertThat(chains.get(leaf.getId())).containsExactly(leaf.getId(), mid.getId(), root.getId());
+        assertThat(chains.get(single.getId())).containsExactly(single.getId());
+
+        Object[] leafRow = rows.stream().filter(r -> ((Number) r[0]).longValue() == leaf.getId()).findFirst().orElseThrow();
+        assertThat(leafRow[6]).isEqualTo("Leaf");
+        assertThat(((Number) leafRow[8]).intValue()).isEqualTo(Status.IN_PROGRESS.ordinal());
+    }
+
+    private Task persistTask(Project p, Task parent, int level, String title, Date deadline, List<User> assignees) {
+        Task t = newTask(p, parent, title, assignees);
+        t.setLevel(level);
+        t.setDeadline(deadline);
+        return em.persist(t);
+    }
+
+    private static Date date(LocalDate d) {
+        return Date.from(d.atStartOfDay(ZONE).toInstant());
+    }
+}
@@ -0,0 +1,101 @@
+package personal.project.teamwork_management.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import personal.project.teamwork_management.dto.ProjectCardDto;
+import personal.project.teamwork_management.dto.ProjectRowDto;
+import personal.project.teamwork_management.dto.TaskCardDto;
+import personal.project.teamwork_management.dto.TaskRowDto;
+import personal.project.teamwork_management.model.*;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static personal.project.teamwork_management.support.EntityFixtures.persistMember;
+import static personal.project.teamwork_management.support.EntityFixtures.persistProject;
+import static personal.project.teamwork_management.support.EntityFixtures.persistTask;
+import static personal.project.teamwork_management.support.EntityFixtures.persistUser;
+
+/**
+ * Projection rút gọn (?view=card|row): lọc theo role / search / assignee như danh sách đầy đủ, đếm đúng.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ViewProjectionTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private User me;
+    private User other;
+    private Project led;
+    private Project joined;
+
+    @BeforeEach
+    void setUp() {
+        me = persistUser(em, "me@mail.test");
+        other = persistUser(em, "other@mail.test");
+        led = persistProject(em, "Alpha");
+        joined = persistProject(em, "Beta");
+        persistMember(em, led, me, Role.LEADER);
+        persistMember(em, led, other, Role.MEMBER);
+        persistMember(em, joined, me, Role.MEMBER);
+
+        Task root = persistTask(em, led, null, "Root", List.of(other));
+        persistTask(em, led, root, "Mine", List.of(me));
+        persistTask(em, joined, null, "Elsewhere", List.of(me));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void projectCardsCountMembersAndTasks() {
+        Page<ProjectCardDto> cards = projectRepository.findProjectCards(me.getId(), List.of(Role.values()), null, null,
+                PageRequest.of(0, 10, Sort.by("name")));
+
+        assertThat(cards.getTotalElements()).isEqualTo(2);
+        ProjectCardDto alpha = cards.getContent().get(0);
+        assertThat(alpha.getName()).isEqualTo("Alpha");
+        assertThat(alpha.getMemberCount()).isEqualTo(2);
+        assertThat(alpha.getTaskCount()).isEqualTo(2);
+    }
+
+    @Test
+    void projectRowsFilterByRoleAndSearch() {
+        Page<ProjectRowDto> managed = projectRepository.findProjectRows(me.getId(),
+                List.of(Role.LEADER, Role.VICE_LEADER), null, null, PageRequest.of(0, 10));
+        assertThat(managed.getContent()).extracting(ProjectRowDto::getName).containsExactly("Alpha");
+
+        Page<ProjectRowDto> searched = projectRepository.findProjectRows(me.getId(), List.of(Role.values()),
+                "bet", null, PageRequest.of(0, 10));
+        assertThat(searched.getContent()).extracting(ProjectRowDto::getName).containsExactly("Beta");
+    }
+
+    @Test
+    void taskViewsFilterByProjectAndAssignee() {
+        List<TaskRowDto> rows = taskRepository.findTaskRows(led.getId(), null);
+        assertThat(rows).extracting(TaskRowDto::getTitle).containsExactly("Root", "Mine");
+        assertThat(rows.get(1).getParentId()).isEqualTo(rows.get(0).getId());
+
+        List<TaskCardDto> cards = taskRepository.findTaskCards(null, me.getId());
+        assertThat(cards).extracting(TaskCardDto::getProjectName).containsExactlyInAnyOrder("Alpha", "Beta");
+
+        assertThat(taskRepository.findTaskCards(led.getId(), me.getId()))
+                .extracting(TaskCardDto::getTitle).containsExactly("Mine");
+    }
+}
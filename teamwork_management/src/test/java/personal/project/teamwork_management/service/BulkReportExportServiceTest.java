@@ -0,0 +1,79 @@
+package personal.project.teamwork_management.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import personal.project.teamwork_management.repository.ProjectMemberRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class BulkReportExportServiceTest {
+
+    private final ProjectReportService projectReportService = mock(ProjectReportService.class);
+    private ThreadPoolTaskExecutor executor;
+    private BulkReportExportService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(3);
+        executor.setMaxPoolSize(3);
+        executor.initialize();
+
+        PlatformTransactionManager tm = mock(PlatformTransactionManager.class);
+        when(tm.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        service = new BulkReportExportService(projectReportService, mock(ProjectMemberRepository.class),
+                mock(UserService.class), executor, tm);
+
+        when(projectReportService.buildModel(anyLong())).thenAnswer(inv -> {
+            Long id = inv.getArgument(0);
+            if (id == 3L) throw new Exception("Project not found with id: 3");
+            Thread.sleep(50 - id * 5); // project đầu xong sau cùng
+            return Map.<String, Object>of("projectName", "P " + id);
+        });
+        doAnswer(inv -> {
+            Map<String, Object> model = inv.getArgument(0);
+            inv.<OutputStream>getArgument(1).write(("pdf:" + model.get("projectName")).getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(projectReportService).writePdf(any(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void zipKeepsRequestOrderAndReplacesFailedProjectWithErrorEntry() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeZip(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), ReportFormat.PDF,
+                SecurityContextHolder.createEmptyContext(), out);
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry e; (e = zip.getNextEntry()) != null; ) {
+                entries.put(e.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        assertThat(entries.keySet()).containsExactly("1-P_1.pdf", "2-P_2.pdf", "3-ERROR.txt", "4-P_4.pdf",
+                "5-P_5.pdf", "6-P_6.pdf", "7-P_7.pdf", "8-P_8.pdf");
+        assertThat(entries.get("2-P_2.pdf")).isEqualTo("pdf:P 2");
+        assertThat(entries.get("3-ERROR.txt")).contains("Project not found with id: 3");
+    }
+}
@@ -0,0 +1,111 @@
+package personal.project.teamwork_management.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import personal.project.teamwork_management.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static personal.project.teamwork_management.support.EntityFixtures.persistProject;
+import static personal.project.teamwork_management.support.EntityFixtures.persistTask;
+import static personal.project.teamwork_management.support.EntityFixtures.persistUser;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CsvExportService.class)
+class CsvExportServiceTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private CsvExportService csvExportService;
+
+    @MockitoBean
+    private ProjectService projectService;
+
+    @MockitoBean
+    private ProjectLogService projectLogService;
+
+    @Test
+    void tasksAreStreamedOneLinePerTaskWithJoinedAssignees() throws Exception {
+        Project project = persistProject(em, "P");
+        User a = persistUser(em, "a@mail.test");
+        User b = persistUser(em, "b@mail.test");
+        Task root = persistTask(em, project, null, "Root, with comma", List.of(a, b));
+        persistTask(em, project, root, "Say \"hi\"", List.of());
+        persistTask(em, project, root, "Plain", List.of(b));
+        em.flush();
+        em.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        csvExportService.writeProjectTasks(project.getId(), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).isEqualTo("id,parent_id,level,title,status,priority,progress,deadline,created_by_id,assignees");
+        assertThat(lines[1]).startsWith(root.getId() + ",,1,\"Root, with comma\",IN_PROGRESS,")
+                .matches(".*,(a@mail.test;b@mail.test|b@mail.test;a@mail.test)$");
+        assertThat(lines[2]).contains(",\"Say \"\"hi\"\"\",").endsWith(",");
+        assertThat(lines[3]).contains(",Plain,").endsWith(",b@mail.test");
+    }
+
+    @Test
+    void logsAreStreamedWithinRange() throws Exception {
+        Project project = persistProject(em, "P");
+        for (int i = 0; i < 5; i++) {
+            ProjectLog log = new ProjectLog();
+            log.setProjectId(project.getId());
+            log.setAction(ProjectAction.values()[0]);
+            log.setDescription("log " + i);
+            log.setPerformedBy(7L);
+            em.persist(log);
+        }
+        em.flush();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        csvExportService.writeProjectLogs(project.getId(), new Date(0), new Date(System.currentTimeMillis() + 60_000), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines).hasSize(6);
+        assertThat(lines[1]).contains(",log 0,").contains(",7,");
+        assertThat(lines[5]).contains(",log 4,");
+    }
+
+    @Test
+    void formulaLikeTextIsPrefixedButNumbersAreNot() throws Exception {
+        Project project = persistProject(em, "P");
+        persistTask(em, project, null, "=HYPERLINK(\"http://x\",\"y\")", List.of(persistUser(em, "@evil@mail.test")));
+        persistTask(em, project, null, "-2+3", List.of());
+        ProjectLog log = new ProjectLog();
+        log.setProjectId(project.getId());
+        log.setAction(ProjectAction.values()[0]);
+        log.setDescription("+cmd|' /C calc'!A0");
+        log.setPerformedBy(-1L);
+        em.persist(log);
+        em.flush();
+        em.clear();
+
+        ByteArrayOutputStream tasks = new ByteArrayOutputStream();
+        csvExportService.writeProjectTasks(project.getId(), tasks);
+        String[] lines = tasks.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines[1]).contains(",\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\",").endsWith(",'@evil@mail.test");
+        assertThat(lines[2]).contains(",'-2+3,");
+
+        ByteArrayOutputStream logs = new ByteArrayOutputStream();
+        csvExportService.writeProjectLogs(project.getId(), new Date(0), new Date(System.currentTimeMillis() + 60_000), logs);
+        String line = logs.toString(StandardCharsets.UTF_8).split("\r\n")[1];
+        assertThat(line).contains(",'+cmd|' /C calc'!A0,").contains(",-1,");
+    }
+}
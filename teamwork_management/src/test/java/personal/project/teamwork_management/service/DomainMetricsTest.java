@@ -0,0 +1,92 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import personal.project.teamwork_management.event.ProjectDataChangedEvent;
+import personal.project.teamwork_management.event.jfr.ProgressRecomputeEvent;
+import personal.project.teamwork_management.model.Task;
+import personal.project.teamwork_management.repository.TaskRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Nhóm kích thước project (cache theo version dữ liệu), đo byte tải file khi đóng stream, đo progress recompute.
+ */
+class DomainMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final ProjectDataVersionService versionService = new ProjectDataVersionService();
+    private final DomainMetrics metrics = new DomainMetrics(registry, taskRepository, versionService);
+
+    @Test
+    void sizeBucketsByTaskCount() {
+        assertThat(DomainMetrics.sizeBucket(0)).isEqualTo("small");
+        assertThat(DomainMetrics.sizeBucket(49)).isEqualTo("small");
+        assertThat(DomainMetrics.sizeBucket(50)).isEqualTo("medium");
+        assertThat(DomainMetrics.sizeBucket(4_999)).isEqualTo("large");
+        assertThat(DomainMetrics.sizeBucket(50_000)).isEqualTo("xlarge");
+        assertThat(metrics.projectSize(null)).isEqualTo(DomainMetrics.SIZE_NONE);
+    }
+
+    @Test
+    void projectSizeIsCountedOncePerDataVersion() {
+        when(taskRepository.countByProjectId(7L)).thenReturn(10L, 600L);
+
+        assertThat(metrics.projectSize(7L)).isEqualTo("small");
+        assertThat(metrics.projectSize(7L)).isEqualTo("small");
+        verify(taskRepository, times(1)).countByProjectId(7L);
+
+        versionService.onProjectDataChanged(new ProjectDataChangedEvent(7L, Task.class, 1L));
+        assertThat(metrics.projectSize(7L)).isEqualTo("large");
+        verify(taskRepository, times(2)).countByProjectId(7L);
+    }
+
+    @Test
+    void downloadBytesAreRecordedOnClose() throws Exception {
+        when(taskRepository.countByProjectId(3L)).thenReturn(1L);
+
+        try (InputStream in = metrics.meterDownload(new ByteArrayInputStream(new byte[1000]), 1L, 3L, "gzip")) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+
+        DistributionSummary bytes = registry.get("files.transfer.bytes")
+                .tags("direction", "download", "encoding", "gzip", DomainMetrics.TAG_PROJECT_SIZE, "small")
+                .summary();
+        assertThat(bytes.count()).isEqualTo(1);
+        assertThat(bytes.totalAmount()).isEqualTo(1000);
+    }
+
+    @Test
+    void progressRecomputeRecordsTimeAndNodes() {
+        Double progress = metrics.progressRecompute(5L, null, nodes -> {
+            nodes[0] = 600;
+            return 40D;
+        });
+
+        assertThat(progress).isEqualTo(40D);
+        // scope=project: số node là số task => không cần đếm lại
+        verify(taskRepository, never()).countByProjectId(5L);
+        assertThat(registry.get("progress.recompute")
+                .tags("scope", "project", DomainMetrics.TAG_PROJECT_SIZE, "large").timer().count()).isEqualTo(1);
+        assertThat(registry.get("progress.recompute.nodes")
+                .tags("scope", "project").summary().totalAmount()).isEqualTo(600);
+    }
+
+    @Test
+    void failedOperationRecordsNothing() {
+        assertThatThrownBy(() -> metrics.measure(new ProgressRecomputeEvent(), () -> {
+            throw new IllegalStateException("boom");
+        }, r -> registry.timer("failing"), (e, r) -> {
+        })).hasMessage("boom");
+
+        assertThat(registry.find("failing").timer()).isNull();
+    }
+}
@@ -0,0 +1,150 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import personal.project.teamwork_management.model.File;
+import personal.project.teamwork_management.repository.FileRepository;
+import personal.project.teamwork_management.repository.TaskRepository;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lưu file dạng nén khi có lợi, tải về nguyên byte nén hoặc giải nén dạng stream theo Accept-Encoding.
+ */
+class FileServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private final FileRepository fileRepository = mock(FileRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FileService service = new FileService();
+
+    @BeforeEach
+    void setUp() {
+        when(fileRepository.save(any(File.class))).thenAnswer(inv -> inv.getArgument(0));
+        service.fileRepository = fileRepository;
+        ReflectionTestUtils.setField(service, "domainMetrics",
+                new DomainMetrics(registry, mock(TaskRepository.class), new ProjectDataVersionService()));
+        ReflectionTestUtils.setField(service, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(service, "compressionEnabled", true);
+        ReflectionTestUtils.setField(service, "compressionEncoding", "gzip");
+        ReflectionTestUtils.setField(service, "compressionMinSize", 1024L);
+        ReflectionTestUtils.setField(service, "compressibleTypes", List.of("text/*", "application/json"));
+    }
+
+    @Test
+    void compressibleUploadIsStoredGzipped() throws Exception {
+        byte[] content = "id,title,status\n1,Thiết kế,DONE\n".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+        File stored = service.uploadFile(new MockMultipartFile("file", "tasks.csv", "text/csv", content), null, null, null);
+
+        Path onDisk = Path.of(stored.getPath());
+        assertThat(onDisk.getFileName().toString()).endsWith("tasks.csv.gz");
+        assertThat(stored.getContentEncoding()).isEqualTo(FileService.ENCODING_GZIP);
+        assertThat(stored.getSize()).isEqualTo(content.length);
+        assertThat(stored.getStoredSize()).isEqualTo(Files.size(onDisk)).isLessThan(content.length);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(onDisk))) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void officeXmlTypesMatchByPrefix() throws Exception {
+        ReflectionTestUtils.setField(service, "compressibleTypes", List.of("application/vnd.openxmlformats-officedocument.*"));
+        byte[] content = "<w:p>Biên bản họp</w:p>".repeat(300).getBytes(StandardCharsets.UTF_8);
+
+        File docx = service.uploadFile(new MockMultipartFile("file", "minutes.docx",
+                "application/vnd.openxmlformats-officedocument.wordprocessingml.document", content), null, null, null);
+        File other = service.uploadFile(new MockMultipartFile("file", "notes.odt",
+                "application/vnd.oasis.opendocument.text", content), null, null, null);
+
+        assertThat(docx.getContentEncoding()).isEqualTo(FileService.ENCODING_GZIP);
+        assertThat(other.getContentEncoding()).isNull();
+    }
+
+    @Test
+    void downloadSendsStoredBytesOrInflatesByClientSupport() throws Exception {
+        byte[] content = "{\"task\":\"review\"}\n".repeat(300).getBytes(StandardCharsets.UTF_8);
+        File stored = service.uploadFile(new MockMultipartFile("file", "tasks.json", "application/json", content), null, null, null);
+
+        byte[] encoded;
+        try (InputStream in = service.openDownloadStream(stored, service.clientAccepts("gzip, deflate, br", stored.getContentEncoding()))) {
+            encoded = in.readAllBytes();
+        }
+        assertThat(encoded).isEqualTo(Files.readAllBytes(Path.of(stored.getPath())));
+
+        try (InputStream in = service.openDownloadStream(stored, service.clientAccepts(null, stored.getContentEncoding()))) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+        assertThat(registry.get("files.transfer.bytes").tag("direction", "download").tag("encoding", "gzip").summary().totalAmount())
+                .isEqualTo(encoded.length);
+        assertThat(registry.get("files.transfer.bytes").tag("direction", "download").tag("encoding", "identity").summary().totalAmount())
+                .isEqualTo(content.length);
+    }
+
+    @Test
+    void deflateEncodingRoundTrips() throws Exception {
+        ReflectionTestUtils.setField(service, "compressionEncoding", "deflate");
+        byte[] content = "<p>báo cáo tuần</p>\n".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+        File stored = service.uploadFile(new MockMultipartFile("file", "week.html", "text/html", content), null, null, null);
+
+        assertThat(stored.getContentEncoding()).isEqualTo(FileService.ENCODING_DEFLATE);
+        assertThat(stored.getPath()).endsWith(".zz");
+        try (InputStream in = service.openDecodedStream(stored)) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void incompressibleOrSmallOrBinaryUploadsAreStoredRaw() throws Exception {
+        byte[] random = new byte[4096];
+        new Random(42).nextBytes(random);
+        byte[] small = "ok".getBytes(StandardCharsets.UTF_8);
+        byte[] text = "x".repeat(4096).getBytes(StandardCharsets.UTF_8);
+
+        File noGain = service.uploadFile(new MockMultipartFile("file", "noise.txt", "text/plain", random), null, null, null);
+        File tiny = service.uploadFile(new MockMultipartFile("file", "tiny.txt", "text/plain", small), null, null, null);
+        File binary = service.uploadFile(new MockMultipartFile("file", "shot.png", "image/png", text), null, null, null);
+
+        for (File f : List.of(noGain, tiny, binary)) {
+            assertThat(f.getContentEncoding()).isNull();
+            assertThat(f.getStoredSize()).isEqualTo(f.getSize());
+            assertThat(f.getPath()).doesNotEndWith(".gz");
+        }
+        assertThat(Files.readAllBytes(Path.of(noGain.getPath()))).isEqualTo(random);
+        // bản nén thử không có lợi đã bị xoá
+        try (var files = Files.list(uploadDir)) {
+            assertThat(files.filter(p -> p.toString().endsWith(".gz"))).isEmpty();
+        }
+    }
+
+    @Test
+    void clientAcceptsHonoursQualityValues() {
+        assertThat(service.clientAccepts("gzip, deflate", "gzip")).isTrue();
+        assertThat(service.clientAccepts("deflate;q=0.5", "deflate")).isTrue();
+        assertThat(service.clientAccepts("*", "gzip")).isTrue();
+        assertThat(service.clientAccepts("gzip;q=0, deflate", "gzip")).isFalse();
+        assertThat(service.clientAccepts("gzip;q=0, *", "gzip")).isFalse();
+        assertThat(service.clientAccepts("*, gzip;q=0", "gzip")).isFalse();
+        assertThat(service.clientAccepts("*;q=0, gzip", "gzip")).isTrue();
+        assertThat(service.clientAccepts("br", "gzip")).isFalse();
+        assertThat(service.clientAccepts(null, "gzip")).isFalse();
+    }
+}
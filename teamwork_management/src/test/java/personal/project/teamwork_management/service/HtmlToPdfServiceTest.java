@@ -0,0 +1,110 @@
+package personal.project.teamwork_management.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HtmlToPdfServiceTest {
+
+    @Test
+    void chunkedPdfKeepsTitleOnceAndNumbersPagesAcrossParts() throws Exception {
+        SpringTemplateEngine engine = templateEngine();
+        List<Map<String, Object>> items = rows(240);
+
+        // giống ProjectReportService.writePdf: 3 đoạn x 80 dòng
+        List<String> parts = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += 80) {
+            Map<String, Object> model = model(items.subList(from, from + 80));
+            model.put("firstChunk", from == 0);
+            model.put("pageNumbers", false);
+            parts.add(render(engine, model));
+        }
+
+        HtmlToPdfService service = new HtmlToPdfService();
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        ByteArrayOutputStream chunked = new ByteArrayOutputStream();
+        try {
+            service.setChunkExecutor(pool);
+            service.writePdfChunked(parts, chunked);
+        } finally {
+            pool.shutdown();
+        }
+
+        ByteArrayOutputStream single = new ByteArrayOutputStream();
+        service.writePdf(render(engine, model(items)), single);
+
+        try (PDDocument doc = PDDocument.load(chunked.toByteArray());
+             PDDocument whole = PDDocument.load(single.toByteArray())) {
+            int pages = doc.getNumberOfPages();
+            assertThat(pages).isGreaterThan(parts.size());
+            // mỗi đoạn bắt đầu trang mới nên có thể dài hơn bản liền tối đa (số đoạn - 1) trang
+            assertThat(pages).isBetween(whole.getNumberOfPages(), whole.getNumberOfPages() + parts.size() - 1);
+
+            PDFTextStripper stripper = new PDFTextStripper();
+            String text = stripper.getText(doc);
+            assertThat(text.split("Project Alpha", -1)).hasSize(2); // tiêu đề chỉ 1 lần (không có font Unicode -> dùng tên ASCII)
+            assertThat(text).contains("Task 0 ", "Task 239 ");
+            for (int p = 1; p <= pages; p++) {
+                stripper.setStartPage(p);
+                stripper.setEndPage(p);
+                assertThat(stripper.getText(doc)).contains(p + " / " + pages);
+            }
+        }
+    }
+
+    private static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    private static String render(SpringTemplateEngine engine, Map<String, Object> model) {
+        Context ctx = new Context(Locale.forLanguageTag("vi"));
+        ctx.setVariables(model);
+        return engine.process("report/project-report", ctx);
+    }
+
+    private static Map<String, Object> model(List<Map<String, Object>> items) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("projectName", "Project Alpha");
+        model.put("status", "IN_PROGRESS");
+        model.put("progress", 42L);
+        model.put("generatedAt", "2025-01-01T00:00:00");
+        model.put("items", items);
+        return model;
+    }
+
+    private static List<Map<String, Object>> rows(int n) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("number", String.valueOf(i + 1));
+            row.put("taskId", (long) i);
+            row.put("title", "Task " + i + " ");
+            row.put("level", 1);
+            row.put("priority", 1);
+            row.put("progress", 0);
+            row.put("deadline", "01/01/2025");
+            row.put("status", "IN_PROGRESS");
+            row.put("topAssignee", "");
+            items.add(row);
+        }
+        return items;
+    }
+}
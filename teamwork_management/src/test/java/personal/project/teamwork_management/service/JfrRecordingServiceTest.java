@@ -0,0 +1,68 @@
+package personal.project.teamwork_management.service;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import personal.project.teamwork_management.event.jfr.ProgressRecomputeEvent;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Event teamwork.* được ghi vào recording liên tục và có trong file dump N phút gần nhất;
+ * event chứa biến môi trường / system property thì không.
+ */
+class JfrRecordingServiceTest {
+
+    private final JfrRecordingService service = new JfrRecordingService();
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void dumpContainsRecentDomainEvents() throws Exception {
+        service.start();
+        assertThat(service.isRecording()).isTrue();
+
+        ProgressRecomputeEvent event = new ProgressRecomputeEvent();
+        event.begin();
+        event.projectId = 42;
+        event.scope = "project";
+        event.nodes = 120;
+        event.commit();
+
+        Path file = service.dump(1);
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals("teamwork.ProgressRecompute"))
+                    .toList();
+            assertThat(events).anySatisfy(e -> {
+                assertThat(e.getLong("projectId")).isEqualTo(42);
+                assertThat(e.getInt("nodes")).isEqualTo(120);
+                assertThat(e.getString("scope")).isEqualTo("project");
+            });
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void dumpLeavesOutEnvironmentAndSystemProperties() throws Exception {
+        service.start();
+
+        Path file = service.dump(1);
+        try {
+            assertThat(RecordingFile.readAllEvents(file))
+                    .extracting(e -> e.getEventType().getName())
+                    .doesNotContainAnyElementsOf(JfrRecordingService.SENSITIVE_EVENTS);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
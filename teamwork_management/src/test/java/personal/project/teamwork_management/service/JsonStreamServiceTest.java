@@ -0,0 +1,165 @@
+package personal.project.teamwork_management.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.jpa.HibernateHints;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+import personal.project.teamwork_management.dto.ProjectDto;
+import personal.project.teamwork_management.dto.TaskDto;
+import personal.project.teamwork_management.model.Project;
+import personal.project.teamwork_management.model.Status;
+import personal.project.teamwork_management.model.Task;
+import personal.project.teamwork_management.model.User;
+import personal.project.teamwork_management.repository.TaskRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static personal.project.teamwork_management.support.EntityFixtures.persistProject;
+import static personal.project.teamwork_management.support.EntityFixtures.persistTask;
+import static personal.project.teamwork_management.support.EntityFixtures.persistUser;
+
+/**
+ * JSON stream giống hệt JSON của danh sách đã dựng sẵn (cùng ObjectMapper), task sắp theo id;
+ * số stream đồng thời và thời gian mỗi stream bị giới hạn.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class JsonStreamServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JsonStreamService service;
+    private Project project;
+    private User assignee;
+
+    @BeforeEach
+    void setUp() {
+        service = new JsonStreamService(objectMapper, em.getEntityManager(), transactionManager);
+
+        project = persistProject(em, "Stream");
+        assignee = persistUser(em, "stream@mail.test");
+
+        Task root = persistTask(em, project, null, "Root", List.of());
+        persistTask(em, project, root, "Child A", List.of(assignee));
+        persistTask(em, project, root, "Child B", List.of());
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void tasksMatchMaterializedList() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeTasks(project.getId(), null, out);
+
+        List<TaskDto> expected = new ArrayList<>(taskRepository.findAllTasksDtoByProjectId(project.getId()));
+        expected.sort(Comparator.comparing(TaskDto::getId));
+        assertThat(objectMapper.readTree(out.toByteArray()))
+                .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(expected)));
+    }
+
+    @Test
+    void tasksOfAssigneeOnly() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeTasks(project.getId(), assignee.getId(), out);
+
+        JsonNode tasks = objectMapper.readTree(out.toByteArray());
+        assertThat(tasks).hasSize(1);
+        assertThat(tasks.get(0).get("title").asText()).isEqualTo("Child A");
+    }
+
+    @Test
+    void projectKeepsFieldsAndStreamsTasksLast() throws Exception {
+        ProjectDto dto = new ProjectDto(project.getId(), "Stream", null, Status.IN_PROGRESS, 42L, null, null);
+        dto.setMembers(List.of());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeProject(dto, out);
+
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+        assertThat(json.get("name").asText()).isEqualTo("Stream");
+        assertThat(json.get("progress").asLong()).isEqualTo(42);
+        assertThat(json.get("members")).isEmpty();
+        assertThat(json.get("tasks")).hasSize(3);
+        assertThat(json.get("tasks").get(0).get("title").asText()).isEqualTo("Root");
+    }
+
+    @Test
+    void queriesUseExportFetchSize() {
+        // mặc định 1000; application.yml đặt Integer.MIN_VALUE (MySQL streaming result set)
+        assertThat(service.taskQuery(project.getId(), null).getHints())
+                .containsEntry(HibernateHints.HINT_FETCH_SIZE, 1000)
+                .containsEntry(HibernateHints.HINT_READ_ONLY, true);
+
+        ReflectionTestUtils.setField(service, "fetchSize", Integer.MIN_VALUE);
+        assertThat(service.taskQuery(null, assignee.getId()).getHints())
+                .containsEntry(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE);
+        assertThat(service.taskQuery(project.getId(), assignee.getId()).getHints())
+                .containsEntry(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE);
+    }
+
+    @Test
+    void tasksOfUserAcrossProjects() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeTasks(null, assignee.getId(), out);
+
+        JsonNode tasks = objectMapper.readTree(out.toByteArray());
+        assertThat(tasks).hasSize(1);
+        assertThat(tasks.get(0).get("title").asText()).isEqualTo("Child A");
+    }
+
+    @Test
+    void streamsBeyondLimitAreRejectedUntilOneFinishes() throws Exception {
+        ReflectionTestUtils.setField(service, "maxConcurrent", 2);
+        service.acquireStream();
+        service.acquireStream();
+
+        assertThatThrownBy(service::acquireStream)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        service.writeTasks(project.getId(), null, new ByteArrayOutputStream()); // trả lại 1 suất
+        service.acquireStream();
+    }
+
+    @Test
+    void streamOverMaxDurationIsCut() {
+        for (int i = 0; i < 500; i++) {
+            persistTask(em, project, null, "Bulk " + i, List.of());
+        }
+        em.flush();
+        em.clear();
+        ReflectionTestUtils.setField(service, "maxDurationSeconds", 0L);
+
+        service.acquireStream();
+        assertThatThrownBy(() -> service.writeTasks(project.getId(), null, new ByteArrayOutputStream()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("exceeded");
+        service.acquireStream(); // suất đã được trả dù stream lỗi (mặc định 4)
+    }
+}
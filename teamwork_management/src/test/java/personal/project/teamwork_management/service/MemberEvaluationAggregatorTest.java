@@ -0,0 +1,303 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import personal.project.teamwork_management.event.ProjectDataChangedEvent;
+import personal.project.teamwork_management.model.*;
+import personal.project.teamwork_management.repository.*;
+import personal.project.teamwork_management.service.MemberEvaluationReportService.MemberRow;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static personal.project.teamwork_management.support.EntityFixtures.newTask;
+import static personal.project.teamwork_management.support.EntityFixtures.persistMember;
+import static personal.project.teamwork_management.support.EntityFixtures.persistProject;
+import static personal.project.teamwork_management.support.EntityFixtures.persistUser;
+
+/**
+ * So sánh kết quả GROUP BY (và cộng snapshot theo ngày) của MemberEvaluationAggregator với thuật toán cũ
+ * (vòng lặp members × tasks + 3 query count mỗi member) trên cùng bộ dữ liệu.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({MemberEvaluationAggregator.class, MemberPerformanceSnapshotService.class,
+        MemberEvaluationAggregatorTest.Metrics.class})
+class MemberEvaluationAggregatorTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
+    private static final LocalDate FROM = LocalDate.of(2025, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 3, 31);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private MemberEvaluationAggregator aggregator;
+
+    @Autowired
+    private MemberPerformanceSnapshotService snapshotService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskApprovalRepository taskApprovalRepository;
+
+    @Autowired
+    private ProjectMemberRepository projectMemberRepository;
+
+    @Autowired
+    private MemberPerformanceSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private MemberPerformanceSnapshotDirtyDayRepository dirtyDayRepository;
+
+    @Autowired
+    private MemberPerformanceSnapshotBuildRepository buildRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Project project;
+    private Date fromDate;
+    private Date toDate;
+
+    @BeforeEach
+    void seed() {
+        fromDate = Date.from(FROM.atStartOfDay(ZONE).toInstant());
+        toDate = Date.from(TO.plusDays(1).atStartOfDay(ZONE).minusNanos(1).toInstant());
+
+        Random rnd = new Random(42);
+        project = persistProject(em, "Main");
+        Project other = persistProject(em, "Other");
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // user 5 không có tên -> dùng email; user 6 không phải thành viên nhưng vẫn được giao task
+            users.add(persistUser(em, i == 5 ? null : "First" + i, i == 5 ? null : "Last" + (i % 3), "u" + i + "@mail.test"));
+        }
+        for (int i = 0; i < 6; i++) {
+            persistMember(em, project, users.get(i), i == 0 ? Role.LEADER : Role.MEMBER);
+        }
+        persistMember(em, other, users.get(0), Role.LEADER);
+
+        Status[] statuses = Status.values();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            Project p = i % 10 == 0 ? other : project;
+            // deadline rải quanh kỳ báo cáo, gồm cả mốc biên from/to
+            ZonedDateTime deadline = switch (i % 13) {
+                case 0 -> FROM.atStartOfDay(ZONE);
+                case 1 -> TO.plusDays(1).atStartOfDay(ZONE).minusNanos(1_000_000);
+                case 2 -> FROM.atStartOfDay(ZONE).minusSeconds(1);
+                default -> FROM.atStartOfDay(ZONE).plusHours(rnd.nextInt(24 * 50) - 24 * 10);
+            };
+            User creator = i % 7 == 0 ? null : users.get(rnd.nextInt(users.size()));
+            List<User> assignees = new ArrayList<>();
+            int n = rnd.nextInt(4);
+            for (int k = 0; k < n; k++) {
+                User u = users.get(rnd.nextInt(users.size()));
+                if (!assignees.contains(u)) assignees.add(u);
+            }
+            tasks.add(persistTask(p, "Task " + i, statuses[rnd.nextInt(statuses.length)],
+                    Date.from(deadline.toInstant()), creator, assignees));
+        }
+
+        ApprovalAction[] actions = ApprovalAction.values();
+        for (int i = 0; i < 120; i++) {
+            Task t = tasks.get(rnd.nextInt(tasks.size()));
+            ZonedDateTime at = FROM.atStartOfDay(ZONE).plusHours(rnd.nextInt(24 * 45) - 24 * 7);
+            persistLog(t, actions[rnd.nextInt(actions.length)], users.get(rnd.nextInt(users.size())),
+                    Date.from(at.toInstant()));
+        }
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void aggregateMatchesLegacyPerMemberLoop() {
+        List<MemberRow> expected = legacyRows(project.getId(), fromDate, toDate);
+        List<MemberRow> actual = aggregator.aggregate(project.getId(), fromDate, toDate);
+
+        assertThat(expected).hasSize(6);
+        assertThat(expected).anyMatch(r -> r.getAssigned() > 0 && r.getSubmissions() > 0);
+        assertThat(actual).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected);
+    }
+
+    @Test
+    void emptyPeriodGivesZeroRowsForEveryMember() {
+        Date from = Date.from(LocalDate.of(2030, 1, 1).atStartOfDay(ZONE).toInstant());
+        Date to = Date.from(LocalDate.of(2030, 1, 31).atStartOfDay(ZONE).toInstant());
+
+        List<MemberRow> actual = aggregator.aggregate(project.getId(), from, to);
+
+        assertThat(actual).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(legacyRows(project.getId(), from, to));
+        assertThat(actual).allMatch(r -> r.getAssigned() == 0 && r.getSubmissions() == 0 && r.getScore() == 0);
+    }
+
+    @Test
+    void snapshotSumsMatchLegacyAndRebucketLateStatusChange() {
+        assertThat(snapshotService.isFresh(project.getId(), FROM, TO)).isFalse();
+        assertThat(snapshotService.rebuildProject(project.getId())).isPositive();
+        assertThat(snapshotService.isFresh(project.getId(), FROM, TO)).isTrue();
+
+        assertThat(aggregator.aggregate(project.getId(), FROM, TO, true)).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(legacyRows(project.getId(), fromDate, toDate));
+        // khoảng con (vài ngày giữa kỳ) cũng khớp
+        LocalDate subFrom = FROM.plusDays(5), subTo = FROM.plusDays(11);
+        assertThat(aggregator.aggregate(project.getId(), subFrom, subTo, true))
+                .usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(legacyRows(project.getId(), Date.from(subFrom.atStartOfDay(ZONE).toInstant()),
+                        Date.from(subTo.plusDays(1).atStartOfDay(ZONE).minusNanos(1).toInstant())));
+
+        // đổi status + dời deadline 1 task đã giao sang ngày khác trong kỳ
+        Task task = taskRepository.findAll().stream()
+                .filter(t -> t.getProject().getId().equals(project.getId()) && !t.getAssignedUsers().isEmpty()
+                        && t.getStatus() != Status.COMPLETED && t.getDeadline().after(fromDate)
+                        && t.getDeadline().before(toDate))
+                .findFirst().orElseThrow();
+        Date oldDeadline = task.getDeadline();
+        Date newDeadline = Date.from(TO.atStartOfDay(ZONE).plusHours(3).toInstant());
+        task.setStatus(Status.COMPLETED);
+        task.setDeadline(newDeadline);
+        em.flush();
+        // giống ProjectDataChangeListener sau commit
+        snapshotService.onProjectDataChanged(new ProjectDataChangedEvent(project.getId(), Task.class, task.getId(),
+                List.of(newDeadline, oldDeadline)));
+
+        assertThat(snapshotService.isFresh(project.getId(), FROM, TO)).isFalse();
+        snapshotService.flushDirtyDays();
+        assertThat(snapshotService.isFresh(project.getId(), FROM, TO)).isTrue();
+        assertThat(aggregator.aggregate(project.getId(), FROM, TO, true)).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(legacyRows(project.getId(), fromDate, toDate));
+    }
+
+    // trạng thái nằm trong DB: ngày đánh dấu ở instance khác cũng làm snapshot hết fresh ở instance này
+    @Test
+    void dirtyDaysMarkedOnAnotherInstanceAreSeen() {
+        MemberPerformanceSnapshotService otherInstance = new MemberPerformanceSnapshotService(snapshotRepository,
+                dirtyDayRepository, buildRepository, taskRepository, taskApprovalRepository, projectRepository,
+                transactionManager, new SimpleMeterRegistry());
+        otherInstance.rebuildProject(project.getId());
+        assertThat(snapshotService.isFresh(project.getId(), FROM, TO)).isTrue();
+
+        Date changed = Date.from(FROM.plusDays(3).atStartOfDay(ZONE).plusHours(9).toInstant());
+        otherInstance.onProjectDataChanged(new ProjectDataChangedEvent(project.getId(), Task.class, 0L, List.of(changed)));
+
+        assertThat(snapshotService.isFresh(project.getId(), FROM, TO)).isFalse();
+        assertThat(snapshotService.isFresh(project.getId(), FROM.plusDays(4), TO)).isTrue();
+        snapshotService.flushDirtyDays();
+        assertThat(snapshotService.isFresh(project.getId(), FROM, TO)).isTrue();
+        assertThat(aggregator.aggregate(project.getId(), FROM, TO, true)).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(legacyRows(project.getId(), fromDate, toDate));
+    }
+
+    // ===== Thuật toán cũ của MemberEvaluationReportService.buildModel (trước khi gom GROUP BY) =====
+    private List<MemberRow> legacyRows(Long projectId, Date from, Date to) {
+        List<Task> periodTasks = new ArrayList<>();
+        for (Task t : taskRepository.findAll()) {
+            if (t.getProject().getId().equals(projectId) && t.getDeadline() != null
+                    && !t.getDeadline().before(from) && !t.getDeadline().after(to)) {
+                periodTasks.add(t);
+            }
+        }
+
+        Set<User> members = new LinkedHashSet<>();
+        for (ProjectMember member : projectMemberRepository.findByProjectId(projectId)) {
+            members.add(member.getUser());
+        }
+
+        List<MemberRow> rows = new ArrayList<>();
+        for (User u : members) {
+            long assigned = 0, onTime = 0, late = 0, selfCreated = 0;
+            for (Task t : periodTasks) {
+                boolean isAssigned = t.getAssignedUsers() != null &&
+                        t.getAssignedUsers().stream().anyMatch(x -> Objects.equals(x.getId(), u.getId()));
+                if (isAssigned) {
+                    assigned++;
+                    if (t.getStatus() == Status.COMPLETED) onTime++;
+                    else if (t.getStatus() == Status.OVERDUE) late++;
+                }
+                if (t.getCreatedBy() != null && Objects.equals(t.getCreatedBy().getId(), u.getId())) {
+                    selfCreated++;
+                }
+            }
+            long submissions = taskApprovalRepository.countSubmissions(u.getId(), projectId, from, to);
+            long approvals = taskApprovalRepository.countByStatus(u.getId(), projectId, ApprovalAction.APPROVE, from, to);
+            long rejects = taskApprovalRepository.countByStatus(u.getId(), projectId, ApprovalAction.REJECT, from, to);
+
+            double deadlineRate = assigned > 0 ? (double) onTime / assigned : 0.0;
+            double approvalRate = submissions > 0 ? (double) approvals / submissions : 0.0;
+            double base = 0.5 * deadlineRate + 0.4 * approvalRate;
+            double bonus = Math.log1p(selfCreated) / Math.log(2) * 0.1;
+            double score = Math.min(100.0, (base + bonus) * 100.0);
+
+            String fn = u.getFirstName() == null ? "" : u.getFirstName();
+            String ln = u.getLastName() == null ? "" : u.getLastName();
+            String name = (fn + " " + ln).trim();
+
+            rows.add(MemberRow.builder()
+                    .userId(u.getId())
+                    .memberName(!name.isBlank() ? name : u.getEmail())
+                    .assigned(assigned)
+                    .onTime(onTime)
+                    .late(late)
+                    .selfCreated(selfCreated)
+                    .submissions(submissions)
+                    .approvals(approvals)
+                    .rejects(rejects)
+                    .deadlineRate(Math.round(deadlineRate * 100))
+                    .approvalRate(Math.round(approvalRate * 100))
+                    .score(Math.round(score))
+                    .build());
+        }
+        return rows;
+    }
+
+    // ===== fixtures =====
+    private Task persistTask(Project p, String title, Status status, Date deadline, User creator, List<User> assignees) {
+        Task t = newTask(p, null, title, assignees);
+        t.setStatus(status);
+        t.setDeadline(deadline);
+        t.setCreatedBy(creator);
+        return em.persist(t);
+    }
+
+    private void persistLog(Task t, ApprovalAction action, User by, Date at) {
+        TaskApprovalLog log = new TaskApprovalLog();
+        log.setTask(t);
+        log.setAction(action);
+        log.setPerformedBy(by);
+        log.setCreatedAt(at);
+        em.persist(log);
+    }
+}
@@ -0,0 +1,33 @@
+package personal.project.teamwork_management.service;
+
+import org.junit.jupiter.api.Test;
+import personal.project.teamwork_management.event.ProjectDataChangedEvent;
+import personal.project.teamwork_management.model.Task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mỗi thay đổi tăng version của đúng project đó và version toàn cục; project khác không bị ảnh hưởng.
+ */
+class ProjectDataVersionServiceTest {
+
+    private final ProjectDataVersionService service = new ProjectDataVersionService();
+
+    @Test
+    void unknownProjectStartsAtZero() {
+        assertThat(service.getVersion(42L)).isZero();
+        assertThat(service.getGlobalVersion()).isZero();
+    }
+
+    @Test
+    void changeBumpsOwnProjectAndGlobalOnly() {
+        service.onProjectDataChanged(new ProjectDataChangedEvent(1L, Task.class, 10L));
+        service.onProjectDataChanged(new ProjectDataChangedEvent(1L, Task.class, 11L));
+        service.onProjectDataChanged(new ProjectDataChangedEvent(2L, Task.class, 20L));
+
+        assertThat(service.getVersion(1L)).isEqualTo(2);
+        assertThat(service.getVersion(2L)).isEqualTo(1);
+        assertThat(service.getVersion(3L)).isZero();
+        assertThat(service.getGlobalVersion()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,98 @@
+package personal.project.teamwork_management.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import personal.project.teamwork_management.dto.TaskDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProjectTreeLoaderTest {
+
+    private final TaskService taskService = mock(TaskService.class);
+    private ThreadPoolTaskExecutor executor;
+    private ProjectTreeLoader loader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(3);
+        executor.setMaxPoolSize(3);
+        executor.initialize();
+
+        PlatformTransactionManager tm = mock(PlatformTransactionManager.class);
+        when(tm.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        loader = new ProjectTreeLoader(taskService, executor, tm);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("leader@mail.test", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void parallelLoadKeepsRootOrderAndCallerAuthentication() throws Exception {
+        Map<Long, String> principals = new ConcurrentHashMap<>();
+        when(taskService.getTaskHierarchyForReport(anyLong())).thenAnswer(inv -> {
+            Long rootId = inv.getArgument(0);
+            principals.put(rootId, SecurityContextHolder.getContext().getAuthentication().getName());
+            Thread.sleep((20 - rootId) * 2); // root đầu xong sau cùng
+            return chain(rootId);
+        });
+        List<Long> rootIds = LongStream.rangeClosed(1, 12).boxed().toList();
+
+        List<List<TaskDto>> parallel = loader.loadHierarchies(rootIds);
+        ReflectionTestUtils.setField(loader, "parallelism", 1);
+        List<List<TaskDto>> serial = loader.loadHierarchies(rootIds);
+
+        assertThat(parallel).usingRecursiveComparison().isEqualTo(serial);
+        assertThat(parallel).extracting(c -> c.get(0).getId()).containsExactlyElementsOf(rootIds);
+        assertThat(principals.values()).hasSize(12).containsOnly("leader@mail.test");
+    }
+
+    @Test
+    void checkedExceptionFromTaskServiceIsRethrownAsIs() throws Exception {
+        when(taskService.getTaskHierarchyForReport(anyLong())).thenAnswer(inv -> {
+            if (inv.<Long>getArgument(0) == 3L) throw new Exception("No permission to read this project");
+            return chain(inv.getArgument(0));
+        });
+
+        assertThatThrownBy(() -> loader.loadHierarchies(List.of(1L, 2L, 3L, 4L)))
+                .isExactlyInstanceOf(Exception.class)
+                .hasMessage("No permission to read this project");
+    }
+
+    private static List<TaskDto> chain(Long rootId) {
+        List<TaskDto> list = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TaskDto dto = new TaskDto();
+            dto.setId(rootId * 100 + i);
+            dto.setLevel(i + 1);
+            dto.setTitle("Task " + rootId + "." + i);
+            list.add(dto);
+        }
+        list.get(0).setId(rootId);
+        return list;
+    }
+}
@@ -0,0 +1,147 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import personal.project.teamwork_management.dto.MemberDto;
+import personal.project.teamwork_management.dto.ProjectDto;
+import personal.project.teamwork_management.dto.TaskDto;
+import personal.project.teamwork_management.dto.UserDto;
+import personal.project.teamwork_management.event.ProjectDataChangedEvent;
+import personal.project.teamwork_management.model.Role;
+import personal.project.teamwork_management.model.Task;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * View project được ghép 1 lần cho mỗi version dữ liệu, kể cả khi nhiều request cùng mở project.
+ */
+class ProjectViewCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ProjectDataVersionService versionService = new ProjectDataVersionService();
+    private final ProjectViewCache cache = new ProjectViewCache(versionService, registry);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesCopiesUntilProjectDataChanges() throws Exception {
+        ProjectDto first = cache.getOrLoad(1L, this::load);
+        first.getTasks().clear();
+        ProjectDto second = cache.getOrLoad(1L, this::load);
+
+        assertThat(loads).hasValue(1);
+        assertThat(second.getTasks()).hasSize(1);
+
+        ProjectDataChangedEvent event = new ProjectDataChangedEvent(1L, Task.class, 5L);
+        versionService.onProjectDataChanged(event);
+        cache.onProjectDataChanged(event);
+        cache.getOrLoad(1L, this::load);
+
+        assertThat(loads).hasValue(2);
+        assertThat(registry.get("project.view.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void callersCannotMutateCachedElements() throws Exception {
+        ProjectDto first = cache.getOrLoad(4L, this::load);
+        first.getMembers().get(0).setRole(Role.LEADER);
+        TaskDto task = first.getTasks().get(0);
+        task.setTitle("changed");
+        task.getAssignedUsers().get(0).setEmail("changed@mail.test");
+        task.getDeadline().setTime(0);
+
+        ProjectDto second = cache.getOrLoad(4L, this::load);
+
+        assertThat(loads).hasValue(1);
+        assertThat(second.getMembers().get(0).getRole()).isEqualTo(Role.MEMBER);
+        TaskDto cached = second.getTasks().get(0);
+        assertThat(cached.getTitle()).isEqualTo("Task");
+        assertThat(cached.getAssignedUsers().get(0).getEmail()).isEqualTo("a@mail.test");
+        assertThat(cached.getDeadline().getTime()).isEqualTo(1_000L);
+    }
+
+    @Test
+    void concurrentOpensShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ProjectDto>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.getOrLoad(2L, () -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return load();
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<ProjectDto> f : results) {
+                assertThat(f.get(5, TimeUnit.SECONDS).getName()).isEqualTo("Project");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void waitersGiveUpOnStuckLoader() throws Exception {
+        ReflectionTestUtils.setField(cache, "waitSeconds", 0L);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<ProjectDto> stuck = pool.submit(() -> cache.getOrLoad(5L, () -> {
+                loading.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return load();
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> cache.getOrLoad(5L, this::load))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+            // entry treo đã bị bỏ: request sau tự load
+            assertThat(cache.getOrLoad(5L, this::load).getName()).isEqualTo("Project");
+            assertThat(loads).hasValue(1);
+
+            release.countDown();
+            assertThat(stuck.get(5, TimeUnit.SECONDS).getName()).isEqualTo("Project");
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(registry.get("project.view.cache.requests").tag("result", "timeout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedLoadIsNotCached() throws Exception {
+        assertThatThrownBy(() -> cache.getOrLoad(3L, () -> {
+            throw new Exception("Project not found with id: 3");
+        })).hasMessage("Project not found with id: 3");
+
+        cache.getOrLoad(3L, this::load);
+        assertThat(loads).hasValue(1);
+    }
+
+    private ProjectDto load() {
+        loads.incrementAndGet();
+        ProjectDto dto = new ProjectDto(1L, "Project", null, null, 10L, null, null);
+        dto.setMembers(new ArrayList<>(List.of(new MemberDto(7L, "A", "B", "a@mail.test", Role.MEMBER))));
+        TaskDto task = new TaskDto(9L, "Task", null, 1, 1, 7L, null, 0, 1L, null, new Date(1_000L));
+        task.setAssignedUsers(new ArrayList<>(List.of(new UserDto(7L, "A", "B", "a@mail.test", null, null))));
+        dto.setTasks(new ArrayList<>(List.of(task)));
+        return dto;
+    }
+}
@@ -0,0 +1,135 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import personal.project.teamwork_management.event.ProjectDataChangedEvent;
+import personal.project.teamwork_management.model.Task;
+import personal.project.teamwork_management.repository.TaskRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mỗi người gọi nhận file riêng (loại entry không xoá file đã trả ra), miss đồng thời chỉ render 1 lần,
+ * task vừa chuyển OVERDUE làm cache miss.
+ */
+class ReportCacheServiceTest {
+
+    @TempDir
+    Path reportDir;
+
+    private final ProjectDataVersionService versionService = new ProjectDataVersionService();
+    private final TaskService taskService = mock(TaskService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger renders = new AtomicInteger();
+    private ReportCacheService cache;
+
+    @BeforeEach
+    void setUp() {
+        DomainMetrics metrics = new DomainMetrics(registry, mock(TaskRepository.class), versionService);
+        cache = new ReportCacheService(versionService, taskService, registry, metrics);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 10);
+        ReflectionTestUtils.setField(cache, "maxAgeMinutes", 30L);
+        ReflectionTestUtils.setField(cache, "cacheDir", reportDir.resolve("cache").toString());
+    }
+
+    @Test
+    void everyCallerGetsItsOwnFile() throws Exception {
+        Path first = get(1L);
+        Path second = get(1L);
+
+        assertThat(renders).hasValue(1);
+        assertThat(second).isNotEqualTo(first).hasSameTextualContentAs(first);
+        assertThat(second.getParent()).isEqualTo(first.getParent());
+
+        // dữ liệu đổi => bản cũ của cache bị loại, file đã trả cho người gọi vẫn còn
+        versionService.onProjectDataChanged(new ProjectDataChangedEvent(1L, Task.class, 9L));
+        Path third = get(1L);
+        cache.evictExpired();
+        ReflectionTestUtils.setField(cache, "maxAgeMinutes", -1L);
+        cache.evictExpired();
+
+        assertThat(renders).hasValue(2);
+        assertThat(first).exists().hasContent("render 1");
+        assertThat(second).exists().hasContent("render 1");
+        assertThat(third).exists().hasContent("render 2");
+        try (var files = Files.list(reportDir.resolve("cache"))) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void lruEvictionKeepsHandedOutFiles() throws Exception {
+        ReflectionTestUtils.setField(cache, "maxEntries", 1);
+        Path p1 = get(1L);
+        Path p2 = get(2L); // đẩy project 1 ra khỏi cache
+
+        assertThat(p1).exists();
+        assertThat(p2).exists();
+        get(1L);
+        assertThat(renders).hasValue(3);
+    }
+
+    @Test
+    void concurrentMissesRenderOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Path>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> cache.getOrGenerate("project", ReportFormat.PDF, 1L, null, null, null,
+                        () -> {
+                            release.await(5, TimeUnit.SECONDS);
+                            return render(1L);
+                        })));
+            }
+            Thread.sleep(200); // cả 4 đã vào getOrGenerate
+            release.countDown();
+
+            List<Path> paths = new ArrayList<>();
+            for (Future<Path> f : results) {
+                paths.add(f.get(5, TimeUnit.SECONDS));
+            }
+            assertThat(renders).hasValue(1);
+            assertThat(paths).doesNotHaveDuplicates().allSatisfy(p -> assertThat(p).hasContent("render 1"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void newlyOverdueTasksForceRegeneration() throws Exception {
+        get(1L);
+        when(taskService.refreshOverdueTasks(1L)).thenReturn(2);
+        Path refreshed = get(1L);
+
+        assertThat(renders).hasValue(2);
+        assertThat(refreshed).hasContent("render 2");
+    }
+
+    private Path get(Long projectId) throws Exception {
+        return cache.getOrGenerate("project", ReportFormat.PDF, projectId, null, null, null, () -> render(projectId));
+    }
+
+    // như renderPdf: file mới trong thư mục report, nội dung = số lần render
+    private Path render(Long projectId) throws Exception {
+        int n = renders.incrementAndGet();
+        return Files.writeString(reportDir.resolve("project-" + projectId + "-" + n + ".pdf"), "render " + n);
+    }
+}
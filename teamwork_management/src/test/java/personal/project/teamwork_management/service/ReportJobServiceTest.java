@@ -0,0 +1,220 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import personal.project.teamwork_management.dto.ReportJobDto;
+import personal.project.teamwork_management.dto.ReportJobDto.JobStatus;
+import personal.project.teamwork_management.model.User;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Job chạy trên pool riêng, người poll chỉ thấy snapshot trọn vẹn; quyền kiểm tra lúc submit, giới hạn job mỗi user,
+ * lỗi được ghi lại; TTL chỉ xoá file của job.
+ */
+class ReportJobServiceTest {
+
+    private final ProjectReportService projectReportService = mock(ProjectReportService.class);
+    private final UserService userService = mock(UserService.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final BlockingQueue<ReportJobDto> pushed = new LinkedBlockingQueue<>();
+    @TempDir
+    Path reportDir;
+    private Path jobsDir;
+    private ThreadPoolTaskExecutor executor;
+    private ReportJobService service;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10);
+        executor.initialize();
+
+        User user = new User();
+        user.setId(7L);
+        when(userService.getCurrentUser()).thenReturn(user);
+        doAnswer(inv -> pushed.add(inv.getArgument(1))).when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+
+        service = new ReportJobService(projectReportService, mock(MemberEvaluationReportService.class),
+                mock(ProjectMemberReportService.class), userService, messagingTemplate, executor,
+                new SimpleMeterRegistry());
+        jobsDir = reportDir.resolve("jobs");
+        ReflectionTestUtils.setField(service, "maxPerUser", 2);
+        ReflectionTestUtils.setField(service, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(service, "jobsDir", jobsDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void jobRunsInBackgroundAndPublishesFinishedSnapshot() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(projectReportService.generatePdf(anyLong())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            // worker không mở transaction bao quanh cả lượt render
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+            return report("project-1.pdf");
+        });
+
+        ReportJobDto submitted = service.submitProjectReport(1L, ReportFormat.PDF);
+        assertThat(submitted.getStatus()).isEqualTo(JobStatus.QUEUED);
+
+        release.countDown();
+        ReportJobDto done = pushed.poll(5, TimeUnit.SECONDS);
+
+        assertThat(done).isNotNull();
+        assertThat(done.getStatus()).isEqualTo(JobStatus.DONE);
+        assertThat(done.getFileName()).isEqualTo("project-1.pdf");
+        assertThat(done.getPath()).startsWith(jobsDir.resolve(submitted.getId()).toAbsolutePath());
+        assertThat(Files.readString(done.getPath())).isEqualTo("project-1.pdf");
+        assertThat(reportDir.resolve("project-1.pdf")).doesNotExist(); // đã chuyển vào thư mục của job
+        assertThat(done.getStartedAt()).isNotNull();
+        assertThat(done.getFinishedAt()).isNotNull();
+        assertThat(service.getJob(submitted.getId())).isEqualTo(done);
+        // snapshot đã trả cho client không bị worker sửa
+        assertThat(submitted.getStatus()).isEqualTo(JobStatus.QUEUED);
+        assertThat(submitted.getFileName()).isNull();
+    }
+
+    @Test
+    void pollersNeverSeeDoneWithoutItsFile() throws Exception {
+        when(projectReportService.generateExcel(anyLong())).thenReturn(report("project-2.xlsx"));
+        List<ReportJobDto> seen = new CopyOnWriteArrayList<>();
+        AtomicBoolean stop = new AtomicBoolean();
+
+        ReportJobDto submitted = service.submitProjectReport(2L, ReportFormat.XLSX);
+        Thread poller = new Thread(() -> {
+            while (!stop.get()) {
+                seen.add(service.getJob(submitted.getId()));
+            }
+        });
+        // getCurrentUser của mock đọc được trên mọi thread
+        poller.start();
+        assertThat(pushed.poll(5, TimeUnit.SECONDS)).isNotNull();
+        stop.set(true);
+        poller.join();
+
+        assertThat(seen).filteredOn(j -> j.getStatus() == JobStatus.DONE)
+                .allSatisfy(j -> {
+                    assertThat(j.getFileName()).isEqualTo("project-2.xlsx");
+                    assertThat(j.getFinishedAt()).isNotNull();
+                });
+        assertThat(seen).filteredOn(j -> j.getStatus() == JobStatus.RUNNING)
+                .allSatisfy(j -> assertThat(j.getStartedAt()).isNotNull());
+    }
+
+    @Test
+    void failureIsRecordedOnTheJob() throws Exception {
+        when(projectReportService.generatePdf(anyLong())).thenThrow(new IllegalStateException("template missing"));
+
+        ReportJobDto submitted = service.submitProjectReport(3L, ReportFormat.PDF);
+        ReportJobDto failed = pushed.poll(5, TimeUnit.SECONDS);
+
+        assertThat(failed).isNotNull();
+        assertThat(failed.getStatus()).isEqualTo(JobStatus.FAILED);
+        assertThat(failed.getError()).isEqualTo("template missing");
+        assertThat(service.getMyJobs()).extracting(ReportJobDto::getId).containsExactly(submitted.getId());
+    }
+
+    @Test
+    void jobsBeyondPerUserLimitAreRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(projectReportService.generatePdf(anyLong())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return report("p.pdf");
+        });
+        try {
+            service.submitProjectReport(1L, ReportFormat.PDF);
+            service.submitProjectReport(2L, ReportFormat.PDF);
+
+            assertThatThrownBy(() -> service.submitProjectReport(3L, ReportFormat.PDF))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+        } finally {
+            release.countDown();
+        }
+        assertThat(pushed.poll(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(pushed.poll(5, TimeUnit.SECONDS)).isNotNull();
+        service.submitProjectReport(3L, ReportFormat.PDF); // đã có suất trống
+    }
+
+    @Test
+    void submitWithoutAccessIsForbiddenUpFront() throws Exception {
+        doThrow(new RuntimeException("Access denied: Only LEADER/VICE_LEADER can create project report."))
+                .when(projectReportService).checkAccess(5L);
+
+        assertThatThrownBy(() -> service.submitProjectReport(5L, ReportFormat.PDF))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN));
+        assertThat(service.getMyJobs()).isEmpty();
+        verify(projectReportService, never()).generatePdf(5L);
+    }
+
+    @Test
+    void cleanupDeletesOnlyExpiredJobFiles() throws Exception {
+        Path cached = report("cached.pdf"); // file của cache / endpoint đồng bộ, cùng thư mục report
+        when(projectReportService.generatePdf(anyLong())).thenReturn(report("project-1.pdf"));
+        ReportJobDto submitted = service.submitProjectReport(1L, ReportFormat.PDF);
+        Path jobFile = pushed.poll(5, TimeUnit.SECONDS).getPath();
+
+        Path orphan = Files.createDirectories(jobsDir.resolve("left-from-restart"));
+        Files.writeString(orphan.resolve("old.pdf"), "old");
+        Files.setLastModifiedTime(orphan, FileTime.from(Instant.now().minusSeconds(7200)));
+        Path recent = Files.createDirectories(jobsDir.resolve("just-created"));
+
+        service.cleanupExpired(); // TTL 60 phút: job vừa xong còn giữ
+        assertThat(jobFile).exists();
+        assertThat(orphan).doesNotExist();
+        assertThat(recent).exists();
+
+        ReflectionTestUtils.setField(service, "ttlMinutes", -1L);
+        service.cleanupExpired();
+        assertThat(jobFile).doesNotExist();
+        assertThat(jobFile.getParent()).doesNotExist();
+        assertThat(cached).exists().hasContent("cached.pdf");
+        assertThatThrownBy(() -> service.getJob(submitted.getId()))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    // file báo cáo vừa sinh (nội dung = tên file)
+    private Path report(String name) throws Exception {
+        return Files.writeString(reportDir.resolve(name), name);
+    }
+}
@@ -0,0 +1,48 @@
+package personal.project.teamwork_management.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Model được dựng trong 1 transaction đã commit khi load() trả về; lỗi của buildModel đi ra nguyên vẹn (rollback).
+ */
+class ReportModelLoaderTest {
+
+    private final PlatformTransactionManager tm = mock(PlatformTransactionManager.class);
+    private final TransactionStatus status = new SimpleTransactionStatus();
+    private final ReportModelLoader loader = new ReportModelLoader(tm);
+
+    @Test
+    void modelIsBuiltInsideTransactionCommittedBeforeReturn() throws Exception {
+        when(tm.getTransaction(any())).thenReturn(status);
+
+        Map<String, Object> model = loader.load(() -> {
+            verify(tm, never()).commit(any());
+            return Map.of("projectName", "Demo");
+        });
+
+        assertThat(model).containsEntry("projectName", "Demo");
+        verify(tm).commit(status);
+    }
+
+    @Test
+    void checkedExceptionOfBuildModelIsRethrownAsIs() {
+        when(tm.getTransaction(any())).thenReturn(status);
+
+        assertThatThrownBy(() -> loader.load(() -> {
+            throw new IOException("template missing");
+        })).isExactlyInstanceOf(IOException.class).hasMessage("template missing");
+        verify(tm).rollback(status);
+        verify(tm, never()).commit(any());
+    }
+}
@@ -0,0 +1,105 @@
+package personal.project.teamwork_management.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import personal.project.teamwork_management.config.SqlStatsConfig;
+import personal.project.teamwork_management.model.Project;
+import personal.project.teamwork_management.model.Status;
+import personal.project.teamwork_management.repository.ProjectRepository;
+import personal.project.teamwork_management.util.RequestSqlStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hook Hibernate (SqlStatsConfig) ghi vào RequestSqlStats, SqlStatsService gắn cờ vòng findById (N+1).
+ */
+@DataJpaTest(properties = "spring.sql-stats.repeat-threshold=5")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SqlStatsConfig.class, SqlStatsService.class, SqlStatsServiceTest.Metrics.class})
+class SqlStatsServiceTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private SqlStatsService sqlStatsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        RequestSqlStats.end();
+        sqlStatsService.reset(); // bean dùng chung giữa các test
+    }
+
+    @Test
+    void findByIdLoopIsCountedAndFlaggedAsRepeated() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Project p = new Project();
+            p.setName("P" + i);
+            p.setStatus(Status.IN_PROGRESS);
+            ids.add(em.persist(p).getId());
+        }
+        em.flush();
+        em.clear();
+
+        RequestSqlStats stats = RequestSqlStats.begin();
+        ids.forEach(id -> projectRepository.findById(id).orElseThrow());
+        RequestSqlStats.end();
+
+        assertThat(stats.getStatements()).isEqualTo(6);
+        assertThat(stats.getEntityLoads()).isEqualTo(6);
+        assertThat(stats.getJdbcNanos()).isPositive();
+        assertThat(stats.mostRepeated().getValue()).isEqualTo(6);
+        assertThat(stats.mostRepeated().getKey()).startsWith("select").contains("where").doesNotContain(ids.get(0) + " ");
+
+        sqlStatsService.record("GET", "/api/projects/{id}", stats);
+
+        assertThat(meterRegistry.get("http.server.sql.flagged").tag("reason", SqlStatsService.REASON_REPEATED)
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("http.server.sql.flagged").tag("reason", SqlStatsService.REASON_STATEMENTS)
+                .counter()).isNull();
+        assertThat(meterRegistry.get("http.server.sql.statements").tag("uri", "/api/projects/{id}")
+                .summary().totalAmount()).isEqualTo(6);
+
+        Map<String, Object> top = sqlStatsService.topOffenders(5).get(0);
+        assertThat(top).containsEntry("endpoint", "GET /api/projects/{id}")
+                .containsEntry("flagged", 1L)
+                .containsEntry("mostRepeatedCount", 6);
+    }
+
+    @Test
+    void statementsOutsideRequestAreIgnored() {
+        assertThat(RequestSqlStats.current()).isNull();
+        projectRepository.count(); // không có request -> hook không làm gì, không lỗi
+        assertThat(sqlStatsService.topOffenders(5)).isEmpty();
+    }
+}
@@ -0,0 +1,63 @@
+package personal.project.teamwork_management.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Progress tính trong bộ nhớ theo trọng số priority (tầng 1) và priority / level (subtask); chỉ task cha đổi mới cần ghi.
+ */
+class TaskProgressTreeTest {
+
+    // id, parent_id, priority, level, progress
+    private static Object[] row(long id, Long parentId, int priority, int level, int progress) {
+        return new Object[]{id, parentId, priority, level, progress};
+    }
+
+    // 1 (p1) -> 2 (p1, 100%), 3 (p3, 0%); 4 (p3, lá 50%)
+    private static final List<Object[]> ROWS = List.of(
+            row(1, null, 1, 1, 0),
+            row(2, 1L, 1, 2, 100),
+            row(3, 1L, 3, 2, 0),
+            row(4, null, 3, 1, 50));
+
+    @Test
+    void subtreeProgressIsWeightedByPriorityOverLevel() {
+        TaskProgressTree tree = new TaskProgressTree(ROWS);
+
+        assertThat(tree.taskProgress(1L)).isCloseTo(25.0, within(1e-9));
+        assertThat(tree.visited()).isEqualTo(3);
+        assertThat(tree.changes()).isEqualTo(Map.of(1L, 26));
+    }
+
+    @Test
+    void projectProgressIsWeightedByLevelOnePriority() {
+        TaskProgressTree tree = new TaskProgressTree(ROWS);
+
+        // (1 * 25 + 3 * 50) / 4
+        assertThat(tree.projectProgress()).isCloseTo(43.75, within(1e-9));
+        assertThat(tree.size()).isEqualTo(4);
+        assertThat(tree.visited()).isEqualTo(4);
+    }
+
+    @Test
+    void storedProgressAlreadyUpToDateIsNotRewritten() {
+        TaskProgressTree tree = new TaskProgressTree(List.of(
+                row(1, null, 1, 1, 26),
+                row(2, 1L, 1, 2, 100),
+                row(3, 1L, 3, 2, 0)));
+
+        tree.taskProgress(1L);
+
+        assertThat(tree.changes()).isEmpty();
+    }
+
+    @Test
+    void unknownTaskHasNoProgress() {
+        assertThat(new TaskProgressTree(ROWS).taskProgress(99L)).isNull();
+    }
+}
@@ -0,0 +1,56 @@
+package personal.project.teamwork_management.service;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import personal.project.teamwork_management.service.MemberEvaluationReportService.MemberRow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Đọc lại file XLSX đã ghi: tiêu đề, meta, header và cột "#" đánh số đúng cả khi các dòng bằng nhau (equals).
+ */
+class XlsxReportWriterTest {
+
+    @Test
+    void writesLayoutAndNumbersEqualRowsSequentially() throws Exception {
+        MemberRow row = MemberRow.builder().memberName("An").assigned(3).score(80).build();
+        List<MemberRow> items = List.of(row, MemberRow.builder().memberName("An").assigned(3).score(80).build(), row);
+        Map<String, String> meta = new LinkedHashMap<>();
+        meta.put("Project", "P");
+        meta.put("Member", "An");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new XlsxReportWriter().write(out, "Báo cáo", meta, List.of(
+                XlsxReportWriter.Column.rowNumber("#"),
+                new XlsxReportWriter.Column<>("Thành viên", MemberRow::getMemberName),
+                new XlsxReportWriter.Column<>("Assigned", MemberRow::getAssignedTasks)), items);
+
+        try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = wb.getSheet("Report");
+            assertThat(sheet.getRow(0).getCell(0).getStringCellValue()).isEqualTo("Báo cáo");
+            assertThat(sheet.getRow(1).getCell(0).getStringCellValue()).isEqualTo("Project");
+            assertThat(sheet.getRow(2).getCell(1).getStringCellValue()).isEqualTo("An");
+            assertThat(sheet.getRow(3)).isNull(); // dòng trống
+
+            Row header = sheet.getRow(4);
+            assertThat(header.getCell(0).getStringCellValue()).isEqualTo("#");
+            assertThat(header.getCell(1).getStringCellValue()).isEqualTo("Thành viên");
+
+            for (int i = 0; i < items.size(); i++) {
+                Row body = sheet.getRow(5 + i);
+                assertThat(body.getCell(0).getNumericCellValue()).isEqualTo(i + 1);
+                assertThat(body.getCell(1).getStringCellValue()).isEqualTo("An");
+                assertThat(body.getCell(2).getNumericCellValue()).isEqualTo(3);
+            }
+            assertThat(sheet.getLastRowNum()).isEqualTo(5 + items.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package personal.project.teamwork_management.support;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import personal.project.teamwork_management.model.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Entity tối thiểu cho test JPA (@DataJpaTest + TestEntityManager): user, project, thành viên, task.
+ * Task mặc định IN_PROGRESS, deadline lúc tạo, priority 1, progress 0, level theo parent (gốc 1, con 2);
+ * test cần giá trị khác thì sửa trên newTask rồi tự persist.
+ */
+public final class EntityFixtures {
+
+    private EntityFixtures() {
+    }
+
+    public static User persistUser(TestEntityManager em, String email) {
+        return persistUser(em, null, null, email);
+    }
+
+    public static User persistUser(TestEntityManager em, String firstName, String lastName, String email) {
+        User u = new User();
+        u.setFirstName(firstName);
+        u.setLastName(lastName);
+        u.setEmail(email);
+        u.setPassword("x");
+        return em.persist(u);
+    }
+
+    public static Project persistProject(TestEntityManager em, String name) {
+        Project p = new Project();
+        p.setName(name);
+        p.setStatus(Status.IN_PROGRESS);
+        return em.persist(p);
+    }
+
+    public static void persistMember(TestEntityManager em, Project project, User user, Role role) {
+        ProjectMember pm = new ProjectMember();
+        pm.setProject(project);
+        pm.setUser(user);
+        pm.setRole(role);
+        em.persist(pm);
+    }
+
+    public static Task persistTask(TestEntityManager em, Project project, Task parent, String title, List<User> assignees) {
+        return em.persist(newTask(project, parent, title, assignees));
+    }
+
+    public static Task newTask(Project project, Task parent, String title, List<User> assignees) {
+        Task t = new Task();
+        t.setTitle(title);
+        t.setProject(project);
+        t.setParent(parent);
+        t.setLevel(parent == null ? 1 : 2);
+        t.setStatus(Status.IN_PROGRESS);
+        t.setDeadline(new Date());
+        t.setPriority(1);
+        t.setProgress(0);
+        t.setAssignedUsers(new ArrayList<>(assignees));
+        return t;
+    }
+}